@@ -0,0 +1,239 @@
+package io.bhagat.math.fourier;
+
+import io.bhagat.math.linearalgebra.Matrix;
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+import java.util.Arrays;
+
+/**
+ * Fast Fourier transforms of any length in one and two dimensions, with specializations for real input.
+ * Complex sequences are held as separate arrays of real and imaginary parts. All methods are thread safe.
+ */
+public class FFT {
+
+    private FFT() {}
+
+    /**
+     * Computes the discrete Fourier transform in place
+     * @param re the real parts
+     * @param im the imaginary parts
+     */
+    public static void fft(double[] re, double[] im) {
+        checkLengths(re, im);
+        FFTPlan.of(re.length).forward(re, im);
+    }
+
+    /**
+     * Computes the inverse discrete Fourier transform in place, scaled by 1 / n
+     * @param re the real parts
+     * @param im the imaginary parts
+     */
+    public static void ifft(double[] re, double[] im) {
+        checkLengths(re, im);
+        FFTPlan.of(re.length).inverse(re, im);
+    }
+
+    /**
+     * Computes the non-redundant half of the transform of a real sequence. Even lengths are transformed as a
+     * complex sequence of half the length.
+     * @param x the real sequence
+     * @return the real and imaginary parts of the first n / 2 + 1 frequencies
+     */
+    public static double[][] rfft(double[] x) {
+        int n = x.length;
+        int bins = n / 2 + 1;
+        double[] outRe = new double[bins], outIm = new double[bins];
+        if(n % 2 != 0 || n < 4) {
+            double[] re = x.clone(), im = new double[n];
+            fft(re, im);
+            System.arraycopy(re, 0, outRe, 0, bins);
+            System.arraycopy(im, 0, outIm, 0, bins);
+            return new double[][] { outRe, outIm };
+        }
+        int h = n / 2;
+        double[] zRe = new double[h], zIm = new double[h];
+        for(int k = 0; k < h; k++) {
+            zRe[k] = x[2 * k];
+            zIm[k] = x[2 * k + 1];
+        }
+        FFTPlan plan = FFTPlan.of(h);
+        plan.forward(zRe, zIm);
+        double[][] twiddles = plan.realTwiddles();
+        double[] cos = twiddles[0], sin = twiddles[1];
+        for(int k = 0; k <= h; k++) {
+            int a = k % h, b = (h - k) % h;
+            // even and odd halves of the spectrum recovered from Z[k] and conj(Z[h - k])
+            double evenRe = (zRe[a] + zRe[b]) / 2, evenIm = (zIm[a] - zIm[b]) / 2;
+            double oddRe = (zIm[a] + zIm[b]) / 2, oddIm = -(zRe[a] - zRe[b]) / 2;
+            double wRe = cos[k], wIm = sin[k];
+            outRe[k] = evenRe + oddRe * wRe - oddIm * wIm;
+            outIm[k] = evenIm + oddRe * wIm + oddIm * wRe;
+        }
+        return new double[][] { outRe, outIm };
+    }
+
+    /**
+     * Inverts rfft, rebuilding a real sequence from the first n / 2 + 1 frequencies of its transform
+     * @param re the real parts of the frequencies
+     * @param im the imaginary parts of the frequencies
+     * @param n the length of the real sequence
+     * @return the real sequence
+     */
+    public static double[] irfft(double[] re, double[] im, int n) {
+        if(re.length != n / 2 + 1 || im.length != n / 2 + 1)
+            throw new IllegalArgumentException("Expected " + (n / 2 + 1) + " frequencies for a length of " + n);
+        if(n % 2 != 0 || n < 4) {
+            double[] fullRe = new double[n], fullIm = new double[n];
+            for(int k = 0; k < n; k++) {
+                boolean mirrored = k >= re.length;
+                fullRe[k] = mirrored? re[n - k]: re[k];
+                fullIm[k] = mirrored? -im[n - k]: im[k];
+            }
+            ifft(fullRe, fullIm);
+            return fullRe;
+        }
+        int h = n / 2;
+        FFTPlan plan = FFTPlan.of(h);
+        double[][] twiddles = plan.realTwiddles();
+        double[] cos = twiddles[0], sin = twiddles[1];
+        double[] zRe = new double[h], zIm = new double[h];
+        for(int k = 0; k < h; k++) {
+            double wRe = cos[k], wIm = -sin[k];
+            double evenRe = (re[k] + re[h - k]) / 2, evenIm = (im[k] - im[h - k]) / 2;
+            double dRe = (re[k] - re[h - k]) / 2, dIm = (im[k] + im[h - k]) / 2;
+            double oddRe = dRe * wRe - dIm * wIm, oddIm = dRe * wIm + dIm * wRe;
+            zRe[k] = evenRe - oddIm;
+            zIm[k] = evenIm + oddRe;
+        }
+        plan.inverse(zRe, zIm);
+        double[] x = new double[n];
+        for(int k = 0; k < h; k++) {
+            x[2 * k] = zRe[k];
+            x[2 * k + 1] = zIm[k];
+        }
+        return x;
+    }
+
+    /**
+     * Computes the two dimensional transform of a row major array in place
+     * @param re the real parts
+     * @param im the imaginary parts
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param inverse true for the inverse transform, which is scaled by 1 / (rows * cols)
+     */
+    public static void fft2(double[] re, double[] im, int rows, int cols, boolean inverse) {
+        if(re.length != rows * cols)
+            throw new IllegalArgumentException("Expected arrays of length " + rows * cols);
+        checkLengths(re, im);
+        FFTPlan rowPlan = FFTPlan.of(cols), colPlan = FFTPlan.of(rows);
+        double[] lineRe = new double[cols], lineIm = new double[cols];
+        for(int i = 0; i < rows; i++) {
+            System.arraycopy(re, i * cols, lineRe, 0, cols);
+            System.arraycopy(im, i * cols, lineIm, 0, cols);
+            if(inverse)
+                rowPlan.inverse(lineRe, lineIm);
+            else
+                rowPlan.forward(lineRe, lineIm);
+            System.arraycopy(lineRe, 0, re, i * cols, cols);
+            System.arraycopy(lineIm, 0, im, i * cols, cols);
+        }
+        lineRe = new double[rows];
+        lineIm = new double[rows];
+        for(int j = 0; j < cols; j++) {
+            for(int i = 0; i < rows; i++) {
+                lineRe[i] = re[i * cols + j];
+                lineIm[i] = im[i * cols + j];
+            }
+            if(inverse)
+                colPlan.inverse(lineRe, lineIm);
+            else
+                colPlan.forward(lineRe, lineIm);
+            for(int i = 0; i < rows; i++) {
+                re[i * cols + j] = lineRe[i];
+                im[i * cols + j] = lineIm[i];
+            }
+        }
+    }
+
+    /**
+     * Computes the two dimensional transform of a complex matrix
+     * @param re the real parts
+     * @param im the imaginary parts, or null for a real matrix
+     * @return an array of matricies where the first one holds the real parts and the second the imaginary parts
+     */
+    public static Matrix[] fft2(Matrix re, Matrix im) {
+        return fft2(re, im, false);
+    }
+
+    /**
+     * Computes the two dimensional inverse transform of a complex matrix
+     * @param re the real parts
+     * @param im the imaginary parts, or null for a real matrix
+     * @return an array of matricies where the first one holds the real parts and the second the imaginary parts
+     */
+    public static Matrix[] ifft2(Matrix re, Matrix im) {
+        return fft2(re, im, true);
+    }
+
+    /**
+     * Computes the linear convolution of two sequences, which is also the product of two polynomials given by
+     * their coefficients
+     * @param a the first sequence
+     * @param b the second sequence
+     * @return the convolution with a.length + b.length - 1 elements
+     */
+    public static double[] convolve(double[] a, double[] b) {
+        int length = a.length + b.length - 1;
+        int n = Integer.highestOneBit(Math.max(4, length) - 1) << 1;
+        double[][] fa = rfft(Arrays.copyOf(a, n));
+        double[][] fb = rfft(Arrays.copyOf(b, n));
+        for(int k = 0; k < fa[0].length; k++) {
+            double re = fa[0][k] * fb[0][k] - fa[1][k] * fb[1][k];
+            fa[1][k] = fa[0][k] * fb[1][k] + fa[1][k] * fb[0][k];
+            fa[0][k] = re;
+        }
+        return Arrays.copyOf(irfft(fa[0], fa[1], n), length);
+    }
+
+    /**
+     * Estimates the one sided power spectral density of a real signal with a periodogram
+     * @param x the signal
+     * @return the power of the first n / 2 + 1 frequencies
+     */
+    public static double[] powerSpectrum(double[] x) {
+        double[][] f = rfft(x);
+        double[] power = new double[f[0].length];
+        for(int k = 0; k < power.length; k++)
+            power[k] = (f[0][k] * f[0][k] + f[1][k] * f[1][k]) / x.length;
+        return power;
+    }
+
+    private static Matrix[] fft2(Matrix re, Matrix im, boolean inverse) {
+        int rows = re.getRows(), cols = re.getCols();
+        if(im != null && (im.getRows() != rows || im.getCols() != cols))
+            throw new InvalidShapeException(re.toString(), im.toString());
+        double[] dataRe = new double[rows * cols], dataIm = new double[rows * cols];
+        for(int i = 0; i < rows; i++) {
+            for(int j = 0; j < cols; j++) {
+                dataRe[i * cols + j] = re.get(i, j);
+                dataIm[i * cols + j] = im == null? 0: im.get(i, j);
+            }
+        }
+        fft2(dataRe, dataIm, rows, cols, inverse);
+        Matrix outRe = new Matrix(rows, cols), outIm = new Matrix(rows, cols);
+        for(int i = 0; i < rows; i++) {
+            for(int j = 0; j < cols; j++) {
+                outRe.set(dataRe[i * cols + j], i, j);
+                outIm.set(dataIm[i * cols + j], i, j);
+            }
+        }
+        return new Matrix[] { outRe, outIm };
+    }
+
+    private static void checkLengths(double[] re, double[] im) {
+        if(re.length != im.length)
+            throw new IllegalArgumentException("The real and imaginary parts must have the same length");
+    }
+
+}
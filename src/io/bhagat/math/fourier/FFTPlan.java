@@ -0,0 +1,283 @@
+package io.bhagat.math.fourier;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A precomputed plan for discrete Fourier transforms of one length. Powers of two use an iterative radix 2
+ * transform, lengths whose prime factors are all small use a mixed radix transform and any other length uses
+ * Bluestein's algorithm on top of a power of two plan. Plans are immutable and shared, so one plan can be used by
+ * many threads at once. The most recently used plans are cached, so a program that goes through many lengths only
+ * keeps the tables of the last {@value #MAX_CACHED_PLANS} of them.
+ */
+public final class FFTPlan {
+
+    /**
+     * The number of plans kept in the cache
+     */
+    public static final int MAX_CACHED_PLANS = 64;
+
+    private static final int MAX_MIXED_RADIX = 7;
+    private static final Map<Integer, FFTPlan> PLANS = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, FFTPlan> eldest) {
+            return size() > MAX_CACHED_PLANS;
+        }
+    };
+
+    private final int n;
+    private final double[] cos;
+    private final double[] sin;
+    private final int[] bitReverse;
+    private final int[] factors;
+    private final FFTPlan inner;
+    private final double[] chirpRe;
+    private final double[] chirpIm;
+    private final double[] kernelRe;
+    private final double[] kernelIm;
+    private volatile double[][] realTwiddles;
+
+    private FFTPlan(int n) {
+        this.n = n;
+        boolean powerOfTwo = (n & (n - 1)) == 0;
+        int[] primeFactors = factor(n);
+        boolean smooth = primeFactors.length == 0 || primeFactors[primeFactors.length - 1] <= MAX_MIXED_RADIX;
+
+        if(powerOfTwo || smooth) {
+            cos = new double[n];
+            sin = new double[n];
+            for(int j = 0; j < n; j++) {
+                double angle = -2 * Math.PI * j / n;
+                cos[j] = Math.cos(angle);
+                sin[j] = Math.sin(angle);
+            }
+        } else {
+            cos = null;
+            sin = null;
+        }
+        bitReverse = powerOfTwo? bitReversal(n): null;
+        factors = !powerOfTwo && smooth? primeFactors: null;
+
+        if(!powerOfTwo && !smooth) {
+            int m = Integer.highestOneBit(2 * n - 1) << 1;
+            inner = of(m);
+            chirpRe = new double[n];
+            chirpIm = new double[n];
+            for(int k = 0; k < n; k++) {
+                // k * k mod 2n keeps the angle small so it stays accurate for long transforms
+                double angle = -Math.PI * (((long) k * k) % (2L * n)) / n;
+                chirpRe[k] = Math.cos(angle);
+                chirpIm[k] = Math.sin(angle);
+            }
+            kernelRe = new double[m];
+            kernelIm = new double[m];
+            kernelRe[0] = chirpRe[0];
+            kernelIm[0] = -chirpIm[0];
+            for(int k = 1; k < n; k++) {
+                kernelRe[k] = kernelRe[m - k] = chirpRe[k];
+                kernelIm[k] = kernelIm[m - k] = -chirpIm[k];
+            }
+            inner.forward(kernelRe, kernelIm);
+        } else {
+            inner = null;
+            chirpRe = chirpIm = kernelRe = kernelIm = null;
+        }
+    }
+
+    /**
+     * Gets the shared plan for a length, creating it if it is not in the cache. The plan is built outside of the lock
+     * on the cache, so threads planning different lengths do not wait on each other.
+     * @param n the length of the transform
+     * @return the plan
+     */
+    public static FFTPlan of(int n) {
+        if(n < 1)
+            throw new IllegalArgumentException("The length of a transform must be positive, got " + n);
+        FFTPlan plan;
+        synchronized(PLANS) {
+            plan = PLANS.get(n);
+        }
+        if(plan == null) {
+            plan = new FFTPlan(n);
+            synchronized(PLANS) {
+                FFTPlan existing = PLANS.putIfAbsent(n, plan);
+                if(existing != null)
+                    plan = existing;
+            }
+        }
+        return plan;
+    }
+
+    /*
+     * Gets the twiddle factors e^(-2 pi i k / 2n) for k from 0 to n that combine a transform of this length into the
+     * transform of a real sequence of twice the length, computing them the first time they are needed
+     * @return the real parts and the imaginary parts
+     */
+    double[][] realTwiddles() {
+        double[][] twiddles = realTwiddles;
+        if(twiddles == null) {
+            double[] re = new double[n + 1], im = new double[n + 1];
+            for(int k = 0; k <= n; k++) {
+                double angle = -Math.PI * k / n;
+                re[k] = Math.cos(angle);
+                im[k] = Math.sin(angle);
+            }
+            twiddles = new double[][] { re, im };
+            realTwiddles = twiddles;
+        }
+        return twiddles;
+    }
+
+    /**
+     * Gets the length of the transforms done by this plan
+     * @return the length
+     */
+    public int getLength() {
+        return n;
+    }
+
+    /**
+     * Computes the forward transform in place
+     * @param re the real parts
+     * @param im the imaginary parts
+     */
+    public void forward(double[] re, double[] im) {
+        if(re.length != n || im.length != n)
+            throw new IllegalArgumentException("Expected arrays of length " + n);
+        if(n == 1)
+            return;
+        if(bitReverse != null)
+            radix2(re, im);
+        else if(factors != null)
+            mixedRadix(re, im);
+        else
+            bluestein(re, im);
+    }
+
+    /**
+     * Computes the inverse transform in place, scaled by 1 / n so that it undoes forward
+     * @param re the real parts
+     * @param im the imaginary parts
+     */
+    public void inverse(double[] re, double[] im) {
+        for(int i = 0; i < im.length; i++)
+            im[i] = -im[i];
+        forward(re, im);
+        for(int i = 0; i < n; i++) {
+            re[i] /= n;
+            im[i] = -im[i] / n;
+        }
+    }
+
+    private void radix2(double[] re, double[] im) {
+        for(int i = 0; i < n; i++) {
+            int j = bitReverse[i];
+            if(i < j) {
+                double t = re[i]; re[i] = re[j]; re[j] = t;
+                t = im[i]; im[i] = im[j]; im[j] = t;
+            }
+        }
+        for(int len = 2; len <= n; len <<= 1) {
+            int half = len >> 1, step = n / len;
+            for(int start = 0; start < n; start += len) {
+                for(int k = 0; k < half; k++) {
+                    double wRe = cos[k * step], wIm = sin[k * step];
+                    int i = start + k, j = i + half;
+                    double xRe = re[j] * wRe - im[j] * wIm;
+                    double xIm = re[j] * wIm + im[j] * wRe;
+                    re[j] = re[i] - xRe;
+                    im[j] = im[i] - xIm;
+                    re[i] += xRe;
+                    im[i] += xIm;
+                }
+            }
+        }
+    }
+
+    private void mixedRadix(double[] re, double[] im) {
+        double[] inRe = re.clone(), inIm = im.clone();
+        int maxFactor = factors[factors.length - 1];
+        mixedRadix(inRe, inIm, 0, 1, re, im, 0, n, 0, new double[maxFactor], new double[maxFactor]);
+    }
+
+    /*
+     * Recursive decimation in time step: transforms the length len sequence in[inOff + i * stride] into out[outOff..]
+     */
+    private void mixedRadix(double[] inRe, double[] inIm, int inOff, int stride, double[] outRe, double[] outIm,
+                            int outOff, int len, int factorIdx, double[] tRe, double[] tIm) {
+        if(len == 1) {
+            outRe[outOff] = inRe[inOff];
+            outIm[outOff] = inIm[inOff];
+            return;
+        }
+        int p = factors[factorIdx], m = len / p;
+        for(int r = 0; r < p; r++)
+            mixedRadix(inRe, inIm, inOff + r * stride, stride * p, outRe, outIm, outOff + r * m, m, factorIdx + 1, tRe, tIm);
+        int lenStep = n / len, pStep = n / p;
+        for(int q = 0; q < m; q++) {
+            for(int r = 0; r < p; r++) {
+                int w = (r * q * lenStep) % n;
+                double yRe = outRe[outOff + r * m + q], yIm = outIm[outOff + r * m + q];
+                tRe[r] = yRe * cos[w] - yIm * sin[w];
+                tIm[r] = yRe * sin[w] + yIm * cos[w];
+            }
+            for(int s = 0; s < p; s++) {
+                double sumRe = 0, sumIm = 0;
+                for(int r = 0; r < p; r++) {
+                    int w = ((r * s) % p) * pStep;
+                    sumRe += tRe[r] * cos[w] - tIm[r] * sin[w];
+                    sumIm += tRe[r] * sin[w] + tIm[r] * cos[w];
+                }
+                outRe[outOff + s * m + q] = sumRe;
+                outIm[outOff + s * m + q] = sumIm;
+            }
+        }
+    }
+
+    private void bluestein(double[] re, double[] im) {
+        int m = inner.n;
+        double[] aRe = new double[m], aIm = new double[m];
+        for(int k = 0; k < n; k++) {
+            aRe[k] = re[k] * chirpRe[k] - im[k] * chirpIm[k];
+            aIm[k] = re[k] * chirpIm[k] + im[k] * chirpRe[k];
+        }
+        inner.forward(aRe, aIm);
+        for(int k = 0; k < m; k++) {
+            double t = aRe[k] * kernelRe[k] - aIm[k] * kernelIm[k];
+            aIm[k] = aRe[k] * kernelIm[k] + aIm[k] * kernelRe[k];
+            aRe[k] = t;
+        }
+        inner.inverse(aRe, aIm);
+        for(int k = 0; k < n; k++) {
+            re[k] = aRe[k] * chirpRe[k] - aIm[k] * chirpIm[k];
+            im[k] = aRe[k] * chirpIm[k] + aIm[k] * chirpRe[k];
+        }
+    }
+
+    private static int[] bitReversal(int n) {
+        int[] rev = new int[n];
+        int bits = Integer.numberOfTrailingZeros(n);
+        for(int i = 0; i < n; i++)
+            rev[i] = bits == 0? 0: Integer.reverse(i) >>> (32 - bits);
+        return rev;
+    }
+
+    /*
+     * Gets the prime factors of n in ascending order
+     */
+    private static int[] factor(int n) {
+        List<Integer> factors = new ArrayList<>();
+        for(int p = 2; (long) p * p <= n; p++) {
+            while(n % p == 0) {
+                factors.add(p);
+                n /= p;
+            }
+        }
+        if(n > 1)
+            factors.add(n);
+        return factors.stream().mapToInt(i -> i).toArray();
+    }
+
+}
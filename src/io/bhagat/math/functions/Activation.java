@@ -0,0 +1,65 @@
+package io.bhagat.math.functions;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * An elementwise nonlinearity of a neural network layer. The derivative is given in terms of the output of the
+ * activation, which is all the common activations need, so the backward pass does not have to keep the inputs.
+ */
+public interface Activation {
+
+    /**
+     * The identity, for layers without a nonlinearity
+     */
+    Activation IDENTITY = of(x -> x, y -> 1);
+
+    /**
+     * The rectified linear unit max(0, x)
+     */
+    Activation RELU = of(x -> x > 0? x: 0, y -> y > 0? 1: 0);
+
+    /**
+     * The logistic sigmoid 1 / (1 + e<sup>-x</sup>)
+     */
+    Activation SIGMOID = of(x -> 1 / (1 + Math.exp(-x)), y -> y * (1 - y));
+
+    /**
+     * The hyperbolic tangent
+     */
+    Activation TANH = of(Math::tanh, y -> 1 - y * y);
+
+    /**
+     * Applies the activation
+     * @param x the input
+     * @return the output
+     */
+    double apply(double x);
+
+    /**
+     * Computes the derivative of the activation at the input that gave an output
+     * @param y the output of the activation
+     * @return the derivative
+     */
+    double derivative(double y);
+
+    /**
+     * Creates an activation from a function and its derivative
+     * @param function the activation
+     * @param derivative the derivative as a function of the output
+     * @return the activation
+     */
+    static Activation of(DoubleUnaryOperator function, DoubleUnaryOperator derivative) {
+        return new Activation() {
+            @Override
+            public double apply(double x) {
+                return function.applyAsDouble(x);
+            }
+
+            @Override
+            public double derivative(double y) {
+                return derivative.applyAsDouble(y);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,19 @@
+package io.bhagat.math.functions;
+
+/**
+ * A function of a matrix element and its position that works on primitive doubles, so it can be applied to every
+ * element of a matrix without boxing or allocating an entry object per element
+ */
+@FunctionalInterface
+public interface IndexedDoubleOperator {
+
+    /**
+     * Computes the new value of an element
+     * @param row the row of the element
+     * @param col the column of the element
+     * @param value the current value of the element
+     * @return the new value
+     */
+    double applyAsDouble(int row, int col, double value);
+
+}
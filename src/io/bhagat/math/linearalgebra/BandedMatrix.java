@@ -0,0 +1,172 @@
+package io.bhagat.math.linearalgebra;
+
+/**
+ * A square matrix that is zero outside of a band around its main diagonal. Only the band is stored, one row at a
+ * time, so a matrix with l diagonals below and u diagonals above the main diagonal takes n * (l + u + 1) entries.
+ */
+public class BandedMatrix extends StructuredMatrix {
+
+    private final int lowerBandwidth;
+    private final int upperBandwidth;
+    private final int width;
+    private final double[] band;
+
+    /**
+     * Creates a zero banded matrix
+     * @param size the number of rows and columns
+     * @param lowerBandwidth the number of diagonals below the main diagonal
+     * @param upperBandwidth the number of diagonals above the main diagonal
+     */
+    public BandedMatrix(int size, int lowerBandwidth, int upperBandwidth) {
+        super(size);
+        if(lowerBandwidth < 0 || upperBandwidth < 0)
+            throw new IllegalArgumentException("The bandwidths must not be negative");
+        this.lowerBandwidth = lowerBandwidth;
+        this.upperBandwidth = upperBandwidth;
+        this.width = lowerBandwidth + upperBandwidth + 1;
+        this.band = new double[size * width];
+    }
+
+    /**
+     * Creates a banded matrix from the band of a dense matrix, ignoring the entries outside of the band
+     * @param m the dense matrix
+     * @param lowerBandwidth the number of diagonals below the main diagonal
+     * @param upperBandwidth the number of diagonals above the main diagonal
+     * @return the banded matrix
+     */
+    public static BandedMatrix from(Matrix m, int lowerBandwidth, int upperBandwidth) {
+        assertSquare(m);
+        BandedMatrix b = new BandedMatrix(m.getRows(), lowerBandwidth, upperBandwidth);
+        for(int i = 0; i < m.getRows(); i++)
+            for(int j = Math.max(0, i - lowerBandwidth); j <= Math.min(m.getCols() - 1, i + upperBandwidth); j++)
+                b.band[b.index(i, j)] = m.get(i, j);
+        return b;
+    }
+
+    @Override
+    public double get(int r, int c) {
+        checkPosition(r, c);
+        return inBand(r, c)? band[index(r, c)]: 0;
+    }
+
+    @Override
+    public void set(double value, int r, int c) {
+        checkPosition(r, c);
+        if(!inBand(r, c))
+            throw outsideStructure(r, c);
+        band[index(r, c)] = value;
+    }
+
+    @Override
+    public Vector multiply(Vector v) {
+        assertLength(v);
+        int n = getRows();
+        Vector out = new Vector(n);
+        for(int i = 0; i < n; i++) {
+            double sum = 0;
+            for(int j = Math.max(0, i - lowerBandwidth); j <= Math.min(n - 1, i + upperBandwidth); j++)
+                sum += band[index(i, j)] * v.get(j);
+            out.set(sum, i);
+        }
+        return out;
+    }
+
+    /**
+     * Computes out = A<sup>T</sup> in by walking the band, which takes O(n * (l + u + 1)) time
+     * @param in the input vector
+     * @param out the vector that receives the output
+     */
+    @Override
+    public void applyTranspose(Vector in, Vector out) {
+        int n = getRows();
+        LinearOperators.checkLengths(in, out, n, n);
+        double[] sums = new double[n];
+        for(int i = 0; i < n; i++) {
+            double x = in.get(i);
+            for(int j = Math.max(0, i - lowerBandwidth); j <= Math.min(n - 1, i + upperBandwidth); j++)
+                sums[j] += band[index(i, j)] * x;
+        }
+        for(int j = 0; j < n; j++)
+            out.set(sums[j], j);
+    }
+
+    /**
+     * Solves the system of equations Ax = b with a banded LU factorization with partial pivoting. Row swaps can
+     * widen the upper band by the lower bandwidth, so the factorization takes n * (2l + u + 1) entries and
+     * O(n * l * (l + u)) time.
+     * @param b the right hand side
+     * @return the solution x
+     * @throws ArithmeticException if the matrix is singular
+     */
+    @Override
+    public Vector solve(Vector b) {
+        assertLength(b);
+        int n = getRows();
+        int kl = lowerBandwidth, ku = lowerBandwidth + upperBandwidth;
+        int w = kl + ku + 1;
+        double[] lu = new double[n * w];
+        for(int i = 0; i < n; i++)
+            for(int j = Math.max(0, i - kl); j <= Math.min(n - 1, i + upperBandwidth); j++)
+                lu[i * w + j - i + kl] = band[index(i, j)];
+        double[] x = b.getDataArray();
+
+        for(int k = 0; k < n; k++) {
+            int last = Math.min(n - 1, k + kl), end = Math.min(n - 1, k + ku);
+            int p = k;
+            for(int i = k + 1; i <= last; i++)
+                if(Math.abs(lu[i * w + k - i + kl]) > Math.abs(lu[p * w + k - p + kl]))
+                    p = i;
+            double pivot = lu[p * w + k - p + kl];
+            if(pivot == 0)
+                throw new ArithmeticException("The banded matrix is singular");
+            if(p != k) {
+                for(int j = k; j <= end; j++) {
+                    double t = lu[k * w + j - k + kl];
+                    lu[k * w + j - k + kl] = lu[p * w + j - p + kl];
+                    lu[p * w + j - p + kl] = t;
+                }
+                double t = x[k]; x[k] = x[p]; x[p] = t;
+            }
+            for(int i = k + 1; i <= last; i++) {
+                double factor = lu[i * w + k - i + kl] / pivot;
+                if(factor == 0)
+                    continue;
+                for(int j = k; j <= end; j++)
+                    lu[i * w + j - i + kl] -= factor * lu[k * w + j - k + kl];
+                x[i] -= factor * x[k];
+            }
+        }
+        for(int i = n - 1; i >= 0; i--) {
+            double sum = x[i];
+            for(int j = i + 1; j <= Math.min(n - 1, i + ku); j++)
+                sum -= lu[i * w + j - i + kl] * x[j];
+            x[i] = sum / lu[i * w + kl];
+        }
+        return new Vector(x);
+    }
+
+    /**
+     * Gets the number of diagonals below the main diagonal
+     * @return the lower bandwidth
+     */
+    public int getLowerBandwidth() {
+        return lowerBandwidth;
+    }
+
+    /**
+     * Gets the number of diagonals above the main diagonal
+     * @return the upper bandwidth
+     */
+    public int getUpperBandwidth() {
+        return upperBandwidth;
+    }
+
+    private boolean inBand(int r, int c) {
+        return c - r <= upperBandwidth && r - c <= lowerBandwidth;
+    }
+
+    private int index(int r, int c) {
+        return r * width + c - r + lowerBandwidth;
+    }
+
+}
@@ -0,0 +1,197 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+import java.util.Arrays;
+
+/**
+ * A matrix made of a grid of matrix blocks that are referenced instead of copied, so changes to a block show through.
+ * A null block is a block of zeros. Products are computed block by block and the dense matrix is only assembled once,
+ * when {@link #toMatrix()} is called.
+ */
+public class BlockMatrix implements LinearOperator {
+
+    private final Matrix[][] blocks;
+    private final int[] rowOffsets;
+    private final int[] colOffsets;
+
+    /**
+     * Creates a block matrix, where the blocks in a row of the grid must have the same number of rows and the blocks in
+     * a column of the grid must have the same number of columns
+     * @param blocks the grid of blocks, where every row and column of the grid has at least one block that is not null
+     */
+    public BlockMatrix(Matrix[][] blocks) {
+        int gridRows = blocks.length, gridCols = blocks[0].length;
+        this.blocks = new Matrix[gridRows][];
+        this.rowOffsets = new int[gridRows + 1];
+        this.colOffsets = new int[gridCols + 1];
+        int[] rows = new int[gridRows], cols = new int[gridCols];
+        Arrays.fill(rows, -1);
+        Arrays.fill(cols, -1);
+        for(int i = 0; i < gridRows; i++) {
+            if(blocks[i].length != gridCols)
+                throw new InvalidShapeException(Arrays.toString(blocks[i]));
+            this.blocks[i] = blocks[i].clone();
+            for(int j = 0; j < gridCols; j++) {
+                Matrix block = blocks[i][j];
+                if(block == null)
+                    continue;
+                if(rows[i] != -1 && rows[i] != block.getRows() || cols[j] != -1 && cols[j] != block.getCols())
+                    throw new InvalidShapeException(block.toString());
+                rows[i] = block.getRows();
+                cols[j] = block.getCols();
+            }
+        }
+        for(int i = 0; i < gridRows; i++) {
+            if(rows[i] == -1)
+                throw new InvalidShapeException("Row " + i + " of the grid only has zero blocks");
+            rowOffsets[i + 1] = rowOffsets[i] + rows[i];
+        }
+        for(int j = 0; j < gridCols; j++) {
+            if(cols[j] == -1)
+                throw new InvalidShapeException("Column " + j + " of the grid only has zero blocks");
+            colOffsets[j + 1] = colOffsets[j] + cols[j];
+        }
+    }
+
+    /**
+     * Places matricies with the same number of rows side by side
+     * @param ms the matricies
+     * @return the block matrix [A B ...]
+     */
+    public static BlockMatrix horizontal(Matrix... ms) {
+        return new BlockMatrix(new Matrix[][] { ms });
+    }
+
+    /**
+     * Stacks matricies with the same number of columns on top of each other
+     * @param ms the matricies
+     * @return the block matrix [A; B; ...]
+     */
+    public static BlockMatrix vertical(Matrix... ms) {
+        Matrix[][] grid = new Matrix[ms.length][];
+        for(int i = 0; i < ms.length; i++)
+            grid[i] = new Matrix[] { ms[i] };
+        return new BlockMatrix(grid);
+    }
+
+    /**
+     * Creates a block diagonal matrix with zero blocks off of the diagonal
+     * @param ms the diagonal blocks
+     * @return the block diagonal matrix
+     */
+    public static BlockMatrix diagonal(Matrix... ms) {
+        Matrix[][] grid = new Matrix[ms.length][ms.length];
+        for(int i = 0; i < ms.length; i++)
+            grid[i][i] = ms[i];
+        return new BlockMatrix(grid);
+    }
+
+    @Override
+    public int getRows() {
+        return rowOffsets[rowOffsets.length - 1];
+    }
+
+    @Override
+    public int getCols() {
+        return colOffsets[colOffsets.length - 1];
+    }
+
+    /**
+     * Gets a block of the grid
+     * @param i the row of the grid
+     * @param j the column of the grid
+     * @return the block, which is null for a zero block
+     */
+    public Matrix getBlock(int i, int j) {
+        return blocks[i][j];
+    }
+
+    /**
+     * Gets the element at a row and column of the whole matrix
+     * @param r the row
+     * @param c the column
+     * @return the element
+     */
+    public double get(int r, int c) {
+        if(r < 0 || r >= getRows() || c < 0 || c >= getCols())
+            throw new IndexOutOfBoundsException(r + ", " + c);
+        int i = findBlock(rowOffsets, r), j = findBlock(colOffsets, c);
+        Matrix block = blocks[i][j];
+        return block == null? 0: block.get(r - rowOffsets[i], c - colOffsets[j]);
+    }
+
+    /*
+     * Finds the block that contains an index with a binary search of the offsets
+     */
+    private static int findBlock(int[] offsets, int index) {
+        int position = Arrays.binarySearch(offsets, index);
+        return position >= 0? position: -position - 2;
+    }
+
+    @Override
+    public void apply(Vector in, Vector out) {
+        LinearOperators.checkLengths(in, out, getCols(), getRows());
+        multiply(in, out, false);
+    }
+
+    @Override
+    public void applyTranspose(Vector in, Vector out) {
+        LinearOperators.checkLengths(in, out, getRows(), getCols());
+        multiply(in, out, true);
+    }
+
+    /*
+     * Applies each block to its slice of the input and accumulates into its slice of the output
+     */
+    private void multiply(Vector in, Vector out, boolean transpose) {
+        int[] inOffsets = transpose? rowOffsets: colOffsets, outOffsets = transpose? colOffsets: rowOffsets;
+        double[] sums = new double[outOffsets[outOffsets.length - 1]];
+        for(int i = 0; i < blocks.length; i++) {
+            for(int j = 0; j < blocks[i].length; j++) {
+                Matrix block = blocks[i][j];
+                if(block == null)
+                    continue;
+                int inBlock = transpose? i: j, outBlock = transpose? j: i;
+                int inStart = inOffsets[inBlock], outStart = outOffsets[outBlock];
+                Vector slice = new Vector(inOffsets[inBlock + 1] - inStart);
+                for(int k = 0; k < slice.getLength(); k++)
+                    slice.set(in.get(inStart + k), k);
+                Vector product = transpose? block.applyTranspose(slice): block.apply(slice);
+                for(int k = 0; k < product.getLength(); k++)
+                    sums[outStart + k] += product.get(k);
+            }
+        }
+        for(int k = 0; k < sums.length; k++)
+            out.set(sums[k], k);
+    }
+
+    /**
+     * Assembles the dense matrix, copying each block once
+     * @return the dense matrix
+     */
+    public Matrix toMatrix() {
+        int cols = getCols();
+        Matrix m = new Matrix(getRows(), cols);
+        Object[] target = m.getBackingArray();
+        for(int i = 0; i < blocks.length; i++) {
+            for(int j = 0; j < blocks[i].length; j++) {
+                Matrix block = blocks[i][j];
+                if(block == null)
+                    continue;
+                Object[] source = block.readBackingArray();
+                int blockCols = block.getCols();
+                for(int r = 0; r < block.getRows(); r++)
+                    System.arraycopy(source, r * blockCols, target, (rowOffsets[i] + r) * cols + colOffsets[j],
+                            blockCols);
+            }
+        }
+        return m;
+    }
+
+    @Override
+    public String toString() {
+        return "BlockMatrix " + getRows() + "x" + getCols();
+    }
+
+}
@@ -0,0 +1,138 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+/**
+ * The Cholesky factorization of a symmetric positive definite matrix, A = LL<sup>T</sup>. The factor can be updated
+ * in place for a rank one change A + xx<sup>T</sup> or A - xx<sup>T</sup> in O(n^2), which is much cheaper than
+ * factoring the changed matrix again in O(n^3).
+ */
+public class CholeskyDecomposition {
+
+    private final int n;
+    private final double[] l;
+
+    /**
+     * Factors a symmetric positive definite matrix, only reading its lower triangle
+     * @param a the matrix
+     * @throws ArithmeticException if the matrix is not positive definite
+     */
+    public CholeskyDecomposition(Matrix a) {
+        this(SymmetricMatrix.from(a));
+    }
+
+    /**
+     * Factors a symmetric positive definite matrix
+     * @param a the matrix
+     * @throws ArithmeticException if the matrix is not positive definite
+     */
+    public CholeskyDecomposition(SymmetricMatrix a) {
+        this.n = a.getRows();
+        this.l = a.cholesky();
+    }
+
+    /**
+     * Updates the factorization to that of A + xx<sup>T</sup> with a sequence of rotations
+     * @param x the vector
+     */
+    public void update(Vector x) {
+        rankOne(x, 1);
+    }
+
+    /**
+     * Updates the factorization to that of A - xx<sup>T</sup>, leaving it unchanged if that is not positive definite
+     * @param x the vector
+     * @throws ArithmeticException if A - xx<sup>T</sup> is not positive definite
+     */
+    public void downdate(Vector x) {
+        rankOne(x, -1);
+    }
+
+    /*
+     * Updates the packed factor for A + sign xx^T, only writing the factor once every column has succeeded
+     */
+    private void rankOne(Vector x, int sign) {
+        if(x.getLength() != n)
+            throw new InvalidShapeException(x.toString());
+        double[] w = x.getDataArray();
+        double[] updated = l.clone();
+        for(int k = 0; k < n; k++) {
+            int diagonal = SymmetricMatrix.index(k, k);
+            double lkk = updated[diagonal];
+            double r2 = lkk * lkk + sign * w[k] * w[k];
+            if(r2 <= 0)
+                throw new ArithmeticException("The downdated matrix is not positive definite");
+            double r = Math.sqrt(r2);
+            double c = r / lkk, s = w[k] / lkk;
+            updated[diagonal] = r;
+            for(int i = k + 1; i < n; i++) {
+                int index = SymmetricMatrix.index(i, k);
+                updated[index] = (updated[index] + sign * s * w[i]) / c;
+                w[i] = c * w[i] - s * updated[index];
+            }
+        }
+        System.arraycopy(updated, 0, l, 0, l.length);
+    }
+
+    /**
+     * Solves the system of equations Ax = b by forward and back substitution
+     * @param b the right hand side
+     * @return the solution x
+     */
+    public Vector solve(Vector b) {
+        if(b.getLength() != n)
+            throw new InvalidShapeException(b.toString());
+        double[] x = b.getDataArray();
+        for(int i = 0; i < n; i++) {
+            double sum = x[i];
+            for(int j = 0; j < i; j++)
+                sum -= l[SymmetricMatrix.index(i, j)] * x[j];
+            x[i] = sum / l[SymmetricMatrix.index(i, i)];
+        }
+        for(int i = n - 1; i >= 0; i--) {
+            double sum = x[i];
+            for(int j = i + 1; j < n; j++)
+                sum -= l[SymmetricMatrix.index(j, i)] * x[j];
+            x[i] = sum / l[SymmetricMatrix.index(i, i)];
+        }
+        return new Vector(x);
+    }
+
+    /**
+     * Solves the system of equations AX = B for every column of B
+     * @param b the right hand sides
+     * @return the solutions X
+     */
+    public Matrix solve(Matrix b) {
+        if(b.getRows() != n)
+            throw new InvalidShapeException(b.toString());
+        Vector[] cols = b.getColVectors();
+        for(int j = 0; j < cols.length; j++)
+            cols[j] = solve(cols[j]);
+        return new Matrix(false, cols);
+    }
+
+    /**
+     * Calculates the determinant of the factored matrix as the squared product of the diagonal of L
+     * @return the determinant
+     */
+    public double determinant() {
+        double det = 1;
+        for(int i = 0; i < n; i++)
+            det *= l[SymmetricMatrix.index(i, i)];
+        return det * det;
+    }
+
+    /**
+     * Gets the lower triangular factor L
+     * @return L
+     */
+    public Matrix getL() {
+        Matrix L = new Matrix(n, n);
+        for(int i = 0; i < n; i++)
+            for(int j = 0; j <= i; j++)
+                L.set(l[SymmetricMatrix.index(i, j)], i, j);
+        return L;
+    }
+
+}
@@ -0,0 +1,274 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.fourier.FFT;
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+/**
+ * Two dimensional convolution and correlation of matrices. Three engines are available: a direct loop, im2col
+ * followed by a matrix product and an FFT based product. The automatic engine picks the direct loop or the FFT with a
+ * rough cost model of each. With a single kernel the im2col product has only one row, so building the patch matrix
+ * costs more than it saves and im2col is only used when it is asked for.
+ */
+public class Convolution {
+
+    /**
+     * Which part of the result to keep
+     */
+    public enum Mode {
+        /** only the positions where the kernel fits entirely inside the input */
+        VALID,
+        /** the central part with the same size as the input */
+        SAME,
+        /** every position where the kernel overlaps the input */
+        FULL
+    }
+
+    /**
+     * The algorithm used to compute the result
+     */
+    public enum Engine {
+        /** choose an engine with the cost model */
+        AUTO,
+        /** loop over every output position and kernel element */
+        DIRECT,
+        /** unfold the input patches into a matrix and multiply it with the kernel */
+        IM2COL,
+        /** multiply the spectra of the input and kernel */
+        FFT
+    }
+
+    private static final double DIRECT_COST_PER_KERNEL_ROW = 2;
+    private static final double FFT_COST_PER_BUTTERFLY = 2.5;
+
+    private Convolution() {}
+
+    /**
+     * Convolves a kernel across an input matrix
+     * @param input the input matrix
+     * @param kernel the kernel
+     * @param mode which part of the result to keep
+     * @return the resultant matrix
+     */
+    public static Matrix convolve(Matrix input, Matrix kernel, Mode mode) {
+        return convolve(input, kernel, mode, 1, 0, Engine.AUTO);
+    }
+
+    /**
+     * Convolves a kernel across an input matrix
+     * @param input the input matrix
+     * @param kernel the kernel
+     * @param mode which part of the result to keep
+     * @param stride the step between output positions in both directions
+     * @param padding the number of extra rows and columns of zeros added on every side of the input
+     * @param engine the algorithm to use
+     * @return the resultant matrix
+     */
+    public static Matrix convolve(Matrix input, Matrix kernel, Mode mode, int stride, int padding, Engine engine) {
+        return correlate(input, flip(kernel), mode, stride, padding, engine);
+    }
+
+    /**
+     * Correlates a kernel across an input matrix, which is a convolution without flipping the kernel
+     * @param input the input matrix
+     * @param kernel the kernel
+     * @param mode which part of the result to keep
+     * @return the resultant matrix
+     */
+    public static Matrix correlate(Matrix input, Matrix kernel, Mode mode) {
+        return correlate(input, kernel, mode, 1, 0, Engine.AUTO);
+    }
+
+    /**
+     * Correlates a kernel across an input matrix, which is a convolution without flipping the kernel
+     * @param input the input matrix
+     * @param kernel the kernel
+     * @param mode which part of the result to keep
+     * @param stride the step between output positions in both directions
+     * @param padding the number of extra rows and columns of zeros added on every side of the input
+     * @param engine the algorithm to use
+     * @return the resultant matrix
+     */
+    public static Matrix correlate(Matrix input, Matrix kernel, Mode mode, int stride, int padding, Engine engine) {
+        if(stride < 1 || padding < 0)
+            throw new IllegalArgumentException("The stride must be positive and the padding must not be negative");
+        Shape s = new Shape(input.getRows(), input.getCols(), kernel.getRows(), kernel.getCols(), mode, stride, padding);
+        if(s.outRows <= 0 || s.outCols <= 0)
+            throw new InvalidShapeException(input.toString(), kernel.toString());
+        if(engine == Engine.AUTO)
+            engine = chooseEngine(s);
+        double[] a = input.getFlatDataArray();
+        double[] k = kernel.getFlatDataArray();
+        double[] out;
+        switch(engine) {
+            case DIRECT:
+                out = direct(a, k, s);
+                break;
+            case IM2COL:
+                out = im2col(a, k, s);
+                break;
+            default:
+                out = fft(a, k, s);
+        }
+        return Matrix.fromFlatDataArray(s.outRows, s.outCols, out);
+    }
+
+    /**
+     * Picks the engine with the lowest estimated cost for a correlation
+     * @param inputRows the number of rows in the input
+     * @param inputCols the number of columns in the input
+     * @param kernelRows the number of rows in the kernel
+     * @param kernelCols the number of columns in the kernel
+     * @param mode which part of the result to keep
+     * @param stride the step between output positions
+     * @param padding the extra padding on every side
+     * @return the engine to use
+     */
+    public static Engine chooseEngine(int inputRows, int inputCols, int kernelRows, int kernelCols, Mode mode,
+                                      int stride, int padding) {
+        return chooseEngine(new Shape(inputRows, inputCols, kernelRows, kernelCols, mode, stride, padding));
+    }
+
+    private static Engine chooseEngine(Shape s) {
+        double outputs = (double) s.outRows * s.outCols;
+        double kernelSize = (double) s.kRows * s.kCols;
+        double direct = outputs * (kernelSize + DIRECT_COST_PER_KERNEL_ROW * s.kRows);
+        double size = (double) nextPowerOfTwo(s.rows + s.kRows - 1) * nextPowerOfTwo(s.cols + s.kCols - 1);
+        double fft = 3 * FFT_COST_PER_BUTTERFLY * size * (Math.log(size) / Math.log(2)) + 6 * size;
+        return direct <= fft? Engine.DIRECT: Engine.FFT;
+    }
+
+    private static double[] direct(double[] a, double[] k, Shape s) {
+        double[] out = new double[s.outRows * s.outCols];
+        for(int i = 0; i < s.outRows; i++) {
+            int top = i * s.stride - s.padTop;
+            int u0 = Math.max(0, -top), u1 = Math.min(s.kRows, s.rows - top);
+            for(int j = 0; j < s.outCols; j++) {
+                int left = j * s.stride - s.padLeft;
+                int v0 = Math.max(0, -left), v1 = Math.min(s.kCols, s.cols - left);
+                double sum = 0;
+                for(int u = u0; u < u1; u++) {
+                    int aRow = (top + u) * s.cols + left, kRow = u * s.kCols;
+                    for(int v = v0; v < v1; v++)
+                        sum += a[aRow + v] * k[kRow + v];
+                }
+                out[i * s.outCols + j] = sum;
+            }
+        }
+        return out;
+    }
+
+    /*
+     * Unfolds every input patch into a column of a kernel size by output size matrix, with zeros for the padding, and
+     * multiplies the kernel as a row vector by it with the dispatched matrix product
+     */
+    private static double[] im2col(double[] a, double[] k, Shape s) {
+        int kernelSize = s.kRows * s.kCols, outputs = s.outRows * s.outCols;
+        double[] columns = new double[kernelSize * outputs];
+        for(int u = 0; u < s.kRows; u++) {
+            for(int v = 0; v < s.kCols; v++) {
+                int row = (u * s.kCols + v) * outputs;
+                for(int i = 0; i < s.outRows; i++) {
+                    int r = i * s.stride - s.padTop + u;
+                    if(r < 0 || r >= s.rows)
+                        continue;
+                    for(int j = 0; j < s.outCols; j++) {
+                        int c = j * s.stride - s.padLeft + v;
+                        if(c >= 0 && c < s.cols)
+                            columns[row + i * s.outCols + j] = a[r * s.cols + c];
+                    }
+                }
+            }
+        }
+        double[] out = new double[outputs];
+        MatrixMultiply.dispatch(k, columns, out, 1, kernelSize, outputs);
+        return out;
+    }
+
+    private static double[] fft(double[] a, double[] k, Shape s) {
+        int fullRows = s.rows + s.kRows - 1, fullCols = s.cols + s.kCols - 1;
+        int n1 = nextPowerOfTwo(fullRows), n2 = nextPowerOfTwo(fullCols);
+        double[] aRe = new double[n1 * n2], aIm = new double[n1 * n2];
+        double[] kRe = new double[n1 * n2], kIm = new double[n1 * n2];
+        for(int i = 0; i < s.rows; i++)
+            System.arraycopy(a, i * s.cols, aRe, i * n2, s.cols);
+        // correlating with k is convolving with k flipped
+        for(int u = 0; u < s.kRows; u++)
+            for(int v = 0; v < s.kCols; v++)
+                kRe[u * n2 + v] = k[(s.kRows - 1 - u) * s.kCols + (s.kCols - 1 - v)];
+        FFT.fft2(aRe, aIm, n1, n2, false);
+        FFT.fft2(kRe, kIm, n1, n2, false);
+        for(int i = 0; i < aRe.length; i++) {
+            double re = aRe[i] * kRe[i] - aIm[i] * kIm[i];
+            aIm[i] = aRe[i] * kIm[i] + aIm[i] * kRe[i];
+            aRe[i] = re;
+        }
+        FFT.fft2(aRe, aIm, n1, n2, true);
+
+        double[] out = new double[s.outRows * s.outCols];
+        for(int i = 0; i < s.outRows; i++) {
+            int fr = i * s.stride - s.padTop + s.kRows - 1;
+            if(fr < 0 || fr >= fullRows)
+                continue;
+            for(int j = 0; j < s.outCols; j++) {
+                int fc = j * s.stride - s.padLeft + s.kCols - 1;
+                if(fc >= 0 && fc < fullCols)
+                    out[i * s.outCols + j] = aRe[fr * n2 + fc];
+            }
+        }
+        return out;
+    }
+
+    private static int nextPowerOfTwo(int n) {
+        return n <= 1? 1: Integer.highestOneBit(n - 1) << 1;
+    }
+
+    private static Matrix flip(Matrix kernel) {
+        int rows = kernel.getRows(), cols = kernel.getCols();
+        double[] k = kernel.getFlatDataArray();
+        double[] flipped = new double[k.length];
+        for(int i = 0; i < k.length; i++)
+            flipped[k.length - 1 - i] = k[i];
+        return Matrix.fromFlatDataArray(rows, cols, flipped);
+    }
+
+    /*
+     * The geometry of a correlation: the input and kernel sizes, the padding before the first row and column and
+     * the size of the output
+     */
+    private static final class Shape {
+
+        final int rows, cols, kRows, kCols, stride, padTop, padLeft, outRows, outCols;
+
+        Shape(int rows, int cols, int kRows, int kCols, Mode mode, int stride, int padding) {
+            this.rows = rows;
+            this.cols = cols;
+            this.kRows = kRows;
+            this.kCols = kCols;
+            this.stride = stride;
+            int padRows, padCols;
+            switch(mode) {
+                case FULL:
+                    padTop = kRows - 1 + padding;
+                    padLeft = kCols - 1 + padding;
+                    padRows = 2 * (kRows - 1) + 2 * padding;
+                    padCols = 2 * (kCols - 1) + 2 * padding;
+                    break;
+                case SAME:
+                    padTop = (kRows - 1) / 2 + padding;
+                    padLeft = (kCols - 1) / 2 + padding;
+                    padRows = kRows - 1 + 2 * padding;
+                    padCols = kCols - 1 + 2 * padding;
+                    break;
+                default:
+                    padTop = padding;
+                    padLeft = padding;
+                    padRows = 2 * padding;
+                    padCols = 2 * padding;
+            }
+            outRows = Math.floorDiv(rows + padRows - kRows, stride) + 1;
+            outCols = Math.floorDiv(cols + padCols - kCols, stride) + 1;
+        }
+
+    }
+
+}
@@ -0,0 +1,86 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.functions.Activation;
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+import java.util.stream.IntStream;
+
+/*
+ * The fused kernels for a dense layer Y = f(WX + b1^T) and its gradients. Each row of the output is accumulated in a
+ * scratch row, then the bias and the activation are applied while it is still in cache before it is stored, so no
+ * intermediate matrix is made for the product or the sum.
+ */
+class DenseLayer {
+
+    private DenseLayer() {}
+
+    /*
+     * Computes the layer on the columns of x
+     */
+    static Matrix forward(Matrix w, Matrix x, Vector b, Activation activation) {
+        int m = w.getRows(), k = w.getCols(), n = x.getCols();
+        if(x.getRows() != k || b != null && b.getLength() != m)
+            throw new InvalidShapeException(w.toString(), x.toString(), String.valueOf(b));
+        double[] weights = w.getFlatDataArray(), inputs = x.getFlatDataArray(), out = new double[m * n];
+        double[] bias = b == null? null: b.getDataArray();
+        if(Dispatcher.get().isParallel(Dispatcher.Operation.MULTIPLY, (long) m * k * n))
+            IntStream.range(0, m).parallel().forEach(i -> row(weights, inputs, bias, activation, out, i, k, n));
+        else
+            for(int i = 0; i < m; i++)
+                row(weights, inputs, bias, activation, out, i, k, n);
+        return Matrix.fromFlatDataArray(m, n, out);
+    }
+
+    private static void row(double[] w, double[] x, double[] b, Activation activation, double[] out, int i, int k,
+                            int n) {
+        int offset = i * n;
+        for(int p = 0; p < k; p++) {
+            double wip = w[i * k + p];
+            for(int j = 0; j < n; j++)
+                out[offset + j] += wip * x[p * n + j];
+        }
+        double bias = b == null? 0: b[i];
+        for(int j = 0; j < n; j++)
+            out[offset + j] = activation.apply(out[offset + j] + bias);
+    }
+
+    /*
+     * Computes the gradients with respect to x, w and b from the gradient with respect to the output y, going over
+     * the rows of the output once
+     */
+    static Matrix[] backward(Matrix w, Matrix x, Matrix y, Matrix gradient, Activation activation) {
+        int m = w.getRows(), k = w.getCols(), n = x.getCols();
+        if(x.getRows() != k || y.getRows() != m || y.getCols() != n || gradient.getRows() != m
+                || gradient.getCols() != n)
+            throw new InvalidShapeException(w.toString(), x.toString(), y.toString(), gradient.toString());
+        double[] weights = w.getFlatDataArray(), inputs = x.getFlatDataArray();
+        double[] outputs = y.getFlatDataArray(), gradients = gradient.getFlatDataArray();
+        double[] dx = new double[k * n], dw = new double[m * k], db = new double[m];
+        Workspace workspace = Workspace.get();
+        double[] dz = workspace.borrow(n);
+        try {
+            for(int i = 0; i < m; i++) {
+                double sum = 0;
+                for(int j = 0; j < n; j++) {
+                    dz[j] = gradients[i * n + j] * activation.derivative(outputs[i * n + j]);
+                    sum += dz[j];
+                }
+                db[i] = sum;
+                for(int p = 0; p < k; p++) {
+                    double dot = 0;
+                    for(int j = 0; j < n; j++)
+                        dot += dz[j] * inputs[p * n + j];
+                    dw[i * k + p] = dot;
+                    double wip = weights[i * k + p];
+                    for(int j = 0; j < n; j++)
+                        dx[p * n + j] += wip * dz[j];
+                }
+            }
+        } finally {
+            workspace.release(dz);
+        }
+        return new Matrix[] { Matrix.fromFlatDataArray(k, n, dx), Matrix.fromFlatDataArray(m, k, dw),
+                Matrix.fromFlatDataArray(m, 1, db) };
+    }
+
+}
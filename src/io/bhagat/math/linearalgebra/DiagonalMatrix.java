@@ -0,0 +1,138 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+import java.util.Arrays;
+
+/**
+ * A square matrix that is zero outside of its main diagonal, stored as just the diagonal
+ */
+public class DiagonalMatrix extends StructuredMatrix {
+
+    private final double[] diagonal;
+
+    /**
+     * Creates a diagonal matrix with specified diagonal entries
+     * @param diagonal the diagonal entries
+     */
+    public DiagonalMatrix(double... diagonal) {
+        super(diagonal.length);
+        this.diagonal = diagonal.clone();
+    }
+
+    /**
+     * Creates a diagonal matrix with the same value on every diagonal entry, which is a scaled identity matrix
+     * @param size the number of rows and columns
+     * @param value the value of each diagonal entry
+     */
+    public DiagonalMatrix(int size, double value) {
+        super(size);
+        this.diagonal = new double[size];
+        Arrays.fill(diagonal, value);
+    }
+
+    /**
+     * Creates a diagonal matrix from the diagonal of a dense matrix
+     * @param m the dense matrix
+     * @return the diagonal matrix
+     */
+    public static DiagonalMatrix from(Matrix m) {
+        assertSquare(m);
+        double[] diagonal = new double[m.getRows()];
+        for(int i = 0; i < diagonal.length; i++)
+            diagonal[i] = m.get(i, i);
+        return new DiagonalMatrix(diagonal);
+    }
+
+    @Override
+    public double get(int r, int c) {
+        return r == c? diagonal[r]: 0;
+    }
+
+    @Override
+    public void set(double value, int r, int c) {
+        if(r != c)
+            throw outsideStructure(r, c);
+        diagonal[r] = value;
+    }
+
+    @Override
+    public Vector multiply(Vector v) {
+        assertLength(v);
+        Vector out = new Vector(diagonal.length);
+        for(int i = 0; i < diagonal.length; i++)
+            out.set(diagonal[i] * v.get(i), i);
+        return out;
+    }
+
+    @Override
+    public Vector solve(Vector b) {
+        assertLength(b);
+        Vector x = new Vector(diagonal.length);
+        for(int i = 0; i < diagonal.length; i++)
+            x.set(b.get(i) / diagonal[i], i);
+        return x;
+    }
+
+    /**
+     * Multiplies this matrix with a dense matrix by scaling its rows
+     * @param m the dense matrix
+     * @return the resultant matrix
+     */
+    @Override
+    public Matrix multiply(Matrix m) {
+        if(m.getRows() != diagonal.length)
+            throw new InvalidShapeException(toString(), m.getRows() + "x" + m.getCols());
+        Matrix out = new Matrix(m.getRows(), m.getCols());
+        for(int i = 0; i < m.getRows(); i++)
+            for(int j = 0; j < m.getCols(); j++)
+                out.set(diagonal[i] * m.get(i, j), i, j);
+        return out;
+    }
+
+    /**
+     * Adds this matrix to a dense matrix, only touching the diagonal
+     * @param m the dense matrix
+     * @return the resultant matrix m + D
+     */
+    public Matrix addTo(Matrix m) {
+        return shift(m, 1);
+    }
+
+    /**
+     * Subtracts this matrix from a dense matrix, only touching the diagonal
+     * @param m the dense matrix
+     * @return the resultant matrix m - D
+     */
+    public Matrix subtractFrom(Matrix m) {
+        return shift(m, -1);
+    }
+
+    /**
+     * Computes out = A<sup>T</sup> in, which is the same as A in for a diagonal matrix
+     * @param in the input vector
+     * @param out the vector that receives the output
+     */
+    @Override
+    public void applyTranspose(Vector in, Vector out) {
+        apply(in, out);
+    }
+
+    /**
+     * Gets a copy of the diagonal entries
+     * @return the diagonal entries
+     */
+    public double[] getDiagonal() {
+        return diagonal.clone();
+    }
+
+    private Matrix shift(Matrix m, double sign) {
+        if(m.getRows() != diagonal.length || m.getCols() != diagonal.length)
+            throw new InvalidShapeException(m.getRows() + "x" + m.getCols(), toString());
+        Matrix out = m.clone();
+        for(int i = 0; i < diagonal.length; i++)
+            out.set(m.get(i, i) + sign * diagonal[i], i, i);
+        return out;
+    }
+
+}
@@ -0,0 +1,118 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A matrix of doubles stored outside of the java heap
+ */
+public class DirectMatrix extends DirectTensor {
+
+    private final int rows;
+    private final int cols;
+
+    /**
+     * Allocates a zero filled off-heap matrix with a defined size
+     * @param rows the number of rows in the matrix
+     * @param cols the number of cols in the matrix
+     */
+    public DirectMatrix(int rows, int cols) {
+        super(rows, cols);
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    /*
+     * Constructs a matrix over existing chunks of storage
+     * @param chunks the buffers holding the data
+     * @param rows the number of rows
+     * @param cols the number of cols
+     * @param readOnly whether writes should be rejected
+     */
+    DirectMatrix(ByteBuffer[] chunks, int rows, int cols, boolean readOnly) {
+        super(chunks, new int[] { rows, cols }, readOnly);
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    /**
+     * Copies a matrix into off-heap storage
+     * @param m the matrix to copy
+     * @return the off-heap copy
+     */
+    public static DirectMatrix of(Matrix m) {
+        DirectMatrix direct = new DirectMatrix(m.getRows(), m.getCols());
+        direct.copyFrom(m);
+        return direct;
+    }
+
+    /**
+     * Gets the element at a row and column
+     * @param r the row
+     * @param c the column
+     * @return the element
+     */
+    public double get(int r, int c) {
+        return getFlat((long) r * cols + c);
+    }
+
+    /**
+     * Sets the element at a row and column
+     * @param value the new value
+     * @param r the row
+     * @param c the column
+     */
+    public void set(double value, int r, int c) {
+        setFlat((long) r * cols + c, value);
+    }
+
+    /**
+     * Gets a specific row as a heap vector
+     * @param r the row index
+     * @return the row vector
+     */
+    public Vector getRowVector(int r) {
+        Vector v = new Vector(cols);
+        for(int j = 0; j < cols; j++)
+            v.set(get(r, j), j);
+        return v;
+    }
+
+    /**
+     * Multiplies this matrix with a vector without copying the matrix onto the heap
+     * @param v the vector
+     * @return the resultant vector
+     */
+    public Vector multiply(Vector v) {
+        if(v.getLength() != cols)
+            throw new InvalidShapeException(toString(), v.toString());
+        double[] x = v.getDataArray();
+        Vector out = new Vector(rows);
+        for(int i = 0; i < rows; i++) {
+            double sum = 0;
+            long base = (long) i * cols;
+            for(int j = 0; j < cols; j++)
+                sum += getFlat(base + j) * x[j];
+            out.set(sum, i);
+        }
+        return out;
+    }
+
+    /**
+     * Gets the number of rows in the matrix
+     * @return the number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of columns in the matrix
+     * @return the number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+}
@@ -0,0 +1,350 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A tensor of doubles stored outside of the java heap in direct (or memory mapped) byte buffers.
+ * The data is laid out in row major order as little endian doubles, split into chunks of at most 1 GiB so that
+ * tensors larger than a single buffer can be addressed.
+ * <p>
+ * Direct tensors are a separate storage type rather than a {@link Tensor} with another backing store. They are meant
+ * for moving large blocks of data to and from files, channels and native code, and are copied onto the heap with
+ * {@link #toTensor()} or {@link #toMatrix()} for arithmetic.
+ * <p>
+ * Storage that the tensor allocated or mapped itself is freed as soon as it is closed, without waiting for the
+ * garbage collector, so mapped files are unmapped and direct memory is returned at once. After that the tensor and
+ * any buffer got from {@link #getBuffer(int)} must not be used, and closing must not race with other threads reading
+ * or writing the tensor. A tensor made by {@link #wrap(ByteBuffer, int...)} does not own its buffer and only drops its
+ * reference to it when closed.
+ */
+public class DirectTensor implements AutoCloseable {
+
+    static final int CHUNK_SHIFT = 27;
+    static final long CHUNK_DOUBLES = 1L << CHUNK_SHIFT;
+    static final long CHUNK_BYTES = CHUNK_DOUBLES * Double.BYTES;
+    private static final long CHUNK_MASK = CHUNK_DOUBLES - 1;
+
+    private final int[] dimensions;
+    private final long[] multipliers;
+    private final long length;
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch(ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final boolean readOnly;
+    private final boolean owned;
+    private ByteBuffer[] chunks;
+
+    /**
+     * Allocates a zero filled off-heap tensor with specified dimensions
+     * @param dimensions the dimensions
+     */
+    public DirectTensor(int... dimensions) {
+        this(allocateChunks(lengthOf(dimensions)), dimensions, false);
+    }
+
+    /*
+     * Constructs a tensor over existing chunks of storage, which it owns and frees when it is closed
+     * @param chunks the buffers holding the data, each one holding CHUNK_DOUBLES doubles except for the last one
+     * @param dimensions the dimensions of the tensor
+     * @param readOnly whether writes should be rejected
+     */
+    DirectTensor(ByteBuffer[] chunks, int[] dimensions, boolean readOnly) {
+        this(chunks, dimensions, readOnly, true);
+    }
+
+    private DirectTensor(ByteBuffer[] chunks, int[] dimensions, boolean readOnly, boolean owned) {
+        this.dimensions = dimensions.clone();
+        this.multipliers = constructMultipliers(dimensions);
+        this.length = lengthOf(dimensions);
+        this.readOnly = readOnly;
+        this.owned = owned;
+        this.chunks = chunks;
+        for(ByteBuffer chunk: chunks)
+            chunk.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Wraps an existing buffer as a tensor without copying, the buffer is read as little endian doubles
+     * @param buffer the buffer, typically a direct or memory mapped buffer
+     * @param dimensions the dimensions of the tensor
+     * @return the tensor viewing the buffer
+     */
+    public static DirectTensor wrap(ByteBuffer buffer, int... dimensions) {
+        long length = lengthOf(dimensions);
+        if(length > CHUNK_DOUBLES || buffer.remaining() < length * Double.BYTES)
+            throw new InvalidShapeException(Arrays.toString(dimensions));
+        return new DirectTensor(new ByteBuffer[] { buffer.slice() }, dimensions, buffer.isReadOnly(), false);
+    }
+
+    /**
+     * Copies a tensor of doubles into off-heap storage
+     * @param tensor the tensor to copy
+     * @return the off-heap copy
+     */
+    public static DirectTensor of(Tensor<Double> tensor) {
+        DirectTensor direct = new DirectTensor(tensor.getDimensions());
+        direct.copyFrom(tensor);
+        return direct;
+    }
+
+    /**
+     * Gets the element at a position
+     * @param pos the position
+     * @return the element
+     */
+    public double get(int... pos) {
+        return getFlat(toIndex(pos));
+    }
+
+    /**
+     * Sets the element at a position
+     * @param value the value to put in the position
+     * @param pos the position to set
+     * @return the old element at this position
+     */
+    public double set(double value, int... pos) {
+        long idx = toIndex(pos);
+        double old = getFlat(idx);
+        setFlat(idx, value);
+        return old;
+    }
+
+    /**
+     * Gets an element by its row major index in the storage
+     * @param index the index
+     * @return the element
+     */
+    public double getFlat(long index) {
+        return chunk(index).getDouble(offset(index));
+    }
+
+    /**
+     * Sets an element by its row major index in the storage
+     * @param index the index
+     * @param value the new value
+     */
+    public void setFlat(long index, double value) {
+        if(readOnly)
+            throw new UnsupportedOperationException("This tensor is read only");
+        chunk(index).putDouble(offset(index), value);
+    }
+
+    /**
+     * Copies the contents of a heap tensor with the same number of elements into this tensor
+     * @param tensor the tensor to copy from
+     * @return a reference to this tensor
+     */
+    public DirectTensor copyFrom(Tensor<Double> tensor) {
+        if(tensor.getLength() != length)
+            throw new InvalidShapeException(tensor.toString());
+        Object[] backingArray = tensor.readBackingArray();
+        for(int i = 0; i < backingArray.length; i++)
+            setFlat(i, backingArray[i] == null? 0: (Double) backingArray[i]);
+        return this;
+    }
+
+    /**
+     * Copies the data into a tensor on the java heap
+     * @return the heap tensor
+     */
+    public Tensor<Double> toTensor() {
+        if(length > Integer.MAX_VALUE)
+            throw new InvalidShapeException(Arrays.toString(dimensions));
+        Object[] backingArray = new Object[(int) length];
+        for(int i = 0; i < backingArray.length; i++)
+            backingArray[i] = getFlat(i);
+        return new Tensor<>(backingArray, dimensions.clone());
+    }
+
+    /**
+     * Copies the data into a matrix on the java heap
+     * @return the matrix
+     */
+    public Matrix toMatrix() {
+        if(dimensions.length != 2)
+            throw new InvalidShapeException(Arrays.toString(dimensions));
+        return new Matrix(toTensor());
+    }
+
+    /**
+     * Copies the data into a vector on the java heap
+     * @return the vector
+     */
+    public Vector toVector() {
+        return new Vector(toTensor());
+    }
+
+    /**
+     * Gets one of the buffers that hold the data, useful for handing the storage to native code or channels
+     * @param i the index of the chunk
+     * @return the buffer, positioned at the start of the chunk
+     */
+    public ByteBuffer getBuffer(int i) {
+        ensureOpen();
+        return chunks[i].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Gets the number of buffers that hold the data
+     * @return the number of chunks
+     */
+    public int getChunkCount() {
+        ensureOpen();
+        return chunks.length;
+    }
+
+    /**
+     * Gets the rank of the tensor
+     * @return the rank
+     */
+    public int getRank() {
+        return dimensions.length;
+    }
+
+    /**
+     * Gets the dimensions array
+     * @return the dimensions array
+     */
+    public int[] getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Gets the number of elements in the tensor
+     * @return the number of elements
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Checks if the tensor rejects writes
+     * @return whether the tensor is read only
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Checks if the storage of this tensor has been released
+     * @return whether the tensor is closed
+     */
+    public boolean isClosed() {
+        return chunks == null;
+    }
+
+    /**
+     * Releases the storage of this tensor, freeing it right away if the tensor allocated or mapped it. Any further
+     * access through this tensor throws an IllegalStateException. Closing twice does nothing.
+     */
+    @Override
+    public void close() {
+        ByteBuffer[] released = chunks;
+        chunks = null;
+        if(released != null && owned)
+            for(ByteBuffer chunk: released)
+                free(chunk);
+    }
+
+    /**
+     * A string representation of this object
+     * @return the string
+     */
+    @Override
+    public String toString() {
+        return "DirectTensor" + Arrays.toString(dimensions) + (isClosed()? " (closed)": "");
+    }
+
+    private ByteBuffer chunk(long index) {
+        ensureOpen();
+        if(index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for length " + length);
+        return chunks[(int) (index >>> CHUNK_SHIFT)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index & CHUNK_MASK) * Double.BYTES;
+    }
+
+    /*
+     * Frees a direct or mapped buffer through sun.misc.Unsafe.invokeCleaner, which runs the same cleaner that the
+     * garbage collector would run once the buffer is unreachable. Without that method the buffer is left to the
+     * garbage collector.
+     */
+    private static void free(ByteBuffer buffer) {
+        if(INVOKE_CLEANER == null || !buffer.isDirect())
+            return;
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch(ReflectiveOperationException e) {
+            // the buffer is still released by the garbage collector
+        }
+    }
+
+    private void ensureOpen() {
+        if(chunks == null)
+            throw new IllegalStateException("The storage of this tensor has been released");
+    }
+
+    /*
+     * Converts a position into the row major index in the storage
+     * @param pos the position
+     * @return the index
+     */
+    long toIndex(int... pos) {
+        long idx = 0;
+        for(int i = 0; i < pos.length; i++)
+            idx += pos[i] * multipliers[i];
+        return idx;
+    }
+
+    private static long[] constructMultipliers(int[] dimensions) {
+        long[] multipliers = new long[dimensions.length];
+        if(dimensions.length > 0) {
+            multipliers[dimensions.length - 1] = 1;
+            for(int i = dimensions.length - 2; i >= 0; i--)
+                multipliers[i] = multipliers[i + 1] * dimensions[i + 1];
+        }
+        return multipliers;
+    }
+
+    static long lengthOf(int[] dimensions) {
+        long length = 1;
+        for(int d: dimensions)
+            length *= d;
+        return length;
+    }
+
+    private static ByteBuffer[] allocateChunks(long length) {
+        ByteBuffer[] chunks = new ByteBuffer[(int) ((length + CHUNK_DOUBLES - 1) >>> CHUNK_SHIFT)];
+        for(int i = 0; i < chunks.length; i++) {
+            long doubles = Math.min(CHUNK_DOUBLES, length - ((long) i << CHUNK_SHIFT));
+            chunks[i] = ByteBuffer.allocateDirect((int) (doubles * Double.BYTES));
+        }
+        return chunks;
+    }
+
+}
@@ -0,0 +1,309 @@
+package io.bhagat.math.linearalgebra;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Chooses between the serial, blocked and parallel implementations of an operation from the amount of work it does.
+ * The crossover points depend on the machine. They start at fixed defaults, and {@link #recalibrate()} measures them
+ * with a short run and saves them to a properties file, which the dispatcher loads on later runs on the same machine.
+ * The file is {@code ~/.jmathlib/dispatch.properties} unless the {@value #FILE_PROPERTY} system property names another
+ * one. Calibration never runs on its own, so the first product or sum never waits for it.
+ */
+public class Dispatcher {
+
+    /**
+     * The system property that overrides the path of the calibration file
+     */
+    public static final String FILE_PROPERTY = "io.bhagat.math.dispatch.file";
+
+    private static final int VERSION = 2;
+    private static final long NEVER = Long.MAX_VALUE;
+    private static final Implementation[] TUNED = { Implementation.BLOCKED, Implementation.PARALLEL };
+
+    /**
+     * The operations that are dispatched, each with its own measure of work
+     */
+    public enum Operation {
+        /** Matrix products, where the work is the number of multiply adds */
+        MULTIPLY,
+        /** Elementwise operations such as sums and Hadamard products, where the work is the number of entries */
+        ELEMENTWISE,
+        /** Sums, dot products and norms, where the work is the number of terms */
+        REDUCTION,
+        /** Factorizations, where the work is the cube of the size */
+        DECOMPOSITION
+    }
+
+    /**
+     * The implementations an operation can be dispatched to
+     */
+    public enum Implementation {
+        SERIAL, BLOCKED, PARALLEL
+    }
+
+    private final long[][] thresholds;
+
+    /*
+     * Creates a dispatcher with the fixed default thresholds
+     */
+    private Dispatcher() {
+        thresholds = new long[Operation.values().length][Implementation.values().length];
+        for(long[] row: thresholds)
+            Arrays.fill(row, NEVER);
+        setThreshold(Operation.MULTIPLY, Implementation.BLOCKED, 1L << 21);
+        setThreshold(Operation.MULTIPLY, Implementation.PARALLEL, 1L << 18);
+        setThreshold(Operation.ELEMENTWISE, Implementation.PARALLEL, 1L << 16);
+        setThreshold(Operation.REDUCTION, Implementation.PARALLEL, Reductions.PARALLEL_THRESHOLD);
+        setThreshold(Operation.DECOMPOSITION, Implementation.PARALLEL, 1L << 18);
+    }
+
+    /**
+     * Gets the shared dispatcher, loading the saved thresholds on the first call or keeping the defaults if there are
+     * none
+     * @return the dispatcher
+     */
+    public static Dispatcher get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Chooses the implementation for an amount of work, which is parallel from the parallel threshold, blocked from
+     * the blocked threshold and serial below both
+     * @param operation the operation
+     * @param work the amount of work in the units of the operation
+     * @return the implementation to use
+     */
+    public Implementation choose(Operation operation, long work) {
+        long[] row = thresholds[operation.ordinal()];
+        if(work >= row[Implementation.PARALLEL.ordinal()])
+            return Implementation.PARALLEL;
+        if(work >= row[Implementation.BLOCKED.ordinal()])
+            return Implementation.BLOCKED;
+        return Implementation.SERIAL;
+    }
+
+    /**
+     * Checks if an amount of work should run in parallel
+     * @param operation the operation
+     * @param work the amount of work in the units of the operation
+     * @return whether the parallel implementation is chosen
+     */
+    public boolean isParallel(Operation operation, long work) {
+        return choose(operation, work) == Implementation.PARALLEL;
+    }
+
+    /**
+     * Gets the amount of work from which an implementation is chosen
+     * @param operation the operation
+     * @param implementation the implementation
+     * @return the threshold, or Long.MAX_VALUE if the implementation is never chosen
+     */
+    public long getThreshold(Operation operation, Implementation implementation) {
+        return thresholds[operation.ordinal()][implementation.ordinal()];
+    }
+
+    /**
+     * Sets the amount of work from which an implementation is chosen, overriding the measured value for this run
+     * @param operation the operation
+     * @param implementation the blocked or parallel implementation
+     * @param threshold the threshold, where Long.MAX_VALUE means never
+     */
+    public void setThreshold(Operation operation, Implementation implementation, long threshold) {
+        if(implementation == Implementation.SERIAL)
+            throw new IllegalArgumentException("The serial implementation is chosen below every threshold");
+        thresholds[operation.ordinal()][implementation.ordinal()] = threshold;
+    }
+
+    /**
+     * Gets the path of the file that calibrations are saved to
+     * @return the path
+     */
+    public static Path getFile() {
+        String file = System.getProperty(FILE_PROPERTY);
+        if(file != null)
+            return Paths.get(file);
+        return Paths.get(System.getProperty("user.home"), ".jmathlib", "dispatch.properties");
+    }
+
+    /**
+     * Measures the thresholds on this machine and saves them, replacing the shared dispatcher's thresholds
+     * @return the shared dispatcher
+     */
+    public static Dispatcher recalibrate() {
+        Dispatcher dispatcher = get();
+        dispatcher.calibrate();
+        dispatcher.save(getFile());
+        return dispatcher;
+    }
+
+    /*
+     * Loads the thresholds saved for this machine, keeping the defaults if there are none
+     */
+    private static Dispatcher load() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.read(getFile());
+        return dispatcher;
+    }
+
+    /*
+     * Reads thresholds saved for the same number of processors, returning whether that worked
+     */
+    private boolean read(Path file) {
+        if(!Files.isReadable(file))
+            return false;
+        Properties properties = new Properties();
+        try(Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        } catch(IOException e) {
+            return false;
+        }
+        if(!String.valueOf(VERSION).equals(properties.getProperty("version"))
+                || !String.valueOf(processors()).equals(properties.getProperty("processors")))
+            return false;
+        long[][] loaded = new long[thresholds.length][];
+        for(Operation operation: Operation.values()) {
+            loaded[operation.ordinal()] = thresholds[operation.ordinal()].clone();
+            for(Implementation implementation: TUNED) {
+                String value = properties.getProperty(key(operation, implementation));
+                if(value == null)
+                    continue;
+                try {
+                    loaded[operation.ordinal()][implementation.ordinal()] = Long.parseLong(value);
+                } catch(NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        for(int i = 0; i < loaded.length; i++)
+            thresholds[i] = loaded[i];
+        return true;
+    }
+
+    /*
+     * Saves the thresholds, ignoring a file that cannot be written since the thresholds still apply to this run
+     */
+    private void save(Path file) {
+        Properties properties = new Properties();
+        properties.setProperty("version", String.valueOf(VERSION));
+        properties.setProperty("processors", String.valueOf(processors()));
+        for(Operation operation: Operation.values())
+            for(Implementation implementation: TUNED)
+                properties.setProperty(key(operation, implementation),
+                        String.valueOf(getThreshold(operation, implementation)));
+        try {
+            if(file.getParent() != null)
+                Files.createDirectories(file.getParent());
+            try(Writer writer = Files.newBufferedWriter(file)) {
+                properties.store(writer, "Operation dispatch thresholds measured on this machine");
+            }
+        } catch(IOException ignored) {
+        }
+    }
+
+    private static String key(Operation operation, Implementation implementation) {
+        return operation.name().toLowerCase() + "." + implementation.name().toLowerCase();
+    }
+
+    private static int processors() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /*
+     * Times each implementation on a range of sizes and keeps the smallest size from which it stays the fastest. An
+     * implementation that loses even at the largest size probed gets the next size beyond the probed range, since it
+     * may still win on larger problems, while a parallel implementation on a single processor never can. The whole
+     * run takes well under a second.
+     */
+    private void calibrate() {
+        Random random = new Random(0);
+        if(processors() == 1) {
+            for(Operation operation: Operation.values())
+                setThreshold(operation, Implementation.PARALLEL, NEVER);
+        } else {
+            long multiply = (long) 384 * 384 * 384;
+            for(int n = 192; n >= 16; n /= 2) {
+                double[] a = randomArray(random, n * n), b = randomArray(random, n * n), c = new double[n * n];
+                int size = n;
+                long serial = time(() -> MatrixMultiply.serial(a, b, c, size, size, size));
+                long parallel = time(() -> MatrixMultiply.parallel(a, b, c, size, size, size));
+                if(parallel >= serial)
+                    break;
+                multiply = (long) n * n * n;
+            }
+            setThreshold(Operation.MULTIPLY, Implementation.PARALLEL, multiply);
+            setThreshold(Operation.DECOMPOSITION, Implementation.PARALLEL, multiply);
+
+            long elementwise = 1L << 22, reduction = 1L << 22;
+            boolean elementwiseWins = true, reductionWins = true;
+            for(int length = 1 << 20; length >= 1 << 12 && (elementwiseWins || reductionWins); length >>= 2) {
+                double[] values = randomArray(random, length);
+                Double[] boxed = new Double[length];
+                if(elementwiseWins) {
+                    long serial = time(() -> Arrays.setAll(boxed, i -> values[i] * 2));
+                    long parallel = time(() -> Arrays.parallelSetAll(boxed, i -> values[i] * 2));
+                    elementwiseWins = parallel < serial;
+                    if(elementwiseWins)
+                        elementwise = length;
+                }
+                if(reductionWins) {
+                    long serial = time(() -> Reductions.sum(i -> values[i], values.length, false));
+                    long parallel = time(() -> Reductions.sum(i -> values[i], values.length, true));
+                    reductionWins = parallel < serial;
+                    if(reductionWins)
+                        reduction = length;
+                }
+            }
+            setThreshold(Operation.ELEMENTWISE, Implementation.PARALLEL, elementwise);
+            setThreshold(Operation.REDUCTION, Implementation.PARALLEL, reduction);
+        }
+
+        long blocked = (long) 512 * 512 * 512;
+        for(int n = 256; n >= 64; n /= 2) {
+            double[] a = randomArray(random, n * n), b = randomArray(random, n * n), c = new double[n * n];
+            int size = n;
+            long serial = time(() -> MatrixMultiply.serial(a, b, c, size, size, size));
+            long tiled = time(() -> MatrixMultiply.blocked(a, b, c, size, size, size));
+            if(tiled >= serial)
+                break;
+            blocked = (long) n * n * n;
+        }
+        setThreshold(Operation.MULTIPLY, Implementation.BLOCKED, blocked);
+    }
+
+    private static double[] randomArray(Random random, int length) {
+        double[] array = new double[length];
+        for(int i = 0; i < length; i++)
+            array[i] = random.nextDouble();
+        return array;
+    }
+
+    /*
+     * Gets the fastest of a few runs after a warm up run, in nanoseconds
+     */
+    private static long time(Runnable task) {
+        task.run();
+        long best = Long.MAX_VALUE;
+        for(int run = 0; run < 3; run++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    /*
+     * Creates the shared dispatcher the first time it is needed
+     */
+    private static class Holder {
+        private static final Dispatcher INSTANCE = load();
+    }
+
+}
@@ -0,0 +1,138 @@
+package io.bhagat.math.linearalgebra;
+
+/*
+ * Gaussian elimination with partial pivoting on a row major array, done in place. Entries whose magnitude is at most
+ * the tolerance are treated as zero, so a column without a pivot above the tolerance is skipped instead of being
+ * divided by a rounding error.
+ */
+class GaussianElimination {
+
+    private static final double RELATIVE_TOLERANCE = 1e-12;
+
+    private GaussianElimination() {}
+
+    /*
+     * Reduces a matrix to row echelon form in place
+     * @param a the matrix data, which is overwritten with the echelon form
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param tolerance the largest magnitude treated as zero
+     * @param reduced whether to scale the pivots to one and clear the entries above them as well
+     * @return the pivot columns in order, the length of which is the rank
+     */
+    static int[] reduce(double[] a, int rows, int cols, double tolerance, boolean reduced) {
+        int[] pivots = new int[Math.min(rows, cols)];
+        int r = 0;
+        for(int c = 0; c < cols && r < rows; c++) {
+            int p = r;
+            for(int i = r + 1; i < rows; i++)
+                if(Math.abs(a[i * cols + c]) > Math.abs(a[p * cols + c]))
+                    p = i;
+            if(Math.abs(a[p * cols + c]) <= tolerance) {
+                for(int i = r; i < rows; i++)
+                    a[i * cols + c] = 0;
+                continue;
+            }
+            if(p != r)
+                swapRows(a, cols, p, r);
+            double pivot = a[r * cols + c];
+            if(reduced) {
+                for(int j = c; j < cols; j++)
+                    a[r * cols + j] /= pivot;
+                pivot = 1;
+            }
+            for(int i = reduced? 0: r + 1; i < rows; i++) {
+                if(i == r)
+                    continue;
+                double factor = a[i * cols + c] / pivot;
+                if(factor == 0)
+                    continue;
+                a[i * cols + c] = 0;
+                for(int j = c + 1; j < cols; j++)
+                    a[i * cols + j] -= factor * a[r * cols + j];
+            }
+            pivots[r++] = c;
+        }
+        int[] result = new int[r];
+        System.arraycopy(pivots, 0, result, 0, r);
+        return result;
+    }
+
+    /*
+     * Calculates the determinant of a square matrix by elimination with partial pivoting
+     * @param a the matrix data, which is overwritten
+     * @param n the number of rows and columns
+     * @return the determinant
+     */
+    static double determinant(double[] a, int n) {
+        double det = 1;
+        for(int k = 0; k < n; k++) {
+            int p = k;
+            for(int i = k + 1; i < n; i++)
+                if(Math.abs(a[i * n + k]) > Math.abs(a[p * n + k]))
+                    p = i;
+            double pivot = a[p * n + k];
+            if(pivot == 0)
+                return 0;
+            if(p != k) {
+                swapRows(a, n, p, k);
+                det = -det;
+            }
+            det *= pivot;
+            for(int i = k + 1; i < n; i++) {
+                double factor = a[i * n + k] / pivot;
+                if(factor == 0)
+                    continue;
+                for(int j = k + 1; j < n; j++)
+                    a[i * n + j] -= factor * a[k * n + j];
+            }
+        }
+        return det;
+    }
+
+    /*
+     * Builds a basis of the null space from a matrix in reduced row echelon form, with one vector for each column
+     * that has no pivot
+     * @param rref the reduced matrix data
+     * @param cols the number of columns
+     * @param pivots the pivot columns returned by reduce
+     * @return the basis vectors
+     */
+    static Vector[] nullSpace(double[] rref, int cols, int[] pivots) {
+        boolean[] isPivot = new boolean[cols];
+        for(int c: pivots)
+            isPivot[c] = true;
+        Vector[] basis = new Vector[cols - pivots.length];
+        int k = 0;
+        for(int free = 0; free < cols; free++) {
+            if(isPivot[free])
+                continue;
+            double[] x = new double[cols];
+            x[free] = 1;
+            for(int i = 0; i < pivots.length; i++)
+                x[pivots[i]] = -rref[i * cols + free];
+            basis[k++] = new Vector(x);
+        }
+        return basis;
+    }
+
+    /*
+     * Picks a tolerance relative to the size and largest entry of a matrix, which leaves room for the rounding
+     * errors that build up during elimination
+     */
+    static double defaultTolerance(double[] a, int rows, int cols) {
+        double max = 0;
+        for(double x: a)
+            max = Math.max(max, Math.abs(x));
+        return Math.max(rows, cols) * max * RELATIVE_TOLERANCE;
+    }
+
+    private static void swapRows(double[] a, int cols, int p, int q) {
+        for(int j = 0; j < cols; j++) {
+            double t = a[p * cols + j];
+            a[p * cols + j] = a[q * cols + j];
+            a[q * cols + j] = t;
+        }
+    }
+
+}
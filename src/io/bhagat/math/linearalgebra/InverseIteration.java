@@ -0,0 +1,156 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.Constants;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/*
+ * Computes eigenvectors from approximate eigenvalues with shifted inverse iteration. Every distinct shift is factored
+ * once and the factorization is reused for each iteration and for each repeat of that eigenvalue, where the repeats
+ * are kept orthogonal to each other so they span the eigenspace instead of all converging to the same vector.
+ */
+class InverseIteration {
+
+    private static final int MAX_ITERATIONS = 50;
+    private static final double CONVERGENCE = 1e-13;
+    private static final double PERTURBATION = 1e-10;
+
+    private InverseIteration() {}
+
+    /*
+     * Computes one unit eigenvector for each shift
+     * @param m the square matrix
+     * @param shifts the approximate eigenvalues
+     * @param parallel whether to process the distinct shifts in parallel
+     * @return the eigenvectors in the same order as the shifts, with a vector of NaN for a shift that is not close to
+     * a real eigenvalue
+     */
+    static Vector[] eigenvectors(Matrix m, double[] shifts, boolean parallel) {
+        int n = m.getRows();
+        double[] data = m.getFlatDataArray();
+        double norm = infinityNorm(data, n);
+
+        Map<Double, List<Integer>> groups = new LinkedHashMap<>();
+        for(int i = 0; i < shifts.length; i++)
+            groups.computeIfAbsent(shifts[i], k -> new ArrayList<>()).add(i);
+
+        Vector[] eigenvectors = new Vector[shifts.length];
+        Stream<Map.Entry<Double, List<Integer>>> stream = groups.entrySet().stream();
+        (parallel? stream.parallel(): stream).forEach(group -> {
+            double shift = group.getKey();
+            List<double[]> found = new ArrayList<>();
+            LUDecomposition lu = factor(data, n, shift, norm);
+            for(int index: group.getValue()) {
+                double[] x = iterate(lu, n, found, new Random(found.size() + 1));
+                boolean valid = x != null && residual(data, n, shift, x) <= Constants.EPSILON * Math.max(1, norm);
+                if(valid)
+                    found.add(x);
+                eigenvectors[index] = valid? new Vector(x): new Vector(n).translate(Double.NaN);
+            }
+        });
+        return eigenvectors;
+    }
+
+    /*
+     * Factors A - sI, nudging the shift off an exact eigenvalue so that the factorization is not singular
+     */
+    private static LUDecomposition factor(double[] data, int n, double shift, double norm) {
+        double perturbation = PERTURBATION * Math.max(1, norm);
+        while(true) {
+            double[] a = data.clone();
+            for(int i = 0; i < n; i++)
+                a[i * n + i] -= shift;
+            LUDecomposition lu = new LUDecomposition(a, n);
+            if(!lu.isSingular())
+                return lu;
+            shift += perturbation;
+            perturbation *= 2;
+        }
+    }
+
+    /*
+     * Repeatedly solves (A - sI)y = x starting from a random vector, keeping the iterate orthogonal to the
+     * eigenvectors already found for the same shift
+     * @return the unit eigenvector or null if the iterate vanished
+     */
+    private static double[] iterate(LUDecomposition lu, int n, List<double[]> found, Random random) {
+        double[] x = new double[n];
+        for(int i = 0; i < n; i++)
+            x[i] = random.nextGaussian();
+        if(!orthonormalize(x, found))
+            return null;
+        for(int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double[] y = lu.solve(x);
+            if(!orthonormalize(y, found))
+                return null;
+            double overlap = 0;
+            for(int i = 0; i < n; i++)
+                overlap += x[i] * y[i];
+            x = y;
+            if(1 - Math.abs(overlap) <= CONVERGENCE)
+                break;
+        }
+        int largest = 0;
+        for(int i = 1; i < n; i++)
+            if(Math.abs(x[i]) > Math.abs(x[largest]))
+                largest = i;
+        if(x[largest] < 0)
+            for(int i = 0; i < n; i++)
+                x[i] = -x[i];
+        return x;
+    }
+
+    /*
+     * Removes the components along the found vectors and scales to unit length
+     * @return false if nothing was left
+     */
+    private static boolean orthonormalize(double[] x, List<double[]> found) {
+        for(double[] v: found) {
+            double dot = 0;
+            for(int i = 0; i < x.length; i++)
+                dot += x[i] * v[i];
+            for(int i = 0; i < x.length; i++)
+                x[i] -= dot * v[i];
+        }
+        double length = 0;
+        for(double xi: x)
+            length += xi * xi;
+        length = Math.sqrt(length);
+        if(length == 0 || !Double.isFinite(length))
+            return false;
+        for(int i = 0; i < x.length; i++)
+            x[i] /= length;
+        return true;
+    }
+
+    private static double infinityNorm(double[] a, int n) {
+        double norm = 0;
+        for(int i = 0; i < n; i++) {
+            double sum = 0;
+            for(int j = 0; j < n; j++)
+                sum += Math.abs(a[i * n + j]);
+            norm = Math.max(norm, sum);
+        }
+        return norm;
+    }
+
+    /*
+     * Calculates the largest entry of (A - sI)x
+     */
+    private static double residual(double[] a, int n, double shift, double[] x) {
+        double max = 0;
+        for(int i = 0; i < n; i++) {
+            double sum = -shift * x[i];
+            for(int j = 0; j < n; j++)
+                sum += a[i * n + j] * x[j];
+            max = Math.max(max, Math.abs(sum));
+        }
+        return max;
+    }
+
+}
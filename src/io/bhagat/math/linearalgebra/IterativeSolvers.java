@@ -0,0 +1,71 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+/**
+ * Solvers that only touch a matrix through products with vectors, so they work on any {@link LinearOperator},
+ * including implicit ones that are never stored
+ */
+public class IterativeSolvers {
+
+    private IterativeSolvers() {}
+
+    /**
+     * Solves Ax = b with the conjugate gradient method, where A must be symmetric positive definite
+     * @param a the operator
+     * @param b the right hand side
+     * @param tolerance the residual norm relative to the norm of b at which to stop
+     * @param maxIterations the most products with the operator to compute
+     * @return the solution x
+     */
+    public static Vector conjugateGradient(LinearOperator a, Vector b, double tolerance, int maxIterations) {
+        int n = b.getLength();
+        if(a.getRows() != n || a.getCols() != n)
+            throw new InvalidShapeException(a.toString(), b.toString());
+        Vector x = new Vector(n);
+        Vector r = b.clone();
+        Vector p = r.clone();
+        Vector ap = new Vector(n);
+        double rr = Vector.dot(r, r);
+        double stop = tolerance * tolerance * rr;
+        for(int iteration = 0; iteration < maxIterations && rr > stop; iteration++) {
+            a.apply(p, ap);
+            double alpha = rr / Vector.dot(p, ap);
+            for(int i = 0; i < n; i++) {
+                x.set(x.get(i) + alpha * p.get(i), i);
+                r.set(r.get(i) - alpha * ap.get(i), i);
+            }
+            double next = Vector.dot(r, r);
+            double beta = next / rr;
+            rr = next;
+            for(int i = 0; i < n; i++)
+                p.set(r.get(i) + beta * p.get(i), i);
+        }
+        return x;
+    }
+
+    /**
+     * Finds the eigenvector of the eigenvalue with the largest magnitude with power iteration, whose eigenvalue is
+     * then the dot product of the vector with its image
+     * @param a the square operator
+     * @param iterations the number of products with the operator to compute
+     * @return the unit eigenvector
+     */
+    public static Vector powerIteration(LinearOperator a, int iterations) {
+        int n = a.getRows();
+        if(a.getCols() != n)
+            throw new InvalidShapeException(a.toString());
+        Vector x = new Vector(n).translate(1).normalize();
+        Vector y = new Vector(n);
+        for(int iteration = 0; iteration < iterations; iteration++) {
+            a.apply(x, y);
+            double magnitude = y.magnitude();
+            if(magnitude == 0)
+                break;
+            Vector t = x; x = y; y = t;
+            x.scale(1 / magnitude);
+        }
+        return x;
+    }
+
+}
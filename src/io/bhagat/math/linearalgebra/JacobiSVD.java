@@ -0,0 +1,75 @@
+package io.bhagat.math.linearalgebra;
+
+/*
+ * The singular value decomposition A = U S V^T of a matrix with at least as many rows as columns, computed with the
+ * one sided Jacobi method. Pairs of columns are rotated until they are all orthogonal, which accumulates V, and the
+ * column norms are then the singular values. This works on A directly instead of on A^T A, so it does not square
+ * the condition number.
+ */
+class JacobiSVD {
+
+    private static final int MAX_SWEEPS = 60;
+    private static final double CONVERGENCE = 1e-15;
+
+    private JacobiSVD() {}
+
+    /*
+     * Decomposes a row major m by n array with m >= n
+     * @param u the matrix data, which is overwritten with the left singular vectors as columns
+     * @param m the number of rows
+     * @param n the number of columns
+     * @param v an n * n array that receives the right singular vectors as columns
+     * @return the singular values, not sorted
+     */
+    static double[] decompose(double[] u, int m, int n, double[] v) {
+        for(int i = 0; i < n * n; i++)
+            v[i] = i % (n + 1) == 0? 1: 0;
+        for(int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+            boolean rotated = false;
+            for(int p = 0; p < n - 1; p++) {
+                for(int q = p + 1; q < n; q++) {
+                    double alpha = 0, beta = 0, gamma = 0;
+                    for(int i = 0; i < m; i++) {
+                        double up = u[i * n + p], uq = u[i * n + q];
+                        alpha += up * up;
+                        beta += uq * uq;
+                        gamma += up * uq;
+                    }
+                    if(Math.abs(gamma) <= CONVERGENCE * Math.sqrt(alpha * beta) || gamma == 0)
+                        continue;
+                    rotated = true;
+                    double zeta = (beta - alpha) / (2 * gamma);
+                    double t = Math.signum(zeta) / (Math.abs(zeta) + Math.sqrt(1 + zeta * zeta));
+                    if(zeta == 0)
+                        t = 1;
+                    double c = 1 / Math.sqrt(1 + t * t), s = c * t;
+                    rotate(u, m, n, p, q, c, s);
+                    rotate(v, n, n, p, q, c, s);
+                }
+            }
+            if(!rotated)
+                break;
+        }
+        double[] sigma = new double[n];
+        for(int j = 0; j < n; j++) {
+            double norm = 0;
+            for(int i = 0; i < m; i++)
+                norm += u[i * n + j] * u[i * n + j];
+            norm = Math.sqrt(norm);
+            sigma[j] = norm;
+            if(norm != 0)
+                for(int i = 0; i < m; i++)
+                    u[i * n + j] /= norm;
+        }
+        return sigma;
+    }
+
+    private static void rotate(double[] a, int rows, int cols, int p, int q, double c, double s) {
+        for(int i = 0; i < rows; i++) {
+            double ap = a[i * cols + p], aq = a[i * cols + q];
+            a[i * cols + p] = c * ap - s * aq;
+            a[i * cols + q] = s * ap + c * aq;
+        }
+    }
+
+}
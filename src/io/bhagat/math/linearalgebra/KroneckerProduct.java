@@ -0,0 +1,116 @@
+package io.bhagat.math.linearalgebra;
+
+/**
+ * The Kronecker product A &otimes; B of two operators, which is never formed. A vector is laid out as a row major
+ * matrix X with one row for each column of A and one column for each column of B, and the product is computed as
+ * vec(AXB<sup>T</sup>). For two n by n factors that costs O(n^3) instead of the O(n^4) of multiplying by the stored
+ * n^2 by n^2 product, which is O(N^1.5) in the length N of the vectors.
+ */
+public class KroneckerProduct implements LinearOperator {
+
+    private final LinearOperator a;
+    private final LinearOperator b;
+
+    /**
+     * Creates the Kronecker product of two operators
+     * @param a the outer operator
+     * @param b the inner operator
+     */
+    public KroneckerProduct(LinearOperator a, LinearOperator b) {
+        this.a = a;
+        this.b = b;
+    }
+
+    @Override
+    public int getRows() {
+        return a.getRows() * b.getRows();
+    }
+
+    @Override
+    public int getCols() {
+        return a.getCols() * b.getCols();
+    }
+
+    @Override
+    public void apply(Vector in, Vector out) {
+        LinearOperators.checkLengths(in, out, getCols(), getRows());
+        multiply(in, out, false);
+    }
+
+    @Override
+    public void applyTranspose(Vector in, Vector out) {
+        LinearOperators.checkLengths(in, out, getRows(), getCols());
+        multiply(in, out, true);
+    }
+
+    /*
+     * Computes out = vec(A X B^T), or vec(A^T X B) for the transpose, applying B to each row of X and then A to each
+     * column of the result
+     */
+    private void multiply(Vector in, Vector out, boolean transpose) {
+        int aIn = transpose? a.getRows(): a.getCols(), aOut = transpose? a.getCols(): a.getRows();
+        int bIn = transpose? b.getRows(): b.getCols(), bOut = transpose? b.getCols(): b.getRows();
+        Vector row = new Vector(bIn), rowOut = new Vector(bOut);
+        Vector col = new Vector(aIn), colOut = new Vector(aOut);
+        double[] y = new double[aIn * bOut];
+        for(int j = 0; j < aIn; j++) {
+            for(int l = 0; l < bIn; l++)
+                row.set(in.get(j * bIn + l), l);
+            if(transpose)
+                b.applyTranspose(row, rowOut);
+            else
+                b.apply(row, rowOut);
+            for(int k = 0; k < bOut; k++)
+                y[j * bOut + k] = rowOut.get(k);
+        }
+        for(int k = 0; k < bOut; k++) {
+            for(int j = 0; j < aIn; j++)
+                col.set(y[j * bOut + k], j);
+            if(transpose)
+                a.applyTranspose(col, colOut);
+            else
+                a.apply(col, colOut);
+            for(int i = 0; i < aOut; i++)
+                out.set(colOut.get(i), i * bOut + k);
+        }
+    }
+
+    /**
+     * Gets the outer factor
+     * @return A
+     */
+    public LinearOperator getA() {
+        return a;
+    }
+
+    /**
+     * Gets the inner factor
+     * @return B
+     */
+    public LinearOperator getB() {
+        return b;
+    }
+
+    /**
+     * Forms the dense product by applying the operator to each unit vector
+     * @return the dense matrix
+     */
+    public Matrix toMatrix() {
+        int rows = getRows(), cols = getCols();
+        Matrix m = new Matrix(rows, cols);
+        Vector unit = new Vector(cols).translate(0), column = new Vector(rows);
+        for(int j = 0; j < cols; j++) {
+            unit.set(1.0, j);
+            apply(unit, column);
+            m.setCol(j, column);
+            unit.set(0.0, j);
+        }
+        return m;
+    }
+
+    @Override
+    public String toString() {
+        return "KroneckerProduct " + getRows() + "x" + getCols();
+    }
+
+}
@@ -0,0 +1,277 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+/**
+ * The LU factorization of a square matrix with partial pivoting, PA = LU. The factorization is computed once and can
+ * then solve any number of systems in O(n^2) each.
+ */
+public class LUDecomposition {
+
+    private final int n;
+    private final double[] lu;
+    private final int[] pivot;
+    private final int pivotSign;
+    private final boolean singular;
+
+    /**
+     * Factors a square matrix
+     * @param m the matrix
+     */
+    public LUDecomposition(Matrix m) {
+        this(m.getFlatDataArray(), checkSquare(m));
+    }
+
+    /*
+     * Factors a square matrix given as a row major array, which is overwritten with the factors
+     * @param a the matrix data
+     * @param n the number of rows and columns
+     */
+    LUDecomposition(double[] a, int n) {
+        this.n = n;
+        this.lu = a;
+        this.pivot = new int[n];
+        for(int i = 0; i < n; i++)
+            pivot[i] = i;
+        int sign = 1;
+        boolean singular = false;
+        for(int k = 0; k < n; k++) {
+            int p = k;
+            for(int i = k + 1; i < n; i++)
+                if(Math.abs(a[i * n + k]) > Math.abs(a[p * n + k]))
+                    p = i;
+            if(p != k) {
+                for(int j = 0; j < n; j++) {
+                    double t = a[k * n + j];
+                    a[k * n + j] = a[p * n + j];
+                    a[p * n + j] = t;
+                }
+                int t = pivot[k]; pivot[k] = pivot[p]; pivot[p] = t;
+                sign = -sign;
+            }
+            double d = a[k * n + k];
+            if(d == 0) {
+                singular = true;
+                continue;
+            }
+            for(int i = k + 1; i < n; i++) {
+                double factor = a[i * n + k] /= d;
+                if(factor == 0)
+                    continue;
+                for(int j = k + 1; j < n; j++)
+                    a[i * n + j] -= factor * a[k * n + j];
+            }
+        }
+        this.pivotSign = sign;
+        this.singular = singular;
+    }
+
+    /**
+     * Solves the system of equations Ax = b
+     * @param b the right hand side
+     * @return the solution x
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public Vector solve(Vector b) {
+        if(b.getLength() != n)
+            throw new InvalidShapeException(b.toString());
+        return new Vector(solve(b.getDataArray()));
+    }
+
+    /**
+     * Solves the system of equations AX = B for every column of B
+     * @param b the right hand sides
+     * @return the solutions X
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public Matrix solve(Matrix b) {
+        if(b.getRows() != n)
+            throw new InvalidShapeException(b.toString());
+        return Matrix.fromFlatDataArray(n, b.getCols(), solveColumns(b.getFlatDataArray(), b.getCols()));
+    }
+
+    /**
+     * Solves (A + uv<sup>T</sup>)x = b with the Sherman-Morrison formula, which reuses this factorization of A for two
+     * solves instead of factoring the changed matrix
+     * @param u the first vector of the rank one change
+     * @param v the second vector of the rank one change
+     * @param b the right hand side
+     * @return the solution x
+     * @throws ArithmeticException if A or the changed matrix is singular
+     */
+    public Vector solveUpdated(Vector u, Vector v, Vector b) {
+        if(u.getLength() != n || v.getLength() != n || b.getLength() != n)
+            throw new InvalidShapeException(u.toString(), v.toString(), b.toString());
+        double[] y = solve(b.getDataArray());
+        double[] z = solve(u.getDataArray());
+        double vy = 0, vz = 0;
+        for(int i = 0; i < n; i++) {
+            double vi = v.get(i);
+            vy += vi * y[i];
+            vz += vi * z[i];
+        }
+        if(1 + vz == 0)
+            throw new ArithmeticException("The updated matrix is singular");
+        double factor = vy / (1 + vz);
+        for(int i = 0; i < n; i++)
+            y[i] -= factor * z[i];
+        return new Vector(y);
+    }
+
+    /**
+     * Solves (A + UV<sup>T</sup>)x = b with the Woodbury identity, which reuses this factorization of A and only
+     * factors the k by k capacitance matrix I + V<sup>T</sup>A<sup>-1</sup>U
+     * @param u the n by k first factor of the low rank change
+     * @param v the n by k second factor of the low rank change
+     * @param b the right hand side
+     * @return the solution x
+     * @throws ArithmeticException if A or the changed matrix is singular
+     */
+    public Vector solveUpdated(Matrix u, Matrix v, Vector b) {
+        int k = u.getCols();
+        if(u.getRows() != n || v.getRows() != n || v.getCols() != k || b.getLength() != n)
+            throw new InvalidShapeException(u.toString(), v.toString(), b.toString());
+        double[] y = solve(b.getDataArray());
+        double[] z = solveColumns(u.getFlatDataArray(), k);
+        double[] vData = v.getFlatDataArray();
+        double[] capacitance = new double[k * k];
+        double[] vy = new double[k];
+        for(int i = 0; i < n; i++) {
+            for(int p = 0; p < k; p++) {
+                double vip = vData[i * k + p];
+                if(vip == 0)
+                    continue;
+                vy[p] += vip * y[i];
+                for(int q = 0; q < k; q++)
+                    capacitance[p * k + q] += vip * z[i * k + q];
+            }
+        }
+        for(int p = 0; p < k; p++)
+            capacitance[p * k + p] += 1;
+        LUDecomposition small = new LUDecomposition(capacitance, k);
+        if(small.isSingular())
+            throw new ArithmeticException("The updated matrix is singular");
+        double[] c = small.solve(vy);
+        for(int i = 0; i < n; i++)
+            for(int q = 0; q < k; q++)
+                y[i] -= z[i * k + q] * c[q];
+        return new Vector(y);
+    }
+
+    /*
+     * Solves for one right hand side given as an array
+     * @param b the right hand side, which is not modified
+     * @return the solution
+     */
+    double[] solve(double[] b) {
+        double[] x = new double[n];
+        for(int i = 0; i < n; i++)
+            x[i] = b[pivot[i]];
+        substitute(x, 0, 1);
+        return x;
+    }
+
+    /*
+     * Solves for every column of a row major n by cols array
+     * @param b the right hand sides, which are not modified
+     * @param cols the number of right hand sides
+     * @return the solutions in the same layout
+     */
+    double[] solveColumns(double[] b, int cols) {
+        double[] x = new double[n * cols];
+        for(int i = 0; i < n; i++)
+            System.arraycopy(b, pivot[i] * cols, x, i * cols, cols);
+        for(int j = 0; j < cols; j++)
+            substitute(x, j, cols);
+        return x;
+    }
+
+    /*
+     * Forward and back substitution on a strided column of an array that has already been permuted
+     */
+    private void substitute(double[] x, int offset, int stride) {
+        if(singular)
+            throw new ArithmeticException("The matrix is singular");
+        for(int i = 1; i < n; i++) {
+            double sum = x[offset + i * stride];
+            for(int k = 0; k < i; k++)
+                sum -= lu[i * n + k] * x[offset + k * stride];
+            x[offset + i * stride] = sum;
+        }
+        for(int i = n - 1; i >= 0; i--) {
+            double sum = x[offset + i * stride];
+            for(int k = i + 1; k < n; k++)
+                sum -= lu[i * n + k] * x[offset + k * stride];
+            x[offset + i * stride] = sum / lu[i * n + i];
+        }
+    }
+
+    /**
+     * Calculates the determinant of the factored matrix from the diagonal of U
+     * @return the determinant
+     */
+    public double determinant() {
+        double det = pivotSign;
+        for(int i = 0; i < n; i++)
+            det *= lu[i * n + i];
+        return det;
+    }
+
+    /**
+     * Calculates the inverse of the factored matrix
+     * @return the inverse
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public Matrix inverse() {
+        return solve(Matrix.identityMatrix(n));
+    }
+
+    /**
+     * Checks if the factored matrix is singular
+     * @return whether a zero pivot was met
+     */
+    public boolean isSingular() {
+        return singular;
+    }
+
+    /**
+     * Gets the unit lower triangular factor L
+     * @return L
+     */
+    public Matrix getL() {
+        Matrix L = new Matrix(n, n);
+        for(int i = 0; i < n; i++) {
+            for(int j = 0; j < i; j++)
+                L.set(lu[i * n + j], i, j);
+            L.set(1.0, i, i);
+        }
+        return L;
+    }
+
+    /**
+     * Gets the upper triangular factor U
+     * @return U
+     */
+    public Matrix getU() {
+        Matrix U = new Matrix(n, n);
+        for(int i = 0; i < n; i++)
+            for(int j = i; j < n; j++)
+                U.set(lu[i * n + j], i, j);
+        return U;
+    }
+
+    /**
+     * Gets the row permutation, where row i of PA is row pivot[i] of A
+     * @return the pivot array
+     */
+    public int[] getPivot() {
+        return pivot.clone();
+    }
+
+    private static int checkSquare(Matrix m) {
+        if(!m.isSquare())
+            throw new InvalidShapeException(m.toString());
+        return m.getRows();
+    }
+
+}
@@ -0,0 +1,58 @@
+package io.bhagat.math.linearalgebra;
+
+/**
+ * A linear map that is only known through its action on vectors, so that algorithms which just need products with
+ * a matrix can run on implicit matricies without ever storing their entries
+ * @see LinearOperators
+ */
+public interface LinearOperator {
+
+    /**
+     * Gets the length of the output vectors
+     * @return the number of rows
+     */
+    int getRows();
+
+    /**
+     * Gets the length of the input vectors
+     * @return the number of columns
+     */
+    int getCols();
+
+    /**
+     * Computes out = A in
+     * @param in the input vector with one entry per column
+     * @param out the vector that receives the output, with one entry per row
+     */
+    void apply(Vector in, Vector out);
+
+    /**
+     * Computes out = A<sup>T</sup> in
+     * @param in the input vector with one entry per row
+     * @param out the vector that receives the output, with one entry per column
+     */
+    void applyTranspose(Vector in, Vector out);
+
+    /**
+     * Computes A v into a new vector
+     * @param v the input vector
+     * @return the output vector
+     */
+    default Vector apply(Vector v) {
+        Vector out = new Vector(getRows());
+        apply(v, out);
+        return out;
+    }
+
+    /**
+     * Computes A<sup>T</sup> v into a new vector
+     * @param v the input vector
+     * @return the output vector
+     */
+    default Vector applyTranspose(Vector v) {
+        Vector out = new Vector(getCols());
+        applyTranspose(v, out);
+        return out;
+    }
+
+}
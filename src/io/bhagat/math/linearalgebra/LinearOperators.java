@@ -0,0 +1,209 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+/**
+ * Factories for linear operators that are built from other operators. None of them store a matrix, each product is
+ * passed on to the operators they are built from.
+ */
+public class LinearOperators {
+
+    private LinearOperators() {}
+
+    /**
+     * Creates the n by n identity operator
+     * @param n the number of rows and columns
+     * @return the identity operator
+     */
+    public static LinearOperator identity(int n) {
+        return new Composite(n, n) {
+            @Override
+            public void apply(Vector in, Vector out) {
+                checkLengths(in, out, n, n);
+                for(int i = 0; i < n; i++)
+                    out.set(in.get(i), i);
+            }
+
+            @Override
+            public void applyTranspose(Vector in, Vector out) {
+                apply(in, out);
+            }
+        };
+    }
+
+    /**
+     * Creates the operator A + B
+     * @param a the first operator
+     * @param b the second operator with the same shape
+     * @return the sum
+     */
+    public static LinearOperator sum(LinearOperator a, LinearOperator b) {
+        if(a.getRows() != b.getRows() || a.getCols() != b.getCols())
+            throw new InvalidShapeException(shape(a), shape(b));
+        return new Composite(a.getRows(), a.getCols()) {
+            @Override
+            public void apply(Vector in, Vector out) {
+                a.apply(in, out);
+                out.add(b.apply(in));
+            }
+
+            @Override
+            public void applyTranspose(Vector in, Vector out) {
+                a.applyTranspose(in, out);
+                out.add(b.applyTranspose(in));
+            }
+        };
+    }
+
+    /**
+     * Creates the operator AB, which applies B and then A
+     * @param a the operator applied second
+     * @param b the operator applied first
+     * @return the product
+     */
+    public static LinearOperator product(LinearOperator a, LinearOperator b) {
+        if(a.getCols() != b.getRows())
+            throw new InvalidShapeException(shape(a), shape(b));
+        return new Composite(a.getRows(), b.getCols()) {
+            @Override
+            public void apply(Vector in, Vector out) {
+                a.apply(b.apply(in), out);
+            }
+
+            @Override
+            public void applyTranspose(Vector in, Vector out) {
+                b.applyTranspose(a.applyTranspose(in), out);
+            }
+        };
+    }
+
+    /**
+     * Creates the operator cA
+     * @param c the scalar
+     * @param a the operator
+     * @return the scaled operator
+     */
+    public static LinearOperator scaled(double c, LinearOperator a) {
+        return new Composite(a.getRows(), a.getCols()) {
+            @Override
+            public void apply(Vector in, Vector out) {
+                a.apply(in, out);
+                out.scale(c);
+            }
+
+            @Override
+            public void applyTranspose(Vector in, Vector out) {
+                a.applyTranspose(in, out);
+                out.scale(c);
+            }
+        };
+    }
+
+    /**
+     * Creates the shifted operator A - sI
+     * @param a the square operator
+     * @param shift the shift s
+     * @return the shifted operator
+     */
+    public static LinearOperator shifted(LinearOperator a, double shift) {
+        if(a.getRows() != a.getCols())
+            throw new InvalidShapeException(shape(a));
+        return new Composite(a.getRows(), a.getCols()) {
+            @Override
+            public void apply(Vector in, Vector out) {
+                a.apply(in, out);
+                for(int i = 0; i < out.getLength(); i++)
+                    out.set(out.get(i) - shift * in.get(i), i);
+            }
+
+            @Override
+            public void applyTranspose(Vector in, Vector out) {
+                a.applyTranspose(in, out);
+                for(int i = 0; i < out.getLength(); i++)
+                    out.set(out.get(i) - shift * in.get(i), i);
+            }
+        };
+    }
+
+    /**
+     * Creates the transpose of an operator, which swaps its two products
+     * @param a the operator
+     * @return the transposed operator
+     */
+    public static LinearOperator transpose(LinearOperator a) {
+        return new Composite(a.getCols(), a.getRows()) {
+            @Override
+            public void apply(Vector in, Vector out) {
+                a.applyTranspose(in, out);
+            }
+
+            @Override
+            public void applyTranspose(Vector in, Vector out) {
+                a.apply(in, out);
+            }
+        };
+    }
+
+    /**
+     * Creates the Gram operator A<sup>T</sup>A without forming it, so each product costs two products with A
+     * @param a the operator
+     * @return the Gram operator
+     */
+    public static LinearOperator gram(LinearOperator a) {
+        return product(transpose(a), a);
+    }
+
+    /**
+     * Creates the Kronecker product of two operators, which acts on vectors laid out as row major matricies with one
+     * row for each column of A and one column for each column of B, computing vec(AXB<sup>T</sup>)
+     * @param a the outer operator
+     * @param b the inner operator
+     * @return the Kronecker product
+     */
+    public static LinearOperator kronecker(LinearOperator a, LinearOperator b) {
+        return new KroneckerProduct(a, b);
+    }
+
+    private static String shape(LinearOperator a) {
+        return a.getRows() + "x" + a.getCols();
+    }
+
+    /*
+     * Checks the lengths of the vectors passed to an operator
+     */
+    static void checkLengths(Vector in, Vector out, int inLength, int outLength) {
+        if(in.getLength() != inLength || out.getLength() != outLength)
+            throw new InvalidShapeException(in.toString(), out.toString());
+    }
+
+    /*
+     * The base of the composite operators which stores their shape
+     */
+    private abstract static class Composite implements LinearOperator {
+
+        private final int rows;
+        private final int cols;
+
+        private Composite(int rows, int cols) {
+            this.rows = rows;
+            this.cols = cols;
+        }
+
+        @Override
+        public int getRows() {
+            return rows;
+        }
+
+        @Override
+        public int getCols() {
+            return cols;
+        }
+
+        @Override
+        public String toString() {
+            return "LinearOperator " + rows + "x" + cols;
+        }
+
+    }
+
+}
@@ -1,19 +1,26 @@
 package io.bhagat.math.linearalgebra;
 
 import io.bhagat.math.Constants;
+import io.bhagat.math.functions.Activation;
 import io.bhagat.math.functions.Function;
+import io.bhagat.math.functions.IndexedDoubleOperator;
 import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Supplier;
 
 /**
  * A class to make a matrix of doubles
  */
-public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
+public class Matrix extends Tensor<Double> implements Comparable<Matrix>, LinearOperator {
 
-    MatrixEntry[][] matrixEntries;
+    private transient volatile Results results;
 
     /**
      * Creates a matrix with a defined size
@@ -45,7 +52,7 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
      * @param tensor the tensor
      */
     public Matrix(Tensor<Double> tensor) {
-        super(tensor.getBackingArray(), tensor.getDimensions());
+        super(tensor, tensor.getDimensions());
     }
 
     /**
@@ -92,7 +99,7 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
         if (v.getLength() != getCols()) {
             throw new InvalidShapeException(v.toString());
         }
-        System.arraycopy(v.getBackingArray(), 0, getBackingArray(), r * getCols(), getCols());
+        System.arraycopy(v.readBackingArray(), 0, getBackingArray(), r * getCols(), getCols());
     }
 
     /**
@@ -181,6 +188,42 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
         return getDimensions()[1];
     }
 
+    /**
+     * Computes out = A in without allocating
+     * @param in the input vector with one entry per column
+     * @param out the vector that receives the output, with one entry per row
+     */
+    @Override
+    public void apply(Vector in, Vector out) {
+        int rows = getRows(), cols = getCols();
+        LinearOperators.checkLengths(in, out, cols, rows);
+        for(int i = 0; i < rows; i++) {
+            double sum = 0;
+            for(int j = 0; j < cols; j++)
+                sum += getFromBackingArray(i * cols + j, 0.0) * in.getFromBackingArray(j, 0.0);
+            out.setInBackingArray(i, sum);
+        }
+    }
+
+    /**
+     * Computes out = A<sup>T</sup> in without forming the transpose
+     * @param in the input vector with one entry per row
+     * @param out the vector that receives the output, with one entry per column
+     */
+    @Override
+    public void applyTranspose(Vector in, Vector out) {
+        int rows = getRows(), cols = getCols();
+        LinearOperators.checkLengths(in, out, rows, cols);
+        double[] sums = new double[cols];
+        for(int i = 0; i < rows; i++) {
+            double x = in.getFromBackingArray(i, 0.0);
+            for(int j = 0; j < cols; j++)
+                sums[j] += getFromBackingArray(i * cols + j, 0.0) * x;
+        }
+        for(int j = 0; j < cols; j++)
+            out.setInBackingArray(j, sums[j]);
+    }
+
     /**
      * Takes the transpose of the matrix
      * @return the transpose of the matrix
@@ -204,11 +247,12 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
             throw new IndexOutOfBoundsException("Row " + index + " is out of bounds for matrix of dimensions "
                     + getRows() + ", " + getCols());
         }
-        Vector[] newRows = new Vector[getRows() - 1];
-        Vector[] rows = getRowVectors();
-        System.arraycopy(rows, 0, newRows, 0, index);
-        System.arraycopy(rows, index + 1, newRows, index, getRows() - index - 1);
-        return new Matrix(newRows);
+        int cols = getCols();
+        Matrix m = new Matrix(getRows() - 1, cols);
+        System.arraycopy(readBackingArray(), 0, m.getBackingArray(), 0, index * cols);
+        System.arraycopy(readBackingArray(), (index + 1) * cols, m.getBackingArray(), index * cols,
+                (getRows() - index - 1) * cols);
+        return m;
     }
 
     /**
@@ -222,12 +266,15 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
             throw new IndexOutOfBoundsException("Row " + index + " is out of bounds for matrix of dimensions "
                     + getRows() + ", " + getCols());
         }
-        Vector[] newRows = new Vector[getRows() + 1];
-        Vector[] rows = getRowVectors();
-        System.arraycopy(rows, 0, newRows, 0, index);
-        newRows[index] = v;
-        System.arraycopy(rows, index, newRows, index + 1, getRows() - index);
-        return new Matrix(newRows);
+        int cols = getCols();
+        if (v.getLength() != cols)
+            throw new InvalidShapeException(toString(), v.toString());
+        Matrix m = new Matrix(getRows() + 1, cols);
+        System.arraycopy(readBackingArray(), 0, m.getBackingArray(), 0, index * cols);
+        System.arraycopy(v.readBackingArray(), 0, m.getBackingArray(), index * cols, cols);
+        System.arraycopy(readBackingArray(), index * cols, m.getBackingArray(), (index + 1) * cols,
+                (getRows() - index) * cols);
+        return m;
     }
 
     /**
@@ -251,7 +298,7 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
         }
         Matrix m = new Matrix(getRows(), getCols() - 1);
         Object[] mBackingArray = m.getBackingArray();
-        Object[] backingArray = getBackingArray();
+        Object[] backingArray = readBackingArray();
         int j = 0;
         for(int i = 0; i < backingArray.length; i++) {
             if (i % getCols() != index) {
@@ -273,12 +320,17 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
             throw new IndexOutOfBoundsException("Column " + index + " is out of bounds for matrix of dimensions "
                     + getRows() + ", " + getCols());
         }
-        Vector[] newCols = new Vector[getCols() + 1];
-        Vector[] cols = getColVectors();
-        System.arraycopy(cols, 0, newCols, 0, index);
-        newCols[index] = v;
-        System.arraycopy(cols, index, newCols, index + 1, getCols() - index);
-        return new Matrix(newCols);
+        int rows = getRows(), cols = getCols();
+        if (v.getLength() != rows)
+            throw new InvalidShapeException(toString(), v.toString());
+        Matrix m = new Matrix(rows, cols + 1);
+        Object[] source = readBackingArray(), target = m.getBackingArray(), column = v.readBackingArray();
+        for(int r = 0; r < rows; r++) {
+            System.arraycopy(source, r * cols, target, r * (cols + 1), index);
+            target[r * (cols + 1) + index] = column[r];
+            System.arraycopy(source, r * cols + index, target, r * (cols + 1) + index + 1, cols - index);
+        }
+        return m;
     }
 
     /**
@@ -321,22 +373,30 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
     }
 
     /**
-     * Calculates the determinant of a matrix
+     * Calculates the determinant of a matrix, which is remembered until the matrix is next changed
      * @return the determinant
      */
-    public double determinant()
+    public double determinant() {
+        return memoize("determinant", this::computeDeterminant);
+    }
+
+    private double computeDeterminant()
     {
         if(!isSquare())
             throw new InvalidShapeException(toString());
 
-        if(getRows() == 1)
-            return get(0, 0);
+        switch(getRows()) {
+            case 1: return get(0, 0);
+            case 2: return Matrix2.of(this).determinant();
+            case 3: return Matrix3.of(this).determinant();
+            case 4: return Matrix4.of(this).determinant();
+        }
 
         double sum = 0;
 
         for(int i = 0; i < getRows(); i++)
         {
-            sum += Math.pow(-1, i) * get(0, i) * removeRow(0).removeColumn(i).determinant();
+            sum += Math.pow(-1, i) * get(0, i) * removeRow(0).removeColumn(i).computeDeterminant();
         }
 
         return sum;
@@ -354,23 +414,44 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
         Matrix C = new Matrix(getRows(), getCols());
         for(int i = 0; i < getRows(); i++)
             for(int j = 0; j < getCols(); j++)
-                C.set((((i + j) % 2 == 0)? 1 : -1) * removeRow(i).removeColumn(j).determinant(), i, j);
+                C.set((((i + j) % 2 == 0)? 1 : -1) * removeRow(i).removeColumn(j).computeDeterminant(), i, j);
         return C;
     }
 
     /**
-     * Calculates the inverse matrix of this matrix
+     * Calculates the inverse matrix of this matrix, which is remembered until the matrix is next changed. A singular
+     * matrix of any size gives a matrix of infinite and NaN entries, unlike the fixed size types such as
+     * {@link Matrix2#inverse()}, which throw.
      * @return the inverse of this matrix
      */
     public Matrix inverse() {
+        return this.<Matrix>memoize("inverse", this::computeInverse).clone();
+    }
+
+    private Matrix computeInverse() {
+        if(isSquare()) {
+            try {
+                switch(getRows()) {
+                    case 2: return Matrix2.of(this).inverse().toMatrix();
+                    case 3: return Matrix3.of(this).inverse().toMatrix();
+                    case 4: return Matrix4.of(this).inverse().toMatrix();
+                }
+            } catch(ArithmeticException singular) {
+                // fall back to the adjugate so that every size gives the same infinite and NaN entries
+            }
+        }
         return cofactor().transpose().scale(1/determinant());
     }
 
     /**
-     * Computes the QR factorization of a matrix
+     * Computes the QR factorization of a matrix, which is remembered until the matrix is next changed
      * @return an array of matricies where the first matrix is Q and the second one is R;
      */
     public Matrix[] QR() {
+        return copy(memoize("QR", this::computeQR));
+    }
+
+    private Matrix[] computeQR() {
         Matrix Q = new Matrix(false, Vector.orthonormalize(getColVectors()));
         Matrix R = Matrix.multiply(Q.transpose(), this);
         if (Double.isNaN(Q.get(0, 0)) || Double.isNaN(R.get(0, 0))) {
@@ -381,10 +462,85 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
     }
 
     /**
-     * Calculates the LU factorization of a square matrix using the Doolittle Algorithm
-     * @return
+     * Solves the least squares problem, finding the x that minimizes the norm of Ax - b, with a Householder QR
+     * factorization. This avoids the normal equations A<sup>T</sup>Ax = A<sup>T</sup>b, which square the condition
+     * number of the matrix.
+     * @param b the right hand side with one entry per row
+     * @return the solution x with one entry per column
+     * @throws ArithmeticException if the columns of the matrix are linearly dependent
+     * @see QRDecomposition
+     */
+    public Vector leastSquares(Vector b) {
+        return leastSquares(b, false);
+    }
+
+    /**
+     * Solves the least squares problem, finding the x that minimizes the norm of Ax - b, with a Householder QR
+     * factorization
+     * @param b the right hand side with one entry per row
+     * @param pivoting whether to pivot columns, which reveals the rank so that a rank deficient matrix gives the
+     *                 solution with zeros for the dependent columns instead of failing
+     * @return the solution x with one entry per column
+     * @throws ArithmeticException if the columns of the matrix are linearly dependent and pivoting is off
+     * @see QRDecomposition
+     */
+    public Vector leastSquares(Vector b, boolean pivoting) {
+        return new QRDecomposition(this, pivoting).solve(b);
+    }
+
+    /**
+     * Calculates the Moore-Penrose pseudo-inverse through the singular value decomposition, treating singular values
+     * below max(rows, cols) times the largest singular value times the machine epsilon as zero
+     * @return the cols by rows pseudo-inverse
+     */
+    public Matrix pseudoInverse() {
+        return pseudoInverse(-1);
+    }
+
+    /**
+     * Calculates the Moore-Penrose pseudo-inverse through the singular value decomposition
+     * @param tolerance the singular value at or below which a singular value is treated as zero
+     * @return the cols by rows pseudo-inverse
+     */
+    public Matrix pseudoInverse(double tolerance) {
+        boolean wide = getRows() < getCols();
+        Matrix a = wide? transpose(): this;
+        int m = a.getRows(), n = a.getCols();
+        double[] u = a.getFlatDataArray();
+        double[] v = new double[n * n];
+        double[] sigma = JacobiSVD.decompose(u, m, n, v);
+        if(tolerance < 0) {
+            double max = 0;
+            for(double s: sigma)
+                max = Math.max(max, s);
+            tolerance = Math.max(m, n) * max * Math.ulp(1.0);
+        }
+        double[] pinv = new double[n * m];
+        for(int k = 0; k < n; k++) {
+            if(sigma[k] <= tolerance)
+                continue;
+            double inverse = 1 / sigma[k];
+            for(int i = 0; i < n; i++) {
+                double vik = v[i * n + k] * inverse;
+                if(vik != 0)
+                    for(int j = 0; j < m; j++)
+                        pinv[i * m + j] += vik * u[j * n + k];
+            }
+        }
+        Matrix result = fromFlatDataArray(n, m, pinv);
+        return wide? result.transpose(): result;
+    }
+
+    /**
+     * Calculates the LU factorization of a square matrix using the Doolittle Algorithm, which is remembered until the
+     * matrix is next changed
+     * @return an array of matricies where the first matrix is L and the second one is U
      */
     public Matrix[] LU() {
+        return copy(memoize("LU", this::computeLU));
+    }
+
+    private Matrix[] computeLU() {
         if(!isSquare())
             throw new InvalidShapeException("Doolittle Algorithm only supports square matricies");
         int n = getRows();
@@ -411,6 +567,51 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
         return new Matrix[] {L, U};
     }
 
+    /**
+     * Raises this square matrix to an integer power by repeated squaring, which takes O(log k) products
+     * @param exponent the power, where a negative power raises the inverse
+     * @return the matrix to the power
+     */
+    public Matrix pow(int exponent) {
+        return MatrixFunctions.pow(this, exponent);
+    }
+
+    /**
+     * Calculates the matrix exponential e<sup>A</sup> by scaling and squaring with a Pade approximant
+     * @return the matrix exponential
+     */
+    public Matrix exp() {
+        return MatrixFunctions.exp(this);
+    }
+
+    /**
+     * Calculates the principal matrix logarithm. Symmetric matricies go through their eigendecomposition and other
+     * matricies are square rooted until they are close to the identity.
+     * @return the matrix logarithm
+     * @throws ArithmeticException if the matrix has no real logarithm
+     */
+    public Matrix log() {
+        return MatrixFunctions.log(this);
+    }
+
+    /**
+     * Calculates the principal matrix square root. Symmetric matricies go through their eigendecomposition and
+     * other matricies use the Denman Beavers iteration.
+     * @return the matrix square root
+     * @throws ArithmeticException if the matrix has no real square root
+     */
+    public Matrix sqrt() {
+        return MatrixFunctions.sqrt(this);
+    }
+
+    /**
+     * Checks if the matrix is symmetric up to rounding errors
+     * @return whether the matrix equals its transpose
+     */
+    public boolean isSymmetric() {
+        return MatrixFunctions.isSymmetric(this);
+    }
+
 
     /**
      * Calculates the eigenvalues and corresponding unit eigenvectors
@@ -419,27 +620,25 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
      */
     public HashMap<Double, Vector> eigenproblem(int iterations) {
         double[] eigenvalues = eigenvalues(iterations);
+        Vector[] eigenvectors = InverseIteration.eigenvectors(this, eigenvalues, isParallelDecomposition(getRows()));
         HashMap<Double, Vector> solution = new HashMap<>();
-        for(double eigenvalue: eigenvalues) {
-            Vector eigenvector = eigenvector(eigenvalue);
-            boolean add = true;
-            for(Double d: eigenvector)
-                if(Double.isNaN(d)) {
-                    add = false;
-                    break;
-                }
-            if(add && !Double.isNaN(eigenvalue))
-                solution.put(eigenvalue, eigenvector);
-        }
+        for(int i = 0; i < eigenvalues.length; i++)
+            if(!Double.isNaN(eigenvalues[i]) && !Double.isNaN(eigenvectors[i].get(0)))
+                solution.put(eigenvalues[i], eigenvectors[i]);
         return solution;
     }
 
     /**
-     * Computes the eigenvalues of the matrix
+     * Computes the eigenvalues of the matrix, which are remembered for the number of iterations until the matrix is
+     * next changed
      * @param iterations the number of iterations for the QR algorithm
      * @return the sorted array of eigenvalues
      */
     public double[] eigenvalues(int iterations) {
+        return this.<double[]>memoize("eigenvalues " + iterations, () -> computeEigenvalues(iterations)).clone();
+    }
+
+    private double[] computeEigenvalues(int iterations) {
         int scalar = 0;
         if(!isSquare())
             throw new InvalidShapeException("Cannot find eigenvalues of a non-square matrix");
@@ -447,20 +646,23 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
         int n = getRows();
         double[] lambdas = new double[n];
 
-        Matrix shift = identityMatrix(n).scale(scalar);
-        Matrix A = Matrix.subtract(this, shift);
-
-        for(int i = 0; i < iterations; i++) {
-            Matrix[] qr = A.QR();
-            A = Matrix.multiply(qr[1], qr[0]);
-        }
+        Workspace workspace = Workspace.get();
+        double[] A = workspace.borrow(n * n);
+        double[] reflectors = workspace.borrow(n * n);
+        for(int i = 0; i < n * n; i++)
+            A[i] = getFromBackingArray(i, 0.0);
+        for(int i = 0; i < n; i++)
+            A[i * n + i] -= scalar;
 
-        A = Matrix.add(A, shift);
+        for(int i = 0; i < iterations; i++)
+            reverseQR(A, reflectors, n);
 
         for(int i = 0; i < n; i++) {
             int factor = Constants.N / 10;
-            lambdas[i] = Math.round(factor * A.get(i, i)) / (double) factor;
+            lambdas[i] = Math.round(factor * (A[i * n + i] + scalar)) / (double) factor;
         }
+        workspace.release(reflectors);
+        workspace.release(A);
 
         for(int i = 1; i < n; i++) {
             int j = i;
@@ -476,82 +678,74 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
     }
 
     /**
-     * Gets the eigenvectors
+     * Gets the eigenvectors, processing the eigenvalues in parallel for large matricies
      * @param eigenvalues the eigenvalues
      * @return the array of eigenvectors
      */
     public Vector[] eigenvectors(double[] eigenvalues) {
+        return eigenvectors(eigenvalues, isParallelDecomposition(getRows()));
+    }
+
+    /**
+     * Gets the eigenvectors by shifted inverse iteration, factoring the matrix once for each distinct eigenvalue.
+     * A repeated eigenvalue yields independent eigenvectors as long as its eigenspace has room for them.
+     * @param eigenvalues the eigenvalues
+     * @param parallel whether to process the distinct eigenvalues in parallel
+     * @return the array of eigenvectors, skipping the eigenvalues that have no real eigenvector
+     */
+    public Vector[] eigenvectors(double[] eigenvalues, boolean parallel) {
+        if(!isSquare())
+            throw new InvalidShapeException("Cannot find eigenvectors of a non-square matrix");
         ArrayList<Vector> eigenvectors = new ArrayList<>();
-        for(double eigenvalue: eigenvalues) {
-            Vector eigenvector = eigenvector(eigenvalue);
-            boolean add = true;
-            for(Double d: eigenvector)
-                if(Double.isNaN(d)) {
-                    add = false;
-                    break;
-                }
-            if(add && !Double.isNaN(eigenvalue))
-                eigenvectors.add(eigenvector);
-        }
+        Vector[] computed = InverseIteration.eigenvectors(this, eigenvalues, parallel);
+        for(int i = 0; i < eigenvalues.length; i++)
+            if(!Double.isNaN(eigenvalues[i]) && !Double.isNaN(computed[i].get(0)))
+                eigenvectors.add(computed[i]);
         return eigenvectors.toArray(new Vector[eigenvectors.size()]);
     }
 
     /**
-     * Calculates an eigenvector corresponding to an eigenvalue
-     * @param eigenvalue the eigenvalue
-     * @return the eigenvector
+     * Calculates an eigenvector corresponding to an eigenvalue by shifted inverse iteration
+     * @param eigenvalue the eigenvalue, which may be approximate
+     * @return the unit eigenvector, or a vector of NaN if the value is not close to a real eigenvalue
      */
     public Vector eigenvector(double eigenvalue) {
-        int n = getRows();
-        Vector[] rows = Matrix.subtract(this,  identityMatrix(n).scale(eigenvalue)).reducedRowEchelonForm().getRowVectors();
-        Function.map(rows, (Function<Vector, Void>) x -> {
-            System.out.println(x);
-            return null;
-        });
-        Vector eigenvector = new Vector(n);
-        for(int i = n - 1; i >= 0; i--) {
-            boolean ignore = true;
-            Vector row = rows[i];
-            for(int j = 0; j < row.getLength(); j++)
-                if(!Double.isNaN(row.get(j)) && row.get(j) > Constants.EPSILON)
-                {
-                    ignore = false;
-                    break;
-                }
-            if(ignore) {
-                eigenvector.set(1.0, i);
-                continue;
-            }
-            eigenvector.set(-Vector.dot(eigenvector, row)/row.get(i), i);
-        }
-        eigenvector.clean();
-        eigenvector.normalize();
-        return eigenvector;
+        if(!isSquare())
+            throw new InvalidShapeException("Cannot find eigenvectors of a non-square matrix");
+        return InverseIteration.eigenvectors(this, new double[] { eigenvalue }, false)[0];
     }
 
     /**
-     * Gets the singular values of a matrix
-     * @param iterations the iterations for the QR algorithm
-     * @return the array of singular values
+     * Gets the singular values of a matrix, which are remembered for the number of iterations until the matrix is
+     * next changed. They are the square roots of the eigenvalues of the packed AA<sup>T</sup>, found with the Jacobi
+     * method.
+     * @param iterations the maximum number of Jacobi sweeps
+     * @return the array of singular values in decreasing order
      */
     public double[] singularValues(int iterations) {
-        double[] values = Matrix.multiply(this, transpose()).eigenvalues(iterations);
+        return this.<double[]>memoize("singularValues " + iterations, () -> computeSingularValues(iterations)).clone();
+    }
+
+    private double[] computeSingularValues(int iterations) {
+        double[] values = SymmetricMatrix.productTranspose(this).eigenvalues(iterations);
         for(int i = 0; i < values.length; i++)
-            values[i] = Math.sqrt(values[i]);
+            values[i] = Math.sqrt(Math.max(0, values[i]));
         return values;
     }
 
     /**
      * Finds both the singular values and corresponding eigenvectors
-     * @param iterations the number of iterations for the QR algorithm
+     * @param iterations the maximum number of Jacobi sweeps
      * @return a HashMap containing the singular values as keys and the eigenvectors as values
      */
     public HashMap<Double, Vector> singularSolution(int iterations)
     {
-        HashMap<Double, Vector> eigenSolution = Matrix.multiply(transpose(), this).eigenproblem(iterations);
+        SymmetricEigendecomposition eigen = new SymmetricEigendecomposition(SymmetricMatrix.transposeProduct(this),
+                iterations);
+        double[] eigenvalues = eigen.getEigenvalues();
         HashMap<Double, Vector> singularSolution = new HashMap<>();
-        for(Double eigenvalue: eigenSolution.keySet()) {
-            singularSolution.put(Math.sqrt(eigenvalue), eigenSolution.get(eigenvalue));
+        for(int i = 0; i < eigenvalues.length; i++) {
+            singularSolution.put(Math.sqrt(Math.max(0, eigenvalues[i])), eigen.getEigenvector(i));
         }
         return singularSolution;
     }
@@ -559,7 +753,7 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
     /**
      * TODO: this method isn't working
      * Computers the singular value decomposition of a matrix
-     * @param iterations the number of iterations for the eigensolution
+     * @param iterations the maximum number of Jacobi sweeps for the eigensolution
      * @return an array of matricies that holds U, Sigma, and V
      */
     public Matrix[] singularValueDecomposition(int iterations)
@@ -568,23 +762,21 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
         Matrix S = new Matrix(getRows(), getCols());
         Matrix V = new Matrix(getCols(), getCols());
 
-        Matrix ATA = Matrix.multiply(transpose(), this);
+        SymmetricEigendecomposition eigen = new SymmetricEigendecomposition(SymmetricMatrix.transposeProduct(this),
+                iterations);
 
-        double[] eigenvalues = ATA.eigenvalues(iterations);
-        Vector[] eigenvectors = ATA.eigenvectors(eigenvalues);
+        double[] eigenvalues = eigen.getEigenvalues();
         double[] singularValues = new double[eigenvalues.length];
 
         for (int i = 0; i < eigenvalues.length; i++) {
-            singularValues[i] = Math.sqrt(eigenvalues[i]);
+            singularValues[i] = Math.sqrt(Math.max(0, eigenvalues[i]));
             if (i < S.getRows())
                 S.set(singularValues[i], i, i);
+            Vector eigenvector = eigen.getEigenvector(i);
+            V.setCol(i, eigenvector);
+            if (i < U.getCols())
+                U.setCol(i, Matrix.multiply(this, eigenvector).toVector().scale(1/singularValues[i]));
         }
-        V.setColVectors(eigenvectors);
-        Vector[] uCols = new Vector[eigenvectors.length];
-        for(int i = 0; i < uCols.length; i++) {
-            uCols[i] = Matrix.multiply(this, eigenvectors[i]).toVector().scale(1/singularValues[i]);
-        }
-        U.setColVectors(uCols);
         return new Matrix[] { U, S, V };
     }
 
@@ -630,30 +822,95 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
     }
 
     /**
-     * converts the matrix to row echelon form
+     * Converts the matrix to row echelon form with Gaussian elimination and partial pivoting, treating entries that
+     * are negligible compared to the largest entry as zero
      * @return the matrix in row echelon form
      */
     public Matrix rowEchelonForm()
     {
-        Matrix ref = clone();
-        Vector[] rows = ref.getRowVectors();
-        for(int i = 0; i < getCols() - 1; i++)
-            for(int j = i + 1; j < rows.length; j++)
-                rows[j].subtract(rows[i].clone().scale(1/rows[i].get(i)).scale(rows[j].get(i)));
-        return new Matrix(rows);
+        double[] data = getFlatDataArray();
+        GaussianElimination.reduce(data, getRows(), getCols(), GaussianElimination.defaultTolerance(data, getRows(), getCols()), false);
+        return fromFlatDataArray(getRows(), getCols(), data);
     }
 
     /**
-     * converts the matrix to reduced row echelon form
+     * Converts the matrix to reduced row echelon form with Gauss Jordan elimination and partial pivoting, treating
+     * entries that are negligible compared to the largest entry as zero
      * @return the matrix in reduced row echelon form
      */
     public Matrix reducedRowEchelonForm()
     {
-        Matrix ref = rowEchelonForm();
-        Vector[] rows = ref.getRowVectors();
-        for(int i = 0; i < getRows(); i++)
-            rows[i].scale(1/rows[i].get(i));
-        return ref;
+        return reducedRowEchelonForm(GaussianElimination.defaultTolerance(getFlatDataArray(), getRows(), getCols()));
+    }
+
+    /**
+     * Converts the matrix to reduced row echelon form with Gauss Jordan elimination and partial pivoting
+     * @param tolerance the largest magnitude of a pivot that is treated as zero
+     * @return the matrix in reduced row echelon form
+     */
+    public Matrix reducedRowEchelonForm(double tolerance)
+    {
+        double[] data = getFlatDataArray();
+        GaussianElimination.reduce(data, getRows(), getCols(), tolerance, true);
+        return fromFlatDataArray(getRows(), getCols(), data);
+    }
+
+    /**
+     * Calculates the rank of the matrix, the number of pivots found by Gaussian elimination
+     * @return the rank
+     */
+    public int rank() {
+        double[] data = getFlatDataArray();
+        return rank(GaussianElimination.defaultTolerance(data, getRows(), getCols()));
+    }
+
+    /**
+     * Calculates the rank of the matrix, the number of pivots found by Gaussian elimination
+     * @param tolerance the largest magnitude of a pivot that is treated as zero
+     * @return the rank
+     */
+    public int rank(double tolerance) {
+        return GaussianElimination.reduce(getFlatDataArray(), getRows(), getCols(), tolerance, false).length;
+    }
+
+    /**
+     * Calculates a basis of the null space, the vectors x where Ax = 0
+     * @return the basis vectors, one for each column without a pivot
+     */
+    public Vector[] nullSpace() {
+        return nullSpace(GaussianElimination.defaultTolerance(getFlatDataArray(), getRows(), getCols()));
+    }
+
+    /**
+     * Calculates a basis of the null space, the vectors x where Ax = 0
+     * @param tolerance the largest magnitude of a pivot that is treated as zero
+     * @return the basis vectors, one for each column without a pivot
+     */
+    public Vector[] nullSpace(double tolerance) {
+        double[] data = getFlatDataArray();
+        int[] pivots = GaussianElimination.reduce(data, getRows(), getCols(), tolerance, true);
+        return GaussianElimination.nullSpace(data, getCols(), pivots);
+    }
+
+    /**
+     * Calculates a basis of the column space from the columns of this matrix that hold pivots
+     * @return the basis vectors
+     */
+    public Vector[] columnSpace() {
+        return columnSpace(GaussianElimination.defaultTolerance(getFlatDataArray(), getRows(), getCols()));
+    }
+
+    /**
+     * Calculates a basis of the column space from the columns of this matrix that hold pivots
+     * @param tolerance the largest magnitude of a pivot that is treated as zero
+     * @return the basis vectors
+     */
+    public Vector[] columnSpace(double tolerance) {
+        int[] pivots = GaussianElimination.reduce(getFlatDataArray(), getRows(), getCols(), tolerance, false);
+        Vector[] basis = new Vector[pivots.length];
+        for(int i = 0; i < pivots.length; i++)
+            basis[i] = getColVector(pivots[i]);
+        return basis;
     }
 
     /**
@@ -663,11 +920,7 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
      * @return the matrix entry object
      */
     public MatrixEntry getMatrixEntry(int r, int c) {
-        if (matrixEntries == null)
-            matrixEntries = new MatrixEntry[getRows()][getCols()];
-        if (matrixEntries[r][c] == null)
-            matrixEntries[r][c] = new MatrixEntry(r, c);
-        return matrixEntries[r][c];
+        return new MatrixEntry(r, c);
     }
 
     /**
@@ -689,8 +942,55 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
      */
     public Matrix mapFromEntries(Function<MatrixEntry, Double> function) {
         Object[] backingArray = getBackingArray();
+        int cols = getCols();
         for (int i = 0; i < getLength(); i++)
-            backingArray[i] = function.f(getMatrixEntry(i / getCols(), i % getCols()));
+            backingArray[i] = function.f(new MatrixEntry(i / cols, i % cols));
+        finishWrite();
+        return this;
+    }
+
+    /**
+     * Maps a function onto each element in the matrix without boxing the input
+     * @param function the function to apply to each element
+     * @return a reference to this matrix
+     */
+    public Matrix mapDoubles(DoubleUnaryOperator function) {
+        return mapDoubles(function, false);
+    }
+
+    /**
+     * Maps a function onto each element in the matrix without boxing the input
+     * @param function the function to apply to each element, which must be safe to call from several threads when
+     *                 parallel is true
+     * @param parallel whether to apply the function in parallel, which pays off for expensive functions
+     * @return a reference to this matrix
+     */
+    public Matrix mapDoubles(DoubleUnaryOperator function, boolean parallel) {
+        setAllInBackingArray(i -> function.applyAsDouble(doubleAt(i)), parallel);
+        return this;
+    }
+
+    /**
+     * Maps a function of the position and value onto each element in the matrix without allocating an entry for
+     * each element
+     * @param function the function from the row, column and value to the new value
+     * @return a reference to this matrix
+     */
+    public Matrix mapIndexed(IndexedDoubleOperator function) {
+        return mapIndexed(function, false);
+    }
+
+    /**
+     * Maps a function of the position and value onto each element in the matrix without allocating an entry for
+     * each element
+     * @param function the function from the row, column and value to the new value, which must be safe to call
+     *                 from several threads when parallel is true
+     * @param parallel whether to apply the function in parallel, which pays off for expensive functions
+     * @return a reference to this matrix
+     */
+    public Matrix mapIndexed(IndexedDoubleOperator function, boolean parallel) {
+        int cols = getCols();
+        setAllInBackingArray(i -> function.applyAsDouble(i / cols, i % cols, doubleAt(i)), parallel);
         return this;
     }
 
@@ -762,6 +1062,52 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
         return new Matrix(super.clone());
     }
 
+    /*
+     * Gets a result computed from the elements of the matrix, only computing it if it was not already computed since
+     * the modification count last changed. Cached matricies and arrays must be copied before they are handed out.
+     */
+    @SuppressWarnings("unchecked")
+    private <R> R memoize(String key, Supplier<R> computation) {
+        long stamp = getModificationCount();
+        Results cached = results;
+        if(cached == null || cached.stamp != stamp) {
+            cached = new Results(stamp);
+            results = cached;
+        }
+        Object value = cached.values.get(key);
+        if(value == null) {
+            value = computation.get();
+            Object previous = cached.values.putIfAbsent(key, value);
+            if(previous != null)
+                value = previous;
+        }
+        return (R) value;
+    }
+
+    /*
+     * Copies cached factors, which is O(1) for each one since clones share their elements until they are written to
+     */
+    private static Matrix[] copy(Matrix[] factors) {
+        Matrix[] copies = new Matrix[factors.length];
+        for(int i = 0; i < factors.length; i++)
+            copies[i] = factors[i].clone();
+        return copies;
+    }
+
+    /*
+     * The results computed from the elements of a matrix at one modification count
+     */
+    private static class Results {
+
+        private final long stamp;
+        private final ConcurrentHashMap<String, Object> values = new ConcurrentHashMap<>();
+
+        private Results(long stamp) {
+            this.stamp = stamp;
+        }
+
+    }
+
     /**
      * Gets the data in the vector in the array format
      * @return the data array
@@ -775,6 +1121,80 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
         return data;
     }
 
+    /*
+     * Copies the data into a single row major array, treating null elements as 0
+     * @return the data array
+     */
+    double[] getFlatDataArray() {
+        double[] data = new double[getLength()];
+        for(int i = 0; i < data.length; i++)
+            data[i] = getFromBackingArray(i, 0.0);
+        return data;
+    }
+
+    /*
+     * Creates a matrix from a single row major array
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param data the data array with rows * cols elements
+     * @return the matrix
+     */
+    static Matrix fromFlatDataArray(int rows, int cols, double[] data) {
+        Matrix m = new Matrix(rows, cols);
+        for(int i = 0; i < data.length; i++)
+            m.setInBackingArray(i, data[i]);
+        return m;
+    }
+
+    /*
+     * Replaces A with RQ where A = QR, one step of the QR algorithm, done in place with Householder reflections
+     * @param a the n by n matrix data
+     * @param reflectors scratch space for n * n entries that receives the unit reflection vectors
+     * @param n the number of rows and columns
+     */
+    private static void reverseQR(double[] a, double[] reflectors, int n) {
+        for(int k = 0; k < n - 1; k++) {
+            int v = k * n;
+            double norm = 0;
+            for(int i = k; i < n; i++)
+                norm += a[i * n + k] * a[i * n + k];
+            norm = Math.sqrt(norm);
+            double alpha = a[k * n + k] > 0? -norm: norm;
+            double length = 0;
+            for(int i = k; i < n; i++) {
+                reflectors[v + i] = a[i * n + k] - (i == k? alpha: 0);
+                length += reflectors[v + i] * reflectors[v + i];
+            }
+            if(length == 0) {
+                for(int i = k; i < n; i++)
+                    reflectors[v + i] = 0;
+                continue;
+            }
+            length = Math.sqrt(length);
+            for(int i = k; i < n; i++)
+                reflectors[v + i] /= length;
+            for(int j = k; j < n; j++) {
+                double dot = 0;
+                for(int i = k; i < n; i++)
+                    dot += reflectors[v + i] * a[i * n + j];
+                for(int i = k; i < n; i++)
+                    a[i * n + j] -= 2 * dot * reflectors[v + i];
+            }
+        }
+        for(int k = 0; k < n - 1; k++) {
+            int v = k * n;
+            for(int r = 0; r < n; r++) {
+                double dot = 0;
+                for(int j = k; j < n; j++)
+                    dot += a[r * n + j] * reflectors[v + j];
+                if(dot == 0)
+                    continue;
+                for(int j = k; j < n; j++)
+                    a[r * n + j] -= 2 * dot * reflectors[v + j];
+            }
+        }
+    }
+
     private static Double[][] convertToWrapperClassArray(double[][] data) {
         Double[][] dataArray = new Double[data.length][data[0].length];
         for(int i = 0; i < data.length; i++)
@@ -793,30 +1213,22 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
         if(a.getDimensions()[1] != b.getDimensions()[0])
             throw new InvalidShapeException(a.toString(), b.toString());
 
-        Matrix m = new Matrix(a.getRows(), b.getCols());
-
-        Vector[] aRows = a.getRowVectors();
-        Vector[] bCols = b.getColVectors();
-
-        for(int i = 0; i < m.getRows(); i++)
-            for(int j = 0; j < m.getCols(); j++)
-                m.set(Vector.dot(aRows[i], bCols[j]), i, j);
-
-        return m;
+        int m = a.getRows(), k = a.getCols(), n = b.getCols();
+        double[] x = a.getFlatDataArray(), y = b.getFlatDataArray(), z = new double[m * n];
+        MatrixMultiply.dispatch(x, y, z, m, k, n);
+        return fromFlatDataArray(m, n, z);
     }
 
     /**
-     * Takes the dot product across two matricies
+     * Takes the dot product across two matricies with a deterministic pairwise sum
      * @param a the first matrix
      * @param b the second matrix
      * @return the dot product
+     * @see Reductions
      */
     public static double dot(Matrix a, Matrix b) {
         assertShape(a, b);
-        double sum = 0;
-        for(int i = 0; i < a.getLength(); i++)
-            sum += a.getFromBackingArray(i,0.0) * b.getFromBackingArray(i, 0.0);
-        return sum;
+        return Reductions.sum(i -> a.doubleAt(i) * b.doubleAt(i), a.getLength());
     }
 
     /**
@@ -829,6 +1241,57 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
         return multiply(a, b.columnMatrix());
     }
 
+    /**
+     * Multiplies a chain of matricies in the order with the fewest multiply adds, which can be far cheaper than left
+     * to right when the shapes vary, such as for X<sup>T</sup>WXv
+     * @param ms the matricies
+     * @return the product
+     * @see MatrixChain
+     */
+    public static Matrix multiplyChain(Matrix... ms) {
+        return new MatrixChain(ms).multiply();
+    }
+
+    /**
+     * Computes a dense layer f(Wx + b) in one pass over the output, where the bias is added to every column and the
+     * activation is applied to each row as soon as its product is done instead of making a matrix for each step
+     * @param W the weights, with a row for each output
+     * @param x the inputs, with a column for each sample
+     * @param b the bias, or null for no bias
+     * @param activation the activation
+     * @return the outputs, with a column for each sample
+     */
+    public static Matrix affine(Matrix W, Matrix x, Vector b, Activation activation) {
+        return DenseLayer.forward(W, x, b, activation);
+    }
+
+    /**
+     * Computes a dense layer f(Wx + b) on a single sample
+     * @param W the weights, with a row for each output
+     * @param x the input
+     * @param b the bias, or null for no bias
+     * @param activation the activation
+     * @return the output
+     */
+    public static Vector affine(Matrix W, Vector x, Vector b, Activation activation) {
+        return new Vector(DenseLayer.forward(W, x.columnMatrix(), b, activation));
+    }
+
+    /**
+     * Computes the gradients of a dense layer y = f(Wx + b) in one pass over the rows of the output, from the
+     * outputs of {@link #affine(Matrix, Matrix, Vector, Activation)} and the gradient with respect to them
+     * @param W the weights
+     * @param x the inputs, with a column for each sample
+     * @param y the outputs, with a column for each sample
+     * @param gradOutput the gradient of the loss with respect to the outputs
+     * @param activation the activation
+     * @return the gradients with respect to x, W and b, in that order, where the bias gradient is a column matrix
+     *         summed over the samples
+     */
+    public static Matrix[] affineBackward(Matrix W, Matrix x, Matrix y, Matrix gradOutput, Activation activation) {
+        return DenseLayer.backward(W, x, y, gradOutput, activation);
+    }
+
     /**
      * Calculates the hadamard (elementwise product) of two matricies
      * @param a the first matrix
@@ -838,14 +1301,24 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
     public static Matrix hadamardProduct(Matrix a, Matrix b) {
         assertShape(a, b);
         Matrix c = new Matrix(a.getRows(), a.getCols());
-        for (int i = 0; i < c.getRows(); i++) {
-            for (int j = 0; j < c.getCols(); j++) {
-                c.set(a.get(i, j) * b.get(i, j), i, j);
-            }
-        }
+        c.setAllInBackingArray(i -> a.doubleAt(i) * b.doubleAt(i), isParallelElementwise(c));
         return c;
     }
 
+    /*
+     * Asks the dispatcher whether an elementwise operation producing a matrix should run in parallel
+     */
+    private static boolean isParallelElementwise(Matrix c) {
+        return Dispatcher.get().isParallel(Dispatcher.Operation.ELEMENTWISE, c.getLength());
+    }
+
+    /*
+     * Asks the dispatcher whether a factorization of an n by n matrix should run in parallel
+     */
+    private static boolean isParallelDecomposition(int n) {
+        return Dispatcher.get().isParallel(Dispatcher.Operation.DECOMPOSITION, (long) n * n * n);
+    }
+
     private static void assertShape(Matrix a, Matrix b) {
         if(!Tensor.equalShape(a, b))
             throw new InvalidShapeException(a.toString(), b.toString());
@@ -861,10 +1334,7 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
         if(!Arrays.equals(a.getDimensions(), b.getDimensions()))
             throw new InvalidShapeException(a.toString(), b.toString());
         Matrix c = new Matrix(a.getDimensions()[0], a.getDimensions()[1]);
-
-        for(int i = 0; i < c.getLength(); i++)
-            c.setInBackingArray(i, a.getFromBackingArray(i, 0.0) + b.getFromBackingArray(i, 0.0));
-
+        c.setAllInBackingArray(i -> a.doubleAt(i) + b.doubleAt(i), isParallelElementwise(c));
         return c;
     }
 
@@ -878,22 +1348,40 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
         if(!Arrays.equals(a.getDimensions(), b.getDimensions()))
             throw new InvalidShapeException(a.toString(), b.toString());
         Matrix c = new Matrix(a.getDimensions()[0], a.getDimensions()[1]);
-
-        for(int i = 0; i < c.getLength(); i++)
-            c.setInBackingArray(i, a.getFromBackingArray(i, 0.0) - b.getFromBackingArray(i, 0.0));
-
+        c.setAllInBackingArray(i -> a.doubleAt(i) - b.doubleAt(i), isParallelElementwise(c));
         return c;
     }
 
     /**
-     * TODO: implement this method
-     * Convolves a matrix across another matrix
-     * @param a
-     * @param b
-     * @return
+     * Convolves a kernel across a matrix, keeping every position where they overlap
+     * @param a the matrix
+     * @param b the kernel
+     * @return the resultant matrix
      */
     public static Matrix convolve(Matrix a, Matrix b) {
-        return null;
+        return Convolution.convolve(a, b, Convolution.Mode.FULL);
+    }
+
+    /**
+     * Convolves a kernel across a matrix
+     * @param a the matrix
+     * @param b the kernel
+     * @param mode which part of the result to keep
+     * @return the resultant matrix
+     */
+    public static Matrix convolve(Matrix a, Matrix b, Convolution.Mode mode) {
+        return Convolution.convolve(a, b, mode);
+    }
+
+    /**
+     * Correlates a kernel across a matrix, which is a convolution without flipping the kernel
+     * @param a the matrix
+     * @param b the kernel
+     * @param mode which part of the result to keep
+     * @return the resultant matrix
+     */
+    public static Matrix correlate(Matrix a, Matrix b, Convolution.Mode mode) {
+        return Convolution.correlate(a, b, mode);
     }
 
     /**
@@ -919,6 +1407,44 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
         return A.addColumn(b);
     }
 
+    /**
+     * Augments a matrix with the columns of another matrix, copying each of them once
+     * @param A the matrix
+     * @param B the matrix with the same number of rows to place to the right
+     * @return the augmented matrix [A B]
+     */
+    public static Matrix augment(Matrix A, Matrix B) {
+        return BlockMatrix.horizontal(A, B).toMatrix();
+    }
+
+    /**
+     * Maps a matrix stored in the tensor file format into memory as a read only matrix
+     * @param path the path of the file
+     * @return the mapped matrix
+     * @throws IOException if the file cannot be read or does not hold a matrix
+     * @see TensorFile
+     */
+    public static DirectMatrix mapFile(Path path) throws IOException {
+        return mapFile(path, false);
+    }
+
+    /**
+     * Maps a matrix stored in the tensor file format into memory, writes to a writable matrix go to the file
+     * @param path the path of the file
+     * @param writable true to map the matrix for reading and writing, false to map it read only
+     * @return the mapped matrix
+     * @throws IOException if the file cannot be read or does not hold a matrix
+     * @see TensorFile
+     */
+    public static DirectMatrix mapFile(Path path, boolean writable) throws IOException {
+        DirectTensor tensor = TensorFile.map(path, writable);
+        if(!(tensor instanceof DirectMatrix)) {
+            tensor.close();
+            throw new InvalidShapeException(tensor.toString());
+        }
+        return (DirectMatrix) tensor;
+    }
+
     /**
      * A class to hold the entries of a vector
      */
@@ -993,6 +1519,11 @@ public class Matrix extends Tensor<Double> implements Comparable<Matrix> {
             return row == o.getRow() && col == o.getCol() && getParent() == o.getParent();
         }
 
+        @Override
+        public int hashCode() {
+            return 31 * (31 * row + col) + System.identityHashCode(getParent());
+        }
+
     }
 
 }
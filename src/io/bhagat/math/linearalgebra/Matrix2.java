@@ -0,0 +1,137 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+/**
+ * An immutable 2 by 2 matrix stored in fields with fully unrolled operations
+ */
+public final class Matrix2 {
+
+    private final double m00, m01;
+    private final double m10, m11;
+
+    /**
+     * Creates a 2 by 2 matrix from its entries in row major order
+     */
+    public Matrix2(double m00, double m01,
+                   double m10, double m11) {
+        this.m00 = m00; this.m01 = m01;
+        this.m10 = m10; this.m11 = m11;
+    }
+
+    /**
+     * Creates a 2 by 2 matrix from a general matrix
+     * @param m the matrix with two rows and two columns
+     * @return the 2 by 2 matrix
+     */
+    public static Matrix2 of(Matrix m) {
+        if(m.getRows() != 2 || m.getCols() != 2)
+            throw new InvalidShapeException(m.toString());
+        double[] a = m.getFlatDataArray();
+        return new Matrix2(a[0], a[1], a[2], a[3]);
+    }
+
+    /**
+     * Gets the 2 by 2 identity matrix
+     * @return the identity matrix
+     */
+    public static Matrix2 identity() {
+        return new Matrix2(1, 0, 0, 1);
+    }
+
+    /**
+     * Gets an entry of the matrix
+     * @param r the row
+     * @param c the column
+     * @return the entry
+     */
+    public double get(int r, int c) {
+        switch(r * 2 + c) {
+            case 0: return m00;
+            case 1: return m01;
+            case 2: return m10;
+            case 3: return m11;
+            default: throw new IndexOutOfBoundsException("(" + r + ", " + c + ") is outside of a 2 by 2 matrix");
+        }
+    }
+
+    /**
+     * Multiplies this matrix with another one
+     * @param b the matrix on the right
+     * @return the product
+     */
+    public Matrix2 multiply(Matrix2 b) {
+        return new Matrix2(
+                m00 * b.m00 + m01 * b.m10, m00 * b.m01 + m01 * b.m11,
+                m10 * b.m00 + m11 * b.m10, m10 * b.m01 + m11 * b.m11);
+    }
+
+    /**
+     * Multiplies this matrix with a vector
+     * @param v the vector
+     * @return the product
+     */
+    public Vector2 multiply(Vector2 v) {
+        return new Vector2(m00 * v.getX() + m01 * v.getY(), m10 * v.getX() + m11 * v.getY());
+    }
+
+    /**
+     * Calculates the determinant
+     * @return the determinant
+     */
+    public double determinant() {
+        return m00 * m11 - m01 * m10;
+    }
+
+    /**
+     * Calculates the inverse through the adjugate
+     * @return the inverse
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public Matrix2 inverse() {
+        double det = determinant();
+        if(det == 0)
+            throw new ArithmeticException("The matrix is singular");
+        double s = 1 / det;
+        return new Matrix2(m11 * s, -m01 * s, -m10 * s, m00 * s);
+    }
+
+    /**
+     * Calculates the transpose
+     * @return the transpose
+     */
+    public Matrix2 transpose() {
+        return new Matrix2(m00, m10, m01, m11);
+    }
+
+    /**
+     * Converts this into a general matrix
+     * @return the matrix
+     */
+    public Matrix toMatrix() {
+        return Matrix.fromFlatDataArray(2, 2, new double[] { m00, m01, m10, m11 });
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(!(o instanceof Matrix2)) return false;
+        Matrix2 m = (Matrix2) o;
+        return Double.compare(m00, m.m00) == 0 && Double.compare(m01, m.m01) == 0
+                && Double.compare(m10, m.m10) == 0 && Double.compare(m11, m.m11) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Double.hashCode(m00);
+        hash = 31 * hash + Double.hashCode(m01);
+        hash = 31 * hash + Double.hashCode(m10);
+        return 31 * hash + Double.hashCode(m11);
+    }
+
+    @Override
+    public String toString() {
+        return "[[" + m00 + ", " + m01 + "], [" + m10 + ", " + m11 + "]]";
+    }
+
+}
@@ -0,0 +1,170 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+/**
+ * An immutable 3 by 3 matrix stored in fields with fully unrolled operations
+ */
+public final class Matrix3 {
+
+    private final double m00, m01, m02;
+    private final double m10, m11, m12;
+    private final double m20, m21, m22;
+
+    /**
+     * Creates a 3 by 3 matrix from its entries in row major order
+     */
+    public Matrix3(double m00, double m01, double m02,
+                   double m10, double m11, double m12,
+                   double m20, double m21, double m22) {
+        this.m00 = m00; this.m01 = m01; this.m02 = m02;
+        this.m10 = m10; this.m11 = m11; this.m12 = m12;
+        this.m20 = m20; this.m21 = m21; this.m22 = m22;
+    }
+
+    /**
+     * Creates a 3 by 3 matrix from a general matrix
+     * @param m the matrix with three rows and three columns
+     * @return the 3 by 3 matrix
+     */
+    public static Matrix3 of(Matrix m) {
+        if(m.getRows() != 3 || m.getCols() != 3)
+            throw new InvalidShapeException(m.toString());
+        double[] a = m.getFlatDataArray();
+        return new Matrix3(a[0], a[1], a[2], a[3], a[4], a[5], a[6], a[7], a[8]);
+    }
+
+    /**
+     * Gets the 3 by 3 identity matrix
+     * @return the identity matrix
+     */
+    public static Matrix3 identity() {
+        return new Matrix3(1, 0, 0, 0, 1, 0, 0, 0, 1);
+    }
+
+    /**
+     * Gets an entry of the matrix
+     * @param r the row
+     * @param c the column
+     * @return the entry
+     */
+    public double get(int r, int c) {
+        switch(r * 3 + c) {
+            case 0: return m00;
+            case 1: return m01;
+            case 2: return m02;
+            case 3: return m10;
+            case 4: return m11;
+            case 5: return m12;
+            case 6: return m20;
+            case 7: return m21;
+            case 8: return m22;
+            default: throw new IndexOutOfBoundsException("(" + r + ", " + c + ") is outside of a 3 by 3 matrix");
+        }
+    }
+
+    /**
+     * Multiplies this matrix with another one
+     * @param b the matrix on the right
+     * @return the product
+     */
+    public Matrix3 multiply(Matrix3 b) {
+        return new Matrix3(
+                m00 * b.m00 + m01 * b.m10 + m02 * b.m20,
+                m00 * b.m01 + m01 * b.m11 + m02 * b.m21,
+                m00 * b.m02 + m01 * b.m12 + m02 * b.m22,
+                m10 * b.m00 + m11 * b.m10 + m12 * b.m20,
+                m10 * b.m01 + m11 * b.m11 + m12 * b.m21,
+                m10 * b.m02 + m11 * b.m12 + m12 * b.m22,
+                m20 * b.m00 + m21 * b.m10 + m22 * b.m20,
+                m20 * b.m01 + m21 * b.m11 + m22 * b.m21,
+                m20 * b.m02 + m21 * b.m12 + m22 * b.m22);
+    }
+
+    /**
+     * Multiplies this matrix with a vector
+     * @param v the vector
+     * @return the product
+     */
+    public Vector3 multiply(Vector3 v) {
+        double x = v.getX(), y = v.getY(), z = v.getZ();
+        return new Vector3(
+                m00 * x + m01 * y + m02 * z,
+                m10 * x + m11 * y + m12 * z,
+                m20 * x + m21 * y + m22 * z);
+    }
+
+    /**
+     * Calculates the determinant by expanding along the first row
+     * @return the determinant
+     */
+    public double determinant() {
+        return m00 * (m11 * m22 - m12 * m21) - m01 * (m10 * m22 - m12 * m20) + m02 * (m10 * m21 - m11 * m20);
+    }
+
+    /**
+     * Calculates the inverse through the adjugate
+     * @return the inverse
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public Matrix3 inverse() {
+        double c00 = m11 * m22 - m12 * m21;
+        double c01 = m12 * m20 - m10 * m22;
+        double c02 = m10 * m21 - m11 * m20;
+        double det = m00 * c00 + m01 * c01 + m02 * c02;
+        if(det == 0)
+            throw new ArithmeticException("The matrix is singular");
+        double s = 1 / det;
+        return new Matrix3(
+                c00 * s, (m02 * m21 - m01 * m22) * s, (m01 * m12 - m02 * m11) * s,
+                c01 * s, (m00 * m22 - m02 * m20) * s, (m02 * m10 - m00 * m12) * s,
+                c02 * s, (m01 * m20 - m00 * m21) * s, (m00 * m11 - m01 * m10) * s);
+    }
+
+    /**
+     * Calculates the transpose
+     * @return the transpose
+     */
+    public Matrix3 transpose() {
+        return new Matrix3(m00, m10, m20, m01, m11, m21, m02, m12, m22);
+    }
+
+    /**
+     * Converts this into a general matrix
+     * @return the matrix
+     */
+    public Matrix toMatrix() {
+        return Matrix.fromFlatDataArray(3, 3, new double[] { m00, m01, m02, m10, m11, m12, m20, m21, m22 });
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(!(o instanceof Matrix3)) return false;
+        Matrix3 m = (Matrix3) o;
+        return Double.compare(m00, m.m00) == 0 && Double.compare(m01, m.m01) == 0 && Double.compare(m02, m.m02) == 0
+                && Double.compare(m10, m.m10) == 0 && Double.compare(m11, m.m11) == 0
+                && Double.compare(m12, m.m12) == 0 && Double.compare(m20, m.m20) == 0
+                && Double.compare(m21, m.m21) == 0 && Double.compare(m22, m.m22) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Double.hashCode(m00);
+        hash = 31 * hash + Double.hashCode(m01);
+        hash = 31 * hash + Double.hashCode(m02);
+        hash = 31 * hash + Double.hashCode(m10);
+        hash = 31 * hash + Double.hashCode(m11);
+        hash = 31 * hash + Double.hashCode(m12);
+        hash = 31 * hash + Double.hashCode(m20);
+        hash = 31 * hash + Double.hashCode(m21);
+        return 31 * hash + Double.hashCode(m22);
+    }
+
+    @Override
+    public String toString() {
+        return "[[" + m00 + ", " + m01 + ", " + m02 + "], [" + m10 + ", " + m11 + ", " + m12 + "], [" + m20 + ", "
+                + m21 + ", " + m22 + "]]";
+    }
+
+}
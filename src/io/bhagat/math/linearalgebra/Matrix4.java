@@ -0,0 +1,207 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+/**
+ * An immutable 4 by 4 matrix stored in fields with fully unrolled operations, such as a homogeneous transform
+ */
+public final class Matrix4 {
+
+    private final double m00, m01, m02, m03;
+    private final double m10, m11, m12, m13;
+    private final double m20, m21, m22, m23;
+    private final double m30, m31, m32, m33;
+
+    /**
+     * Creates a 4 by 4 matrix from its entries in row major order
+     */
+    public Matrix4(double m00, double m01, double m02, double m03,
+                   double m10, double m11, double m12, double m13,
+                   double m20, double m21, double m22, double m23,
+                   double m30, double m31, double m32, double m33) {
+        this.m00 = m00; this.m01 = m01; this.m02 = m02; this.m03 = m03;
+        this.m10 = m10; this.m11 = m11; this.m12 = m12; this.m13 = m13;
+        this.m20 = m20; this.m21 = m21; this.m22 = m22; this.m23 = m23;
+        this.m30 = m30; this.m31 = m31; this.m32 = m32; this.m33 = m33;
+    }
+
+    /**
+     * Creates a 4 by 4 matrix from a general matrix
+     * @param m the matrix with four rows and four columns
+     * @return the 4 by 4 matrix
+     */
+    public static Matrix4 of(Matrix m) {
+        if(m.getRows() != 4 || m.getCols() != 4)
+            throw new InvalidShapeException(m.toString());
+        double[] a = m.getFlatDataArray();
+        return new Matrix4(a[0], a[1], a[2], a[3], a[4], a[5], a[6], a[7],
+                a[8], a[9], a[10], a[11], a[12], a[13], a[14], a[15]);
+    }
+
+    /**
+     * Gets the 4 by 4 identity matrix
+     * @return the identity matrix
+     */
+    public static Matrix4 identity() {
+        return new Matrix4(1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1);
+    }
+
+    /**
+     * Gets an entry of the matrix
+     * @param r the row
+     * @param c the column
+     * @return the entry
+     */
+    public double get(int r, int c) {
+        if(r < 0 || r > 3 || c < 0 || c > 3)
+            throw new IndexOutOfBoundsException("(" + r + ", " + c + ") is outside of a 4 by 4 matrix");
+        return toArray()[r * 4 + c];
+    }
+
+    /**
+     * Multiplies this matrix with another one
+     * @param b the matrix on the right
+     * @return the product
+     */
+    public Matrix4 multiply(Matrix4 b) {
+        return new Matrix4(
+                m00 * b.m00 + m01 * b.m10 + m02 * b.m20 + m03 * b.m30,
+                m00 * b.m01 + m01 * b.m11 + m02 * b.m21 + m03 * b.m31,
+                m00 * b.m02 + m01 * b.m12 + m02 * b.m22 + m03 * b.m32,
+                m00 * b.m03 + m01 * b.m13 + m02 * b.m23 + m03 * b.m33,
+                m10 * b.m00 + m11 * b.m10 + m12 * b.m20 + m13 * b.m30,
+                m10 * b.m01 + m11 * b.m11 + m12 * b.m21 + m13 * b.m31,
+                m10 * b.m02 + m11 * b.m12 + m12 * b.m22 + m13 * b.m32,
+                m10 * b.m03 + m11 * b.m13 + m12 * b.m23 + m13 * b.m33,
+                m20 * b.m00 + m21 * b.m10 + m22 * b.m20 + m23 * b.m30,
+                m20 * b.m01 + m21 * b.m11 + m22 * b.m21 + m23 * b.m31,
+                m20 * b.m02 + m21 * b.m12 + m22 * b.m22 + m23 * b.m32,
+                m20 * b.m03 + m21 * b.m13 + m22 * b.m23 + m23 * b.m33,
+                m30 * b.m00 + m31 * b.m10 + m32 * b.m20 + m33 * b.m30,
+                m30 * b.m01 + m31 * b.m11 + m32 * b.m21 + m33 * b.m31,
+                m30 * b.m02 + m31 * b.m12 + m32 * b.m22 + m33 * b.m32,
+                m30 * b.m03 + m31 * b.m13 + m32 * b.m23 + m33 * b.m33);
+    }
+
+    /**
+     * Multiplies this matrix with a vector
+     * @param v the vector
+     * @return the product
+     */
+    public Vector4 multiply(Vector4 v) {
+        double x = v.getX(), y = v.getY(), z = v.getZ(), w = v.getW();
+        return new Vector4(
+                m00 * x + m01 * y + m02 * z + m03 * w,
+                m10 * x + m11 * y + m12 * z + m13 * w,
+                m20 * x + m21 * y + m22 * z + m23 * w,
+                m30 * x + m31 * y + m32 * z + m33 * w);
+    }
+
+    /**
+     * Calculates the determinant from the 2 by 2 minors of the top two and bottom two rows
+     * @return the determinant
+     */
+    public double determinant() {
+        double s0 = m00 * m11 - m10 * m01, s1 = m00 * m12 - m10 * m02, s2 = m00 * m13 - m10 * m03;
+        double s3 = m01 * m12 - m11 * m02, s4 = m01 * m13 - m11 * m03, s5 = m02 * m13 - m12 * m03;
+        double c0 = m20 * m31 - m30 * m21, c1 = m20 * m32 - m30 * m22, c2 = m20 * m33 - m30 * m23;
+        double c3 = m21 * m32 - m31 * m22, c4 = m21 * m33 - m31 * m23, c5 = m22 * m33 - m32 * m23;
+        return s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+    }
+
+    /**
+     * Calculates the inverse through the adjugate, reusing the twelve 2 by 2 minors of the determinant
+     * @return the inverse
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public Matrix4 inverse() {
+        double s0 = m00 * m11 - m10 * m01, s1 = m00 * m12 - m10 * m02, s2 = m00 * m13 - m10 * m03;
+        double s3 = m01 * m12 - m11 * m02, s4 = m01 * m13 - m11 * m03, s5 = m02 * m13 - m12 * m03;
+        double c0 = m20 * m31 - m30 * m21, c1 = m20 * m32 - m30 * m22, c2 = m20 * m33 - m30 * m23;
+        double c3 = m21 * m32 - m31 * m22, c4 = m21 * m33 - m31 * m23, c5 = m22 * m33 - m32 * m23;
+        double det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+        if(det == 0)
+            throw new ArithmeticException("The matrix is singular");
+        double s = 1 / det;
+        return new Matrix4(
+                ( m11 * c5 - m12 * c4 + m13 * c3) * s,
+                (-m01 * c5 + m02 * c4 - m03 * c3) * s,
+                ( m31 * s5 - m32 * s4 + m33 * s3) * s,
+                (-m21 * s5 + m22 * s4 - m23 * s3) * s,
+                (-m10 * c5 + m12 * c2 - m13 * c1) * s,
+                ( m00 * c5 - m02 * c2 + m03 * c1) * s,
+                (-m30 * s5 + m32 * s2 - m33 * s1) * s,
+                ( m20 * s5 - m22 * s2 + m23 * s1) * s,
+                ( m10 * c4 - m11 * c2 + m13 * c0) * s,
+                (-m00 * c4 + m01 * c2 - m03 * c0) * s,
+                ( m30 * s4 - m31 * s2 + m33 * s0) * s,
+                (-m20 * s4 + m21 * s2 - m23 * s0) * s,
+                (-m10 * c3 + m11 * c1 - m12 * c0) * s,
+                ( m00 * c3 - m01 * c1 + m02 * c0) * s,
+                (-m30 * s3 + m31 * s1 - m32 * s0) * s,
+                ( m20 * s3 - m21 * s1 + m22 * s0) * s);
+    }
+
+    /**
+     * Calculates the transpose
+     * @return the transpose
+     */
+    public Matrix4 transpose() {
+        return new Matrix4(m00, m10, m20, m30, m01, m11, m21, m31, m02, m12, m22, m32, m03, m13, m23, m33);
+    }
+
+    /**
+     * Converts this into a general matrix
+     * @return the matrix
+     */
+    public Matrix toMatrix() {
+        return Matrix.fromFlatDataArray(4, 4, toArray());
+    }
+
+    private double[] toArray() {
+        return new double[] { m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22, m23, m30, m31, m32, m33 };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(!(o instanceof Matrix4)) return false;
+        Matrix4 m = (Matrix4) o;
+        return Double.compare(m00, m.m00) == 0 && Double.compare(m01, m.m01) == 0 && Double.compare(m02, m.m02) == 0
+                && Double.compare(m03, m.m03) == 0 && Double.compare(m10, m.m10) == 0
+                && Double.compare(m11, m.m11) == 0 && Double.compare(m12, m.m12) == 0
+                && Double.compare(m13, m.m13) == 0 && Double.compare(m20, m.m20) == 0
+                && Double.compare(m21, m.m21) == 0 && Double.compare(m22, m.m22) == 0
+                && Double.compare(m23, m.m23) == 0 && Double.compare(m30, m.m30) == 0
+                && Double.compare(m31, m.m31) == 0 && Double.compare(m32, m.m32) == 0
+                && Double.compare(m33, m.m33) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Double.hashCode(m00);
+        hash = 31 * hash + Double.hashCode(m01);
+        hash = 31 * hash + Double.hashCode(m02);
+        hash = 31 * hash + Double.hashCode(m03);
+        hash = 31 * hash + Double.hashCode(m10);
+        hash = 31 * hash + Double.hashCode(m11);
+        hash = 31 * hash + Double.hashCode(m12);
+        hash = 31 * hash + Double.hashCode(m13);
+        hash = 31 * hash + Double.hashCode(m20);
+        hash = 31 * hash + Double.hashCode(m21);
+        hash = 31 * hash + Double.hashCode(m22);
+        hash = 31 * hash + Double.hashCode(m23);
+        hash = 31 * hash + Double.hashCode(m30);
+        hash = 31 * hash + Double.hashCode(m31);
+        hash = 31 * hash + Double.hashCode(m32);
+        return 31 * hash + Double.hashCode(m33);
+    }
+
+    @Override
+    public String toString() {
+        return "[[" + m00 + ", " + m01 + ", " + m02 + ", " + m03 + "], [" + m10 + ", " + m11 + ", " + m12 + ", " + m13
+                + "], [" + m20 + ", " + m21 + ", " + m22 + ", " + m23 + "], [" + m30 + ", " + m31 + ", " + m32 + ", "
+                + m33 + "]]";
+    }
+
+}
@@ -0,0 +1,118 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+/**
+ * A product of a chain of matricies that is carried out in the order with the fewest multiply adds. The order only
+ * depends on the shapes, so it is found once with the classic dynamic program over the split points of every sub
+ * chain, which takes O(n<sup>3</sup>) time in the length of the chain and is negligible next to the products. The
+ * intermediate products are borrowed from the {@link Workspace} and released as soon as they are used.
+ */
+public class MatrixChain {
+
+    private final Matrix[] matricies;
+    private final int[] dims;
+    private final int[][] splits;
+    private final long cost;
+
+    /**
+     * Plans the product of a chain of matricies
+     * @param ms the matricies, where each one must have as many columns as the next one has rows
+     */
+    public MatrixChain(Matrix... ms) {
+        if(ms.length == 0)
+            throw new IllegalArgumentException("A matrix chain needs at least one matrix");
+        int n = ms.length;
+        matricies = ms.clone();
+        dims = new int[n + 1];
+        dims[0] = ms[0].getRows();
+        for(int i = 0; i < n; i++) {
+            if(ms[i].getRows() != dims[i])
+                throw new InvalidShapeException(ms[i - 1].toString(), ms[i].toString());
+            dims[i + 1] = ms[i].getCols();
+        }
+        long[][] costs = new long[n][n];
+        splits = new int[n][n];
+        for(int length = 2; length <= n; length++) {
+            for(int i = 0; i + length <= n; i++) {
+                int j = i + length - 1;
+                costs[i][j] = Long.MAX_VALUE;
+                for(int s = i; s < j; s++) {
+                    long c = costs[i][s] + costs[s + 1][j] + (long) dims[i] * dims[s + 1] * dims[j + 1];
+                    if(c < costs[i][j]) {
+                        costs[i][j] = c;
+                        splits[i][j] = s;
+                    }
+                }
+            }
+        }
+        cost = costs[0][n - 1];
+    }
+
+    /**
+     * Gets the number of multiply adds of the planned order
+     * @return the cost
+     */
+    public long getCost() {
+        return cost;
+    }
+
+    /**
+     * Gets the number of multiply adds of multiplying from left to right, for comparison
+     * @return the cost of the left to right order
+     */
+    public long getLeftToRightCost() {
+        long total = 0;
+        for(int i = 1; i < matricies.length; i++)
+            total += (long) dims[0] * dims[i] * dims[i + 1];
+        return total;
+    }
+
+    /**
+     * Computes the product in the planned order
+     * @return the product
+     */
+    public Matrix multiply() {
+        int n = matricies.length;
+        if(n == 1)
+            return matricies[0].clone();
+        double[][] data = new double[n][];
+        for(int i = 0; i < n; i++)
+            data[i] = matricies[i].getFlatDataArray();
+        return Matrix.fromFlatDataArray(dims[0], dims[n], product(data, 0, n - 1, Workspace.get(), true));
+    }
+
+    /*
+     * Multiplies the sub chain from i to j, borrowing the result from the workspace unless it is the final product
+     */
+    private double[] product(double[][] data, int i, int j, Workspace workspace, boolean last) {
+        if(i == j)
+            return data[i];
+        int s = splits[i][j];
+        double[] left = product(data, i, s, workspace, false), right = product(data, s + 1, j, workspace, false);
+        int size = dims[i] * dims[j + 1];
+        double[] out = last? new double[size]: workspace.borrow(size);
+        MatrixMultiply.dispatch(left, right, out, dims[i], dims[s + 1], dims[j + 1]);
+        if(s > i)
+            workspace.release(left);
+        if(s + 1 < j)
+            workspace.release(right);
+        return out;
+    }
+
+    /**
+     * Writes the planned order with the matricies named by their position in the chain
+     * @return the parenthesization, such as (A0 (A1 A2))
+     */
+    @Override
+    public String toString() {
+        return order(0, matricies.length - 1);
+    }
+
+    private String order(int i, int j) {
+        if(i == j)
+            return "A" + i;
+        return "(" + order(i, splits[i][j]) + " " + order(splits[i][j] + 1, j) + ")";
+    }
+
+}
@@ -0,0 +1,230 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+/*
+ * Matrix powers and matrix functions on row major arrays. The products reuse a fixed set of buffers instead of
+ * allocating a new matrix for every step.
+ */
+class MatrixFunctions {
+
+    private static final int PADE_DEGREE = 6;
+    private static final double SYMMETRY_TOLERANCE = 1e-12;
+    private static final int MAX_ITERATIONS = 100;
+
+    private MatrixFunctions() {}
+
+    /*
+     * Raises a square matrix to an integer power by repeated squaring
+     */
+    static Matrix pow(Matrix m, int exponent) {
+        int n = checkSquare(m);
+        double[] base = exponent < 0? new LUDecomposition(m).inverse().getFlatDataArray(): m.getFlatDataArray();
+        long e = Math.abs((long) exponent);
+        double[] result = identity(n);
+        double[] tmp = new double[n * n];
+        boolean first = true;
+        while(e > 0) {
+            if((e & 1) == 1) {
+                if(first) {
+                    System.arraycopy(base, 0, result, 0, base.length);
+                    first = false;
+                } else {
+                    multiply(result, base, tmp, n);
+                    double[] t = result; result = tmp; tmp = t;
+                }
+            }
+            e >>= 1;
+            if(e > 0) {
+                multiply(base, base, tmp, n);
+                double[] t = base; base = tmp; tmp = t;
+            }
+        }
+        return Matrix.fromFlatDataArray(n, n, result);
+    }
+
+    /*
+     * Computes the matrix exponential by scaling and squaring with a diagonal Pade approximant
+     */
+    static Matrix exp(Matrix m) {
+        int n = checkSquare(m);
+        double[] a = m.getFlatDataArray();
+        int squarings = Math.max(0, Math.getExponent(infinityNorm(a, n)) + 2);
+        double scale = Math.scalb(1.0, -squarings);
+        for(int i = 0; i < a.length; i++)
+            a[i] *= scale;
+
+        double[] numerator = identity(n), denominator = identity(n);
+        double[] power = identity(n), tmp = new double[n * n];
+        double c = 1;
+        for(int k = 1; k <= PADE_DEGREE; k++) {
+            c = c * (PADE_DEGREE - k + 1) / (k * (2.0 * PADE_DEGREE - k + 1));
+            multiply(power, a, tmp, n);
+            double[] t = power; power = tmp; tmp = t;
+            double sign = k % 2 == 0? 1: -1;
+            for(int i = 0; i < power.length; i++) {
+                numerator[i] += c * power[i];
+                denominator[i] += sign * c * power[i];
+            }
+        }
+        double[] result = new LUDecomposition(denominator, n).solveColumns(numerator, n);
+        for(int s = 0; s < squarings; s++) {
+            multiply(result, result, tmp, n);
+            double[] t = result; result = tmp; tmp = t;
+        }
+        return Matrix.fromFlatDataArray(n, n, result);
+    }
+
+    /*
+     * Computes the principal square root, through the eigendecomposition for symmetric matricies and with the
+     * Denman Beavers iteration otherwise
+     */
+    static Matrix sqrt(Matrix m) {
+        int n = checkSquare(m);
+        if(isSymmetric(m))
+            return symmetricFunction(m, n, x -> {
+                if(x < -SYMMETRY_TOLERANCE)
+                    throw new ArithmeticException("A symmetric matrix with a negative eigenvalue has no real square root");
+                return Math.sqrt(Math.max(0, x));
+            });
+        return Matrix.fromFlatDataArray(n, n, denmanBeavers(m.getFlatDataArray(), n));
+    }
+
+    /*
+     * Computes the principal logarithm, through the eigendecomposition for symmetric matricies and by inverse
+     * scaling and squaring otherwise
+     */
+    static Matrix log(Matrix m) {
+        int n = checkSquare(m);
+        if(isSymmetric(m))
+            return symmetricFunction(m, n, x -> {
+                if(x <= 0)
+                    throw new ArithmeticException("A symmetric matrix with a non-positive eigenvalue has no real logarithm");
+                return Math.log(x);
+            });
+        double[] a = m.getFlatDataArray();
+        int roots = 0;
+        while(distanceFromIdentity(a, n) > 0.25) {
+            if(++roots > 64)
+                throw new ArithmeticException("The logarithm iteration did not converge");
+            a = denmanBeavers(a, n);
+        }
+        // log(I + X) = X - X^2 / 2 + X^3 / 3 - ... converges quickly once ||X|| <= 1 / 4
+        for(int i = 0; i < n; i++)
+            a[i * n + i] -= 1;
+        double[] result = a.clone(), power = a.clone(), tmp = new double[n * n];
+        for(int k = 2; k <= 30; k++) {
+            multiply(power, a, tmp, n);
+            double[] t = power; power = tmp; tmp = t;
+            double c = (k % 2 == 0? -1.0: 1.0) / k;
+            for(int i = 0; i < result.length; i++)
+                result[i] += c * power[i];
+        }
+        double scale = Math.scalb(1.0, roots);
+        for(int i = 0; i < result.length; i++)
+            result[i] *= scale;
+        return Matrix.fromFlatDataArray(n, n, result);
+    }
+
+    /*
+     * Checks if a matrix is symmetric up to rounding errors relative to its largest entry
+     */
+    static boolean isSymmetric(Matrix m) {
+        if(!m.isSquare())
+            return false;
+        int n = m.getRows();
+        double[] a = m.getFlatDataArray();
+        double max = 0;
+        for(double x: a)
+            max = Math.max(max, Math.abs(x));
+        for(int i = 0; i < n; i++)
+            for(int j = i + 1; j < n; j++)
+                if(Math.abs(a[i * n + j] - a[j * n + i]) > SYMMETRY_TOLERANCE * max)
+                    return false;
+        return true;
+    }
+
+    /*
+     * Applies a scalar function to the eigenvalues of a symmetric matrix, V f(D) V^T
+     */
+    private static Matrix symmetricFunction(Matrix m, int n, DoubleUnaryOperator f) {
+        double[] v = new double[n * n];
+        double[] values = SymmetricMatrix.jacobi(SymmetricMatrix.pack(m.getFlatDataArray(), n), n, v,
+                SymmetricMatrix.JACOBI_SWEEPS);
+        double[] result = new double[n * n];
+        for(int k = 0; k < n; k++) {
+            double fk = f.applyAsDouble(values[k]);
+            for(int i = 0; i < n; i++) {
+                double vik = v[i * n + k] * fk;
+                for(int j = 0; j < n; j++)
+                    result[i * n + j] += vik * v[j * n + k];
+            }
+        }
+        return Matrix.fromFlatDataArray(n, n, result);
+    }
+
+    /*
+     * The Denman Beavers iteration Y <- (Y + Z^-1) / 2, Z <- (Z + Y^-1) / 2 which converges to the square root of A
+     */
+    private static double[] denmanBeavers(double[] a, int n) {
+        double[] y = a.clone(), z = identity(n);
+        for(int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double[] yInverse = new LUDecomposition(y.clone(), n).solveColumns(identity(n), n);
+            double[] zInverse = new LUDecomposition(z.clone(), n).solveColumns(identity(n), n);
+            double change = 0, size = 0;
+            for(int i = 0; i < y.length; i++) {
+                double next = (y[i] + zInverse[i]) / 2;
+                change = Math.max(change, Math.abs(next - y[i]));
+                size = Math.max(size, Math.abs(next));
+                y[i] = next;
+                z[i] = (z[i] + yInverse[i]) / 2;
+            }
+            if(change <= 1e-14 * size)
+                return y;
+        }
+        throw new ArithmeticException("The square root iteration did not converge");
+    }
+
+    /*
+     * Computes c = a * b for n by n row major arrays with the kernel the dispatcher chooses, c must not be a or b
+     */
+    static void multiply(double[] a, double[] b, double[] c, int n) {
+        Arrays.fill(c, 0);
+        MatrixMultiply.dispatch(a, b, c, n, n, n);
+    }
+
+    private static double[] identity(int n) {
+        double[] id = new double[n * n];
+        for(int i = 0; i < n; i++)
+            id[i * n + i] = 1;
+        return id;
+    }
+
+    private static double infinityNorm(double[] a, int n) {
+        double norm = 0;
+        for(int i = 0; i < n; i++) {
+            double sum = 0;
+            for(int j = 0; j < n; j++)
+                sum += Math.abs(a[i * n + j]);
+            norm = Math.max(norm, sum);
+        }
+        return norm;
+    }
+
+    private static double distanceFromIdentity(double[] a, int n) {
+        double[] d = a.clone();
+        for(int i = 0; i < n; i++)
+            d[i * n + i] -= 1;
+        return infinityNorm(d, n);
+    }
+
+    private static int checkSquare(Matrix m) {
+        if(!m.isSquare())
+            throw new InvalidShapeException(m.toString());
+        return m.getRows();
+    }
+
+}
@@ -0,0 +1,77 @@
+package io.bhagat.math.linearalgebra;
+
+import java.util.stream.IntStream;
+
+/*
+ * The kernels for the product of row major arrays that the dispatcher chooses between. Every kernel adds the terms of
+ * each output entry in the order of the inner index, so they all give exactly the same result. Zero entries are not
+ * skipped, so an infinite or NaN entry gives NaN in the product just as it does in a dot product.
+ */
+class MatrixMultiply {
+
+    private static final int TILE = 64;
+
+    private MatrixMultiply() {}
+
+    /*
+     * Computes the product with the kernel the dispatcher chooses for its number of multiply adds
+     */
+    static void dispatch(double[] a, double[] b, double[] c, int m, int k, int n) {
+        switch(Dispatcher.get().choose(Dispatcher.Operation.MULTIPLY, (long) m * k * n)) {
+            case PARALLEL: parallel(a, b, c, m, k, n); break;
+            case BLOCKED: blocked(a, b, c, m, k, n); break;
+            default: serial(a, b, c, m, k, n);
+        }
+    }
+
+    /*
+     * Computes the m by n product c of the m by k array a and the k by n array b with the cache friendly i k j loop
+     */
+    static void serial(double[] a, double[] b, double[] c, int m, int k, int n) {
+        rows(a, b, c, k, n, 0, m);
+    }
+
+    /*
+     * Computes the product in tiles of the inner and output columns, so that the tile of b stays in cache while it is
+     * used by every row of a
+     */
+    static void blocked(double[] a, double[] b, double[] c, int m, int k, int n) {
+        tiles(a, b, c, k, n, 0, m);
+    }
+
+    /*
+     * Computes the product with bands of rows split across the common fork join pool, each using the blocked kernel
+     */
+    static void parallel(double[] a, double[] b, double[] c, int m, int k, int n) {
+        int bands = (m + TILE - 1) / TILE;
+        IntStream.range(0, bands).parallel().forEach(band ->
+                tiles(a, b, c, k, n, band * TILE, Math.min(m, (band + 1) * TILE)));
+    }
+
+    private static void rows(double[] a, double[] b, double[] c, int k, int n, int from, int to) {
+        for(int i = from; i < to; i++) {
+            for(int p = 0; p < k; p++) {
+                double aip = a[i * k + p];
+                for(int j = 0; j < n; j++)
+                    c[i * n + j] += aip * b[p * n + j];
+            }
+        }
+    }
+
+    private static void tiles(double[] a, double[] b, double[] c, int k, int n, int from, int to) {
+        for(int p0 = 0; p0 < k; p0 += TILE) {
+            int p1 = Math.min(k, p0 + TILE);
+            for(int j0 = 0; j0 < n; j0 += TILE) {
+                int j1 = Math.min(n, j0 + TILE);
+                for(int i = from; i < to; i++) {
+                    for(int p = p0; p < p1; p++) {
+                        double aip = a[i * k + p];
+                        for(int j = j0; j < j1; j++)
+                            c[i * n + j] += aip * b[p * n + j];
+                    }
+                }
+            }
+        }
+    }
+
+}
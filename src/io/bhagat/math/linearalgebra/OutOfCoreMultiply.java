@@ -0,0 +1,254 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multiplies tiled matrices that do not fit in memory. Tiles are streamed through a bounded cache while an I/O thread
+ * pool prefetches the tiles of the next step and writes finished output tiles behind the computation.
+ */
+public class OutOfCoreMultiply implements AutoCloseable {
+
+    private final int maxCachedTiles;
+    private final int prefetchDepth;
+    private final ExecutorService io;
+    private final Map<TileKey, Tile> cache;
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    /**
+     * Creates a multiplier with a bounded tile cache
+     * @param maxCachedTiles the maximum number of input tiles held in memory at once, at least 2
+     * @param ioThreads the number of threads reading and writing tiles
+     */
+    public OutOfCoreMultiply(int maxCachedTiles, int ioThreads) {
+        if(maxCachedTiles < 2)
+            throw new IllegalArgumentException("At least 2 tiles must fit in the cache");
+        this.maxCachedTiles = maxCachedTiles;
+        this.prefetchDepth = Math.max(1, maxCachedTiles / 4);
+        this.io = Executors.newFixedThreadPool(ioThreads, r -> {
+            Thread t = new Thread(r, "jmathlib-tile-io");
+            t.setDaemon(true);
+            return t;
+        });
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TileKey, Tile> eldest) {
+                if(size() <= OutOfCoreMultiply.this.maxCachedTiles)
+                    return false;
+                eldest.getValue().data.cancel(false);
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Creates a multiplier with a bounded tile cache and one I/O thread
+     * @param maxCachedTiles the maximum number of input tiles held in memory at once, at least 2
+     */
+    public OutOfCoreMultiply(int maxCachedTiles) {
+        this(maxCachedTiles, 1);
+    }
+
+    /**
+     * Computes the product of two tiled matrices into a new tiled matrix
+     * @param a the first matrix
+     * @param b the second matrix
+     * @param directory the directory to store the tiles of the product in
+     * @return the product
+     * @throws IOException if a tile cannot be read or written
+     */
+    public TiledMatrix multiply(TiledMatrix a, TiledMatrix b, Path directory) throws IOException {
+        if(a.getCols() != b.getRows() || a.getTileSize() != b.getTileSize())
+            throw new InvalidShapeException(a.getRows() + "x" + a.getCols(), b.getRows() + "x" + b.getCols());
+        TiledMatrix c = TiledMatrix.create(directory, a.getRows(), b.getCols(), a.getTileSize());
+
+        List<int[]> steps = new ArrayList<>();
+        for(int ti = 0; ti < c.getTileRows(); ti++)
+            for(int tj = 0; tj < c.getTileCols(); tj++)
+                for(int tk = 0; tk < a.getTileCols(); tk++)
+                    steps.add(new int[] { ti, tj, tk });
+
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        double[] acc = null;
+        try {
+            for(int s = 0; s < steps.size(); s++) {
+                for(int p = s + 1; p <= s + prefetchDepth && p < steps.size(); p++) {
+                    int[] next = steps.get(p);
+                    fetch(a, next[0], next[2]);
+                    fetch(b, next[2], next[1]);
+                }
+                int ti = steps.get(s)[0], tj = steps.get(s)[1], tk = steps.get(s)[2];
+                int h = c.getTileHeight(ti), w = c.getTileWidth(tj), inner = a.getTileWidth(tk);
+                if(tk == 0)
+                    acc = new double[h * w];
+                multiplyTile(use(fetch(a, ti, tk)), use(fetch(b, tk, tj)), acc, h, inner, w);
+                if(tk == a.getTileCols() - 1) {
+                    double[] done = acc;
+                    awaitWrites(writes, prefetchDepth);
+                    writes.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            c.writeTile(ti, tj, done);
+                            bytesWritten.addAndGet((long) done.length * Double.BYTES);
+                        } catch(IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, io));
+                }
+            }
+            awaitWrites(writes, 0);
+        } catch(CompletionException e) {
+            if(e.getCause() instanceof UncheckedIOException)
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            throw e;
+        } finally {
+            synchronized(cache) {
+                for(Tile tile: cache.values())
+                    tile.data.cancel(false);
+                cache.clear();
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Gets the number of tile bytes loaded by this multiplier and used in a product, including reloads of evicted
+     * tiles, which is useful for sizing the tile cache. Prefetched tiles that are evicted before they are used are not
+     * counted, and their reads are cancelled if they have not started yet.
+     * @return the number of bytes read
+     */
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * Gets the number of element bytes written to disk by this multiplier
+     * @return the number of bytes written
+     */
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * Releases the I/O threads
+     */
+    @Override
+    public void close() {
+        io.shutdown();
+    }
+
+    /*
+     * Gets a tile from the cache or schedules it to be read
+     * @param m the matrix the tile belongs to
+     * @param ti the row index of the tile
+     * @param tj the column index of the tile
+     * @return the pending or completed tile
+     */
+    private Tile fetch(TiledMatrix m, int ti, int tj) {
+        TileKey key = new TileKey(m, ti, tj);
+        synchronized(cache) {
+            Tile tile = cache.get(key);
+            if(tile == null) {
+                tile = new Tile(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return m.readTile(ti, tj);
+                    } catch(IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, io));
+                cache.put(key, tile);
+            }
+            return tile;
+        }
+    }
+
+    /*
+     * Waits for a tile to be read, counting its bytes the first time it is used
+     * @param tile the pending or completed tile
+     * @return the elements of the tile
+     */
+    private double[] use(Tile tile) {
+        double[] data = tile.data.join();
+        if(!tile.used) {
+            tile.used = true;
+            bytesRead.addAndGet((long) data.length * Double.BYTES);
+        }
+        return data;
+    }
+
+    /*
+     * Waits for pending tile writes until at most a number of them are left in flight, rethrowing any failure
+     * @param writes the pending writes, oldest first
+     * @param maxPending the number of writes allowed to stay in flight
+     */
+    private static void awaitWrites(List<CompletableFuture<Void>> writes, int maxPending) {
+        while(!writes.isEmpty() && (writes.size() > maxPending || writes.get(0).isDone()))
+            writes.remove(0).join();
+    }
+
+    /*
+     * Accumulates the product of a h by inner tile and an inner by w tile into a h by w tile
+     */
+    private static void multiplyTile(double[] a, double[] b, double[] c, int h, int inner, int w) {
+        for(int i = 0; i < h; i++) {
+            for(int k = 0; k < inner; k++) {
+                double aik = a[i * inner + k];
+                int bRow = k * w, cRow = i * w;
+                for(int j = 0; j < w; j++)
+                    c[cRow + j] += aik * b[bRow + j];
+            }
+        }
+    }
+
+    private static final class Tile {
+
+        private final CompletableFuture<double[]> data;
+        private boolean used;
+
+        private Tile(CompletableFuture<double[]> data) {
+            this.data = data;
+        }
+
+    }
+
+    private static final class TileKey {
+
+        private final TiledMatrix matrix;
+        private final int ti;
+        private final int tj;
+
+        private TileKey(TiledMatrix matrix, int ti, int tj) {
+            this.matrix = matrix;
+            this.ti = ti;
+            this.tj = tj;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) return true;
+            if(!(o instanceof TileKey)) return false;
+            TileKey key = (TileKey) o;
+            return matrix == key.matrix && ti == key.ti && tj == key.tj;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(matrix), ti, tj);
+        }
+
+    }
+
+}
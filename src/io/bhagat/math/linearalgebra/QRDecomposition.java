@@ -0,0 +1,240 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+/**
+ * The QR factorization of a matrix with at least as many rows as columns computed with Householder reflections,
+ * AP = QR. The optional column pivoting moves the column with the largest remaining norm forward at every step, which
+ * makes the diagonal of R decrease in magnitude so that it reveals the numerical rank.
+ */
+public class QRDecomposition {
+
+    private static final double RELATIVE_TOLERANCE = 1e-12;
+
+    private final int m;
+    private final int n;
+    private final double[] qr;
+    private final double[] rDiagonal;
+    private final int[] permutation;
+    private final boolean pivoting;
+
+    /**
+     * Factors a matrix without column pivoting
+     * @param a the matrix with at least as many rows as columns
+     */
+    public QRDecomposition(Matrix a) {
+        this(a, false);
+    }
+
+    /**
+     * Factors a matrix
+     * @param a the matrix with at least as many rows as columns
+     * @param pivoting whether to pivot columns to reveal the rank
+     */
+    public QRDecomposition(Matrix a, boolean pivoting) {
+        if(a.getRows() < a.getCols())
+            throw new InvalidShapeException(a.toString());
+        this.m = a.getRows();
+        this.n = a.getCols();
+        this.qr = a.getFlatDataArray();
+        this.rDiagonal = new double[n];
+        this.permutation = new int[n];
+        this.pivoting = pivoting;
+        for(int j = 0; j < n; j++)
+            permutation[j] = j;
+
+        for(int k = 0; k < n; k++) {
+            if(pivoting) {
+                int p = k;
+                double best = -1;
+                for(int j = k; j < n; j++) {
+                    double norm = 0;
+                    for(int i = k; i < m; i++)
+                        norm += qr[i * n + j] * qr[i * n + j];
+                    if(norm > best) {
+                        best = norm;
+                        p = j;
+                    }
+                }
+                if(p != k) {
+                    for(int i = 0; i < m; i++) {
+                        double t = qr[i * n + k];
+                        qr[i * n + k] = qr[i * n + p];
+                        qr[i * n + p] = t;
+                    }
+                    int t = permutation[k]; permutation[k] = permutation[p]; permutation[p] = t;
+                }
+            }
+
+            double norm = 0;
+            for(int i = k; i < m; i++)
+                norm = Math.hypot(norm, qr[i * n + k]);
+            if(norm != 0) {
+                if(qr[k * n + k] < 0)
+                    norm = -norm;
+                for(int i = k; i < m; i++)
+                    qr[i * n + k] /= norm;
+                qr[k * n + k] += 1;
+                for(int j = k + 1; j < n; j++) {
+                    double s = 0;
+                    for(int i = k; i < m; i++)
+                        s += qr[i * n + k] * qr[i * n + j];
+                    s = -s / qr[k * n + k];
+                    for(int i = k; i < m; i++)
+                        qr[i * n + j] += s * qr[i * n + k];
+                }
+            }
+            rDiagonal[k] = -norm;
+        }
+    }
+
+    /**
+     * Solves the least squares problem, finding the x that minimizes the norm of Ax - b. When the matrix is rank
+     * deficient and was factored with pivoting, the entries for the dependent columns are set to zero.
+     * @param b the right hand side with one entry per row
+     * @return the solution x with one entry per column
+     * @throws ArithmeticException if the matrix is rank deficient and was factored without pivoting
+     */
+    public Vector solve(Vector b) {
+        if(b.getLength() != m)
+            throw new InvalidShapeException(b.toString());
+        return new Vector(solve(b.getDataArray()));
+    }
+
+    /**
+     * Solves the least squares problem for every column of B
+     * @param b the right hand sides
+     * @return the solutions
+     * @throws ArithmeticException if the matrix is rank deficient and was factored without pivoting
+     */
+    public Matrix solve(Matrix b) {
+        if(b.getRows() != m)
+            throw new InvalidShapeException(b.toString());
+        Vector[] cols = b.getColVectors();
+        for(int j = 0; j < cols.length; j++)
+            cols[j] = solve(cols[j]);
+        return new Matrix(false, cols);
+    }
+
+    /*
+     * Solves the least squares problem for a right hand side given as an array, which is overwritten
+     */
+    double[] solve(double[] y) {
+        for(int k = 0; k < n; k++) {
+            if(rDiagonal[k] == 0)
+                continue;
+            double s = 0;
+            for(int i = k; i < m; i++)
+                s += qr[i * n + k] * y[i];
+            s = -s / qr[k * n + k];
+            for(int i = k; i < m; i++)
+                y[i] += s * qr[i * n + k];
+        }
+        int rank = rank();
+        if(rank < n && !pivoting)
+            throw new ArithmeticException("The matrix is rank deficient");
+        double[] z = new double[n];
+        for(int k = rank - 1; k >= 0; k--) {
+            double sum = y[k];
+            for(int j = k + 1; j < rank; j++)
+                sum -= qr[k * n + j] * z[j];
+            z[k] = sum / rDiagonal[k];
+        }
+        double[] x = new double[n];
+        for(int j = 0; j < n; j++)
+            x[permutation[j]] = z[j];
+        return x;
+    }
+
+    /**
+     * Calculates the numerical rank, the number of diagonal entries of R that are not negligible compared to the
+     * largest one. This is only reliable for a factorization with column pivoting.
+     * @return the rank
+     */
+    public int rank() {
+        double max = 0;
+        for(double d: rDiagonal)
+            max = Math.max(max, Math.abs(d));
+        double tolerance = Math.max(m, n) * max * RELATIVE_TOLERANCE;
+        int rank = 0;
+        for(double d: rDiagonal)
+            if(Math.abs(d) > tolerance)
+                rank++;
+        return rank;
+    }
+
+    /**
+     * Checks if the columns of the matrix are linearly independent
+     * @return whether the rank equals the number of columns
+     */
+    public boolean isFullRank() {
+        return rank() == n;
+    }
+
+    /**
+     * Gets the m by n factor Q with orthonormal columns
+     * @return Q
+     */
+    public Matrix getQ() {
+        double[] q = new double[m * n];
+        for(int k = n - 1; k >= 0; k--) {
+            q[k * n + k] = 1;
+            for(int j = k; j < n; j++) {
+                if(qr[k * n + k] == 0)
+                    continue;
+                double s = 0;
+                for(int i = k; i < m; i++)
+                    s += qr[i * n + k] * q[i * n + j];
+                s = -s / qr[k * n + k];
+                for(int i = k; i < m; i++)
+                    q[i * n + j] += s * qr[i * n + k];
+            }
+        }
+        return Matrix.fromFlatDataArray(m, n, q);
+    }
+
+    /*
+     * Accumulates the reflectors into the full m by m orthogonal factor as a row major array
+     */
+    double[] getFullQ() {
+        double[] q = new double[m * m];
+        for(int i = 0; i < m; i++)
+            q[i * m + i] = 1;
+        for(int k = n - 1; k >= 0; k--) {
+            if(qr[k * n + k] == 0)
+                continue;
+            for(int j = k; j < m; j++) {
+                double s = 0;
+                for(int i = k; i < m; i++)
+                    s += qr[i * n + k] * q[i * m + j];
+                s = -s / qr[k * n + k];
+                for(int i = k; i < m; i++)
+                    q[i * m + j] += s * qr[i * n + k];
+            }
+        }
+        return q;
+    }
+
+    /**
+     * Gets the n by n upper triangular factor R
+     * @return R
+     */
+    public Matrix getR() {
+        double[] r = new double[n * n];
+        for(int i = 0; i < n; i++) {
+            r[i * n + i] = rDiagonal[i];
+            for(int j = i + 1; j < n; j++)
+                r[i * n + j] = qr[i * n + j];
+        }
+        return Matrix.fromFlatDataArray(n, n, r);
+    }
+
+    /**
+     * Gets the column permutation, where column j of AP is column permutation[j] of A
+     * @return the permutation array
+     */
+    public int[] getPermutation() {
+        return permutation.clone();
+    }
+
+}
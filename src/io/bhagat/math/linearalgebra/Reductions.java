@@ -0,0 +1,118 @@
+package io.bhagat.math.linearalgebra;
+
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Sums whose rounding does not depend on how many threads compute them. The terms are cut into fixed blocks that are
+ * each summed left to right, and the block sums are added pairwise in a balanced tree over the block indicies. The
+ * tree only depends on the number of terms, so the serial and parallel sums add the same numbers in the same order and
+ * are bit for bit identical, while the pairwise tree also keeps the rounding error growing with the log of the length.
+ */
+public class Reductions {
+
+    /**
+     * The number of terms summed left to right at the leaves of the tree
+     */
+    public static final int BLOCK_SIZE = 1024;
+
+    /**
+     * The number of terms from which sums are split across the common fork join pool until the {@link Dispatcher} has
+     * measured the crossover on this machine
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private static final int TASK_BLOCKS = 16;
+
+    private Reductions() {}
+
+    /**
+     * Sums terms with a fixed blocked pairwise tree, in parallel when the {@link Dispatcher} picks it for the length
+     * @param term the function that gives the term at an index
+     * @param length the number of terms
+     * @return the sum
+     */
+    public static double sum(IntToDoubleFunction term, int length) {
+        return sum(term, length, Dispatcher.get().isParallel(Dispatcher.Operation.REDUCTION, length));
+    }
+
+    /**
+     * Sums terms with a fixed blocked pairwise tree
+     * @param term the function that gives the term at an index, which must be safe to call from several threads if
+     *             parallel is true
+     * @param length the number of terms
+     * @param parallel whether to split the tree across the common fork join pool, which does not change the result
+     * @return the sum
+     */
+    public static double sum(IntToDoubleFunction term, int length, boolean parallel) {
+        if(length == 0)
+            return 0;
+        int blocks = (length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        if(parallel)
+            return new PairwiseTask(term, length, 0, blocks).invoke();
+        return pairwise(term, length, 0, blocks);
+    }
+
+    /**
+     * Sums an array with a fixed blocked pairwise tree
+     * @param values the array
+     * @return the sum
+     */
+    public static double sum(double[] values) {
+        return sum(i -> values[i], values.length);
+    }
+
+    /*
+     * Sums the blocks in [from, to) by splitting the range of blocks in half
+     */
+    private static double pairwise(IntToDoubleFunction term, int length, int from, int to) {
+        if(to - from == 1)
+            return block(term, length, from);
+        int mid = (from + to) >>> 1;
+        return pairwise(term, length, from, mid) + pairwise(term, length, mid, to);
+    }
+
+    /*
+     * Sums one block left to right
+     */
+    private static double block(IntToDoubleFunction term, int length, int index) {
+        int end = Math.min(length, (index + 1) * BLOCK_SIZE);
+        double sum = 0;
+        for(int i = index * BLOCK_SIZE; i < end; i++)
+            sum += term.applyAsDouble(i);
+        return sum;
+    }
+
+    /*
+     * The parallel form of the pairwise sum, which splits at the same points so it adds in the same order
+     */
+    private static class PairwiseTask extends RecursiveTask<Double> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IntToDoubleFunction term;
+        private final int length;
+        private final int from;
+        private final int to;
+
+        private PairwiseTask(IntToDoubleFunction term, int length, int from, int to) {
+            this.term = term;
+            this.length = length;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Double compute() {
+            if(to - from <= TASK_BLOCKS)
+                return pairwise(term, length, from, to);
+            int mid = (from + to) >>> 1;
+            PairwiseTask left = new PairwiseTask(term, length, from, mid);
+            left.fork();
+            double right = new PairwiseTask(term, length, mid, to).compute();
+            return left.join() + right;
+        }
+
+    }
+
+}
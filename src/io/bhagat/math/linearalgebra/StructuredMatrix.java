@@ -0,0 +1,173 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+/**
+ * A base class for square matricies that only store the entries allowed by their structure
+ */
+public abstract class StructuredMatrix implements LinearOperator {
+
+    private final int size;
+
+    /**
+     * Constructs a structured matrix with a number of rows and columns
+     * @param size the number of rows and columns
+     */
+    protected StructuredMatrix(int size) {
+        if(size <= 0)
+            throw new InvalidShapeException(size + "x" + size);
+        this.size = size;
+    }
+
+    /**
+     * Gets the element at a row and column, which is 0 outside of the structure
+     * @param r the row
+     * @param c the column
+     * @return the element
+     */
+    public abstract double get(int r, int c);
+
+    /**
+     * Sets the element at a row and column
+     * @param value the new value
+     * @param r the row
+     * @param c the column
+     * @throws IndexOutOfBoundsException if the position is outside of the structure
+     */
+    public abstract void set(double value, int r, int c);
+
+    /**
+     * Multiplies this matrix with a vector
+     * @param v the vector
+     * @return the resultant vector
+     */
+    public abstract Vector multiply(Vector v);
+
+    /**
+     * Computes out = A in
+     * @param in the input vector
+     * @param out the vector that receives the output
+     */
+    @Override
+    public void apply(Vector in, Vector out) {
+        LinearOperators.checkLengths(in, out, size, size);
+        Vector result = multiply(in);
+        for(int i = 0; i < size; i++)
+            out.set(result.get(i), i);
+    }
+
+    /**
+     * Computes out = A<sup>T</sup> in from the entries of this matrix, which reads every entry through get, so
+     * subclasses override it to only visit their structure
+     * @param in the input vector
+     * @param out the vector that receives the output
+     */
+    @Override
+    public void applyTranspose(Vector in, Vector out) {
+        LinearOperators.checkLengths(in, out, size, size);
+        double[] sums = new double[size];
+        for(int i = 0; i < size; i++) {
+            double x = in.get(i);
+            for(int j = 0; j < size; j++)
+                sums[j] += get(i, j) * x;
+        }
+        for(int j = 0; j < size; j++)
+            out.set(sums[j], j);
+    }
+
+    /**
+     * Solves the system of equations Ax = b where A is this matrix
+     * @param b the right hand side
+     * @return the solution x
+     */
+    public abstract Vector solve(Vector b);
+
+    /**
+     * Multiplies this matrix with a dense matrix, one column at a time
+     * @param m the dense matrix
+     * @return the resultant matrix
+     */
+    public Matrix multiply(Matrix m) {
+        if(m.getRows() != size)
+            throw new InvalidShapeException(toString(), m.getRows() + "x" + m.getCols());
+        Vector[] cols = m.getColVectors();
+        for(int j = 0; j < cols.length; j++)
+            cols[j] = multiply(cols[j]);
+        return new Matrix(false, cols);
+    }
+
+    /**
+     * Converts this matrix into a dense matrix
+     * @return the dense matrix
+     */
+    public Matrix toMatrix() {
+        Matrix m = new Matrix(size, size);
+        for(int i = 0; i < size; i++)
+            for(int j = 0; j < size; j++)
+                m.set(get(i, j), i, j);
+        return m;
+    }
+
+    /**
+     * Gets the number of rows in the matrix
+     * @return the number of rows
+     */
+    public int getRows() {
+        return size;
+    }
+
+    /**
+     * Gets the number of columns in the matrix
+     * @return the number of columns
+     */
+    public int getCols() {
+        return size;
+    }
+
+    /**
+     * A string representation of this object, which only names the type and the shape so that it does not expand the
+     * matrix. Use {@link #toMatrix()} to print the entries.
+     * @return the string
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " " + size + "x" + size;
+    }
+
+    /*
+     * Checks that a vector can be multiplied with or solved against this matrix
+     * @param v the vector
+     */
+    void assertLength(Vector v) {
+        if(v.getLength() != size)
+            throw new InvalidShapeException(toString(), "vector of length " + v.getLength());
+    }
+
+    /*
+     * Checks that a dense matrix can be converted into a structured matrix
+     * @param m the dense matrix
+     */
+    static void assertSquare(Matrix m) {
+        if(!m.isSquare())
+            throw new InvalidShapeException(m.getRows() + "x" + m.getCols());
+    }
+
+    /*
+     * Checks that a position is inside of the matrix, for the storage layouts where a position outside of it would
+     * alias a stored entry
+     */
+    void checkPosition(int r, int c) {
+        if(r < 0 || r >= size || c < 0 || c >= size)
+            throw new IndexOutOfBoundsException("Position " + r + ", " + c + " is out of bounds for "
+                    + size + "x" + size);
+    }
+
+    /*
+     * Creates the exception thrown when a position outside of the structure is set
+     */
+    IndexOutOfBoundsException outsideStructure(int r, int c) {
+        return new IndexOutOfBoundsException("Position " + r + ", " + c + " is outside of the structure of this "
+                + getClass().getSimpleName());
+    }
+
+}
@@ -0,0 +1,81 @@
+package io.bhagat.math.linearalgebra;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The eigendecomposition of a symmetric matrix, A = VDV<sup>T</sup>, found with the cyclic Jacobi method on the packed
+ * lower triangle. The eigenvalues are sorted in decreasing order, the eigenvectors are orthonormal and D is kept as a
+ * {@link DiagonalMatrix}, so no dense n by n matrix is made besides V.
+ */
+public class SymmetricEigendecomposition {
+
+    private final int n;
+    private final double[] values;
+    private final double[] vectors;
+
+    /**
+     * Diagonalizes a symmetric matrix
+     * @param a the matrix
+     */
+    public SymmetricEigendecomposition(SymmetricMatrix a) {
+        this(a, SymmetricMatrix.JACOBI_SWEEPS);
+    }
+
+    /*
+     * Diagonalizes a symmetric matrix with at most a number of Jacobi sweeps
+     */
+    SymmetricEigendecomposition(SymmetricMatrix a, int sweeps) {
+        this.n = a.getRows();
+        double[] v = new double[n * n];
+        double[] unsorted = SymmetricMatrix.jacobi(a.getPackedArray(), n, v, sweeps);
+        Integer[] order = new Integer[n];
+        for(int i = 0; i < n; i++)
+            order[i] = i;
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> unsorted[i]).reversed());
+        this.values = new double[n];
+        this.vectors = new double[n * n];
+        for(int k = 0; k < n; k++) {
+            values[k] = unsorted[order[k]];
+            for(int i = 0; i < n; i++)
+                vectors[i * n + k] = v[i * n + order[k]];
+        }
+    }
+
+    /**
+     * Gets the eigenvalues in decreasing order
+     * @return the eigenvalues
+     */
+    public double[] getEigenvalues() {
+        return values.clone();
+    }
+
+    /**
+     * Gets the eigenvector of the eigenvalue at an index
+     * @param k the index of the eigenvalue
+     * @return the unit eigenvector
+     */
+    public Vector getEigenvector(int k) {
+        double[] column = new double[n];
+        for(int i = 0; i < n; i++)
+            column[i] = vectors[i * n + k];
+        return new Vector(column);
+    }
+
+    /**
+     * Gets the orthogonal matrix V with the eigenvectors as columns
+     * @return V
+     */
+    public Matrix getV() {
+        return Matrix.fromFlatDataArray(n, n, vectors);
+    }
+
+    /**
+     * Gets the diagonal matrix D of the eigenvalues
+     * @return D
+     */
+    public DiagonalMatrix getD() {
+        return new DiagonalMatrix(values);
+    }
+
+}
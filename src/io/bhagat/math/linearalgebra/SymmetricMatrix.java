@@ -0,0 +1,319 @@
+package io.bhagat.math.linearalgebra;
+
+import java.util.Arrays;
+
+/**
+ * A symmetric matrix that only stores its lower triangle, packed row by row into n * (n + 1) / 2 entries
+ */
+public class SymmetricMatrix extends StructuredMatrix {
+
+    static final int JACOBI_SWEEPS = 100;
+
+    private final double[] packed;
+
+    /**
+     * Creates a zero symmetric matrix
+     * @param size the number of rows and columns
+     */
+    public SymmetricMatrix(int size) {
+        super(size);
+        this.packed = new double[size * (size + 1) / 2];
+    }
+
+    /**
+     * Creates a symmetric matrix from the lower triangle of a dense matrix, ignoring its upper triangle
+     * @param m the dense matrix
+     * @return the symmetric matrix
+     */
+    public static SymmetricMatrix from(Matrix m) {
+        assertSquare(m);
+        SymmetricMatrix s = new SymmetricMatrix(m.getRows());
+        for(int i = 0; i < m.getRows(); i++)
+            for(int j = 0; j <= i; j++)
+                s.packed[index(i, j)] = m.get(i, j);
+        return s;
+    }
+
+    /**
+     * Computes the product of the transpose of a matrix with the matrix, only computing the lower half of the output
+     * @param a the matrix
+     * @return the symmetric matrix A<sup>T</sup>A
+     */
+    public static SymmetricMatrix transposeProduct(Matrix a) {
+        int m = a.getRows(), n = a.getCols();
+        double[] data = a.getFlatDataArray();
+        SymmetricMatrix s = new SymmetricMatrix(n);
+        for(int k = 0; k < m; k++) {
+            int row = k * n;
+            for(int i = 0; i < n; i++) {
+                double aki = data[row + i];
+                int base = index(i, 0);
+                for(int j = 0; j <= i; j++)
+                    s.packed[base + j] += aki * data[row + j];
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Computes the product of a matrix with its transpose, only computing the lower half of the output
+     * @param a the matrix
+     * @return the symmetric matrix AA<sup>T</sup>
+     */
+    public static SymmetricMatrix productTranspose(Matrix a) {
+        int m = a.getRows(), n = a.getCols();
+        double[] data = a.getFlatDataArray();
+        SymmetricMatrix s = new SymmetricMatrix(m);
+        for(int i = 0; i < m; i++) {
+            for(int j = 0; j <= i; j++) {
+                double sum = 0;
+                for(int k = 0; k < n; k++)
+                    sum += data[i * n + k] * data[j * n + k];
+                s.packed[index(i, j)] = sum;
+            }
+        }
+        return s;
+    }
+
+    @Override
+    public double get(int r, int c) {
+        checkPosition(r, c);
+        return packed[r >= c? index(r, c): index(c, r)];
+    }
+
+    /**
+     * Sets the element at a row and column along with its mirror across the diagonal
+     * @param value the new value
+     * @param r the row
+     * @param c the column
+     */
+    @Override
+    public void set(double value, int r, int c) {
+        checkPosition(r, c);
+        packed[r >= c? index(r, c): index(c, r)] = value;
+    }
+
+    /**
+     * Multiplies this matrix with a vector, reading each stored entry once for both halves of the matrix
+     * @param v the vector
+     * @return the resultant vector
+     */
+    @Override
+    public Vector multiply(Vector v) {
+        assertLength(v);
+        int n = getRows();
+        double[] x = v.getDataArray();
+        double[] y = new double[n];
+        for(int i = 0; i < n; i++) {
+            int base = index(i, 0);
+            double sum = 0;
+            for(int j = 0; j < i; j++) {
+                double a = packed[base + j];
+                sum += a * x[j];
+                y[j] += a * x[i];
+            }
+            y[i] += sum + packed[base + i] * x[i];
+        }
+        return new Vector(y);
+    }
+
+    /**
+     * Solves the system of equations Ax = b with a Cholesky factorization, so this matrix must be positive definite
+     * @param b the right hand side
+     * @return the solution x
+     * @throws ArithmeticException if the matrix is not positive definite
+     */
+    @Override
+    public Vector solve(Vector b) {
+        assertLength(b);
+        int n = getRows();
+        double[] l = cholesky();
+        double[] x = b.getDataArray();
+        for(int i = 0; i < n; i++) {
+            double sum = x[i];
+            for(int j = 0; j < i; j++)
+                sum -= l[index(i, j)] * x[j];
+            x[i] = sum / l[index(i, i)];
+        }
+        for(int i = n - 1; i >= 0; i--) {
+            double sum = x[i];
+            for(int j = i + 1; j < n; j++)
+                sum -= l[index(j, i)] * x[j];
+            x[i] = sum / l[index(i, i)];
+        }
+        return new Vector(x);
+    }
+
+    /**
+     * Computes the eigenvalues and orthonormal eigenvectors of this matrix with the cyclic Jacobi method, working on the
+     * packed lower triangle
+     * @return the eigendecomposition
+     */
+    public SymmetricEigendecomposition eigendecomposition() {
+        return new SymmetricEigendecomposition(this);
+    }
+
+    /**
+     * Computes the eigenvalues of this matrix with the cyclic Jacobi method, without accumulating the eigenvectors
+     * @return the eigenvalues in decreasing order
+     */
+    public double[] eigenvalues() {
+        return eigenvalues(JACOBI_SWEEPS);
+    }
+
+    /*
+     * Computes the eigenvalues in decreasing order with at most a number of Jacobi sweeps
+     */
+    double[] eigenvalues(int sweeps) {
+        int n = getRows();
+        double[] values = jacobi(getPackedArray(), n, null, sweeps);
+        Arrays.sort(values);
+        for(int i = 0; i < n / 2; i++) {
+            double t = values[i];
+            values[i] = values[n - 1 - i];
+            values[n - 1 - i] = t;
+        }
+        return values;
+    }
+
+    /*
+     * Gets a copy of the packed lower triangle
+     */
+    double[] getPackedArray() {
+        return packed.clone();
+    }
+
+    /*
+     * Packs the lower triangle of a full row major array
+     * @param a the n * n array
+     * @param n the number of rows and columns
+     * @return the packed lower triangle
+     */
+    static double[] pack(double[] a, int n) {
+        double[] p = new double[n * (n + 1) / 2];
+        for(int i = 0; i < n; i++)
+            System.arraycopy(a, i * n, p, index(i, 0), i + 1);
+        return p;
+    }
+
+    /*
+     * Diagonalizes a packed symmetric matrix with Jacobi rotations. Each rotation only updates rows and columns p and
+     * q, which are the same entries of the lower triangle, so it touches 2n stored entries instead of 4n.
+     * @param a the packed lower triangle, which is overwritten
+     * @param n the number of rows and columns
+     * @param v an n * n array that receives the eigenvectors as columns, or null to only compute the eigenvalues
+     * @param sweeps the maximum number of sweeps over the off diagonal entries
+     * @return the eigenvalues, in the order of the columns of v
+     */
+    static double[] jacobi(double[] a, int n, double[] v, int sweeps) {
+        if(v != null)
+            for(int i = 0; i < n * n; i++)
+                v[i] = i % (n + 1) == 0? 1: 0;
+        double norm = 0;
+        for(int i = 0; i < n; i++)
+            for(int j = 0; j <= i; j++)
+                norm += (i == j? 1: 2) * a[index(i, j)] * a[index(i, j)];
+        for(int sweep = 0; sweep < sweeps; sweep++) {
+            double off = 0;
+            for(int i = 1; i < n; i++)
+                for(int j = 0; j < i; j++)
+                    off += a[index(i, j)] * a[index(i, j)];
+            if(off <= 1e-30 * norm)
+                break;
+            for(int p = 0; p < n; p++) {
+                for(int q = p + 1; q < n; q++) {
+                    int pq = index(q, p), pp = index(p, p), qq = index(q, q);
+                    double apq = a[pq];
+                    if(apq == 0)
+                        continue;
+                    double theta = (a[qq] - a[pp]) / (2 * apq);
+                    double t = Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1));
+                    if(theta == 0)
+                        t = 1;
+                    double c = 1 / Math.sqrt(t * t + 1), s = t * c;
+                    a[pp] -= t * apq;
+                    a[qq] += t * apq;
+                    a[pq] = 0;
+                    for(int k = 0; k < n; k++) {
+                        if(k == p || k == q)
+                            continue;
+                        int kp = k > p? index(k, p): index(p, k), kq = k > q? index(k, q): index(q, k);
+                        double akp = a[kp], akq = a[kq];
+                        a[kp] = c * akp - s * akq;
+                        a[kq] = s * akp + c * akq;
+                    }
+                    if(v != null) {
+                        for(int k = 0; k < n; k++) {
+                            double vkp = v[k * n + p], vkq = v[k * n + q];
+                            v[k * n + p] = c * vkp - s * vkq;
+                            v[k * n + q] = s * vkp + c * vkq;
+                        }
+                    }
+                }
+            }
+        }
+        double[] values = new double[n];
+        for(int i = 0; i < n; i++)
+            values[i] = a[index(i, i)];
+        return values;
+    }
+
+    /*
+     * Computes the lower triangular Cholesky factor L, where A = LL^T, packed in the same layout as this matrix
+     * @return the packed factor
+     */
+    double[] cholesky() {
+        int n = getRows();
+        double[] l = packed.clone();
+        for(int j = 0; j < n; j++) {
+            int rowJ = index(j, 0);
+            double d = l[rowJ + j];
+            for(int k = 0; k < j; k++)
+                d -= l[rowJ + k] * l[rowJ + k];
+            if(d <= 0)
+                throw new ArithmeticException("The matrix is not positive definite");
+            d = Math.sqrt(d);
+            l[rowJ + j] = d;
+            for(int i = j + 1; i < n; i++) {
+                int rowI = index(i, 0);
+                double sum = l[rowI + j];
+                for(int k = 0; k < j; k++)
+                    sum -= l[rowI + k] * l[rowJ + k];
+                l[rowI + j] = sum / d;
+            }
+        }
+        return l;
+    }
+
+    /**
+     * Computes out = A<sup>T</sup> in, which is the same as A in for a symmetric matrix
+     * @param in the input vector
+     * @param out the vector that receives the output
+     */
+    @Override
+    public void applyTranspose(Vector in, Vector out) {
+        apply(in, out);
+    }
+
+    @Override
+    public Matrix toMatrix() {
+        int n = getRows();
+        Matrix m = new Matrix(n, n);
+        for(int i = 0; i < n; i++) {
+            for(int j = 0; j <= i; j++) {
+                double value = packed[index(i, j)];
+                m.setInBackingArray(i * n + j, value);
+                m.setInBackingArray(j * n + i, value);
+            }
+        }
+        return m;
+    }
+
+    /*
+     * Gets the position of an entry of the lower triangle, where c <= r, in the packed array
+     */
+    static int index(int r, int c) {
+        return r * (r + 1) / 2 + c;
+    }
+
+}
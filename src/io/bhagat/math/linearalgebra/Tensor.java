@@ -2,12 +2,24 @@ package io.bhagat.math.linearalgebra;
 
 import io.bhagat.math.functions.Function;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
 
 /**
  * A class for multi dimensional tensors tensors as arrays
@@ -19,7 +31,7 @@ public class Tensor<T> implements Iterable<T>, Serializable {
     private final int rank;
     private final int[] dimensions;
     private final int[] multipliers;
-    private Object[] backingArray;
+    private Storage storage;
     private int length;
 
     /**
@@ -34,7 +46,7 @@ public class Tensor<T> implements Iterable<T>, Serializable {
         for(int d: dimensions)
             length *= d;
         assert length != 0;
-        backingArray = new Object[length];
+        storage = new Storage(new Object[length]);
     }
 
     /**
@@ -44,6 +56,7 @@ public class Tensor<T> implements Iterable<T>, Serializable {
     public Tensor(Object[] obj) {
         this(getDimensions(obj));
         List<T> list = recTraverser(obj, new ArrayList<>());
+        Object[] backingArray = storage.array;
         for(int i = 0; i < backingArray.length; i++) {
             backingArray[i] = list.get(i);
         }
@@ -56,7 +69,21 @@ public class Tensor<T> implements Iterable<T>, Serializable {
      */
     protected Tensor(Object[] backingArray, int[] dimensions) {
         this(dimensions);
-        this.backingArray = backingArray;
+        this.storage = new Storage(backingArray);
+    }
+
+    /*
+     * Constructor for a view of another tensor with new dimensions, which shares its storage so that writes through
+     * either one are seen by both
+     * @param source the tensor to view
+     * @param dimensions the dimensions of the view, with the same number of elements
+     */
+    protected Tensor(Tensor<?> source, int[] dimensions) {
+        this.dimensions = dimensions;
+        rank = dimensions.length;
+        multipliers = constructMultipliers(dimensions);
+        length = source.length;
+        storage = source.storage;
     }
 
     /**
@@ -65,7 +92,7 @@ public class Tensor<T> implements Iterable<T>, Serializable {
      * @return the element
      */
     public T get(int... pos) {
-        return (T) backingArray[toBackingArrayPos(pos)];
+        return (T) storage.array[toBackingArrayPos(pos)];
     }
 
     /**
@@ -80,7 +107,7 @@ public class Tensor<T> implements Iterable<T>, Serializable {
         for(int d: newDim)
             length *= d;
         Object[] newBackingArray = new Object[length];
-        System.arraycopy(backingArray, toBackingArrayPos(pos), newBackingArray, 0, newBackingArray.length);
+        System.arraycopy(storage.array, toBackingArrayPos(pos), newBackingArray, 0, newBackingArray.length);
         return new Tensor<>(newBackingArray, newDim);
     }
 
@@ -92,6 +119,7 @@ public class Tensor<T> implements Iterable<T>, Serializable {
      */
     public T set(T obj, int... pos) {
         int idx = toBackingArrayPos(pos);
+        Object[] backingArray = writableArray();
         T temp = (T) backingArray[idx];
         backingArray[idx] = obj;
         return temp;
@@ -103,8 +131,10 @@ public class Tensor<T> implements Iterable<T>, Serializable {
      * @return a reference to this tensor
      */
     public Tensor<T> map(Function<T, T> function) {
+        Object[] backingArray = writableArray();
         for(int i = 0; i < backingArray.length; i++)
             backingArray[i] = function.f((T) backingArray[i]);
+        finishWrite();
         return this;
     }
 
@@ -113,22 +143,54 @@ public class Tensor<T> implements Iterable<T>, Serializable {
      * @return the array of all the elements
      */
     public Tensor<T> flatten() {
-        Object[] backingArrayCopy = new Object[backingArray.length];
-        System.arraycopy(backingArray, 0, backingArrayCopy, 0, backingArrayCopy.length);
-        return new Tensor<>(backingArrayCopy, new int[] { length });
+        return new Tensor<>(storage.array.clone(), new int[] { length });
     }
 
     /**
-     * Creates a clone of this tensor with the same data and dimensions with new memory allocation
+     * Creates a clone of this tensor with the same data and dimensions. The clone shares the elements with this tensor
+     * until either of them is first written to, which copies them, so a clone that is only read costs O(1).
      * @return the cloned tensor
      */
     @Override
     public Tensor<T> clone() {
-        Object[] backingArrayCopy = new Object[backingArray.length];
-        int[] dimensionsCopy = new int[dimensions.length];
-        System.arraycopy(backingArray, 0, backingArrayCopy, 0, backingArrayCopy.length);
-        System.arraycopy(dimensions, 0, dimensionsCopy, 0, dimensionsCopy.length);
-        return new Tensor<>(backingArrayCopy, dimensionsCopy);
+        Tensor<T> clone = new Tensor<>(this, dimensions.clone());
+        storage.shared = true;
+        clone.storage = new Storage(storage.array);
+        clone.storage.shared = true;
+        return clone;
+    }
+
+    /**
+     * Writes this tensor to a stream in the binary tensor file format, the elements must be numbers or null
+     * @param out the stream to write to, it is not closed
+     * @throws IOException if the stream cannot be written to
+     * @see TensorFile
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        writeTo(out, false);
+    }
+
+    /**
+     * Writes this tensor to a stream in the binary tensor file format, the elements must be numbers or null
+     * @param out the stream to write to, it is not closed
+     * @param compress whether to deflate the element data, which pays off for sparse or repetitive data
+     * @throws IOException if the stream cannot be written to
+     * @see TensorFile
+     */
+    public void writeTo(OutputStream out, boolean compress) throws IOException {
+        TensorFile.write(out, storage.array, dimensions, compress);
+    }
+
+    /**
+     * Writes this tensor to a channel in the binary tensor file format, the elements must be numbers or null
+     * @param channel the channel to write to, it is not closed
+     * @param compress whether to deflate the element data, which pays off for sparse or repetitive data
+     * @throws IOException if the channel cannot be written to
+     */
+    public void writeTo(WritableByteChannel channel, boolean compress) throws IOException {
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+        writeTo(out, compress);
+        out.flush();
     }
 
     /**
@@ -136,6 +198,7 @@ public class Tensor<T> implements Iterable<T>, Serializable {
      * @return the iterator
      */
     public Iterator<T> iterator() {
+        Object[] backingArray = storage.array;
         return new Iterator<>() {
 
             int idx = 0;
@@ -152,6 +215,25 @@ public class Tensor<T> implements Iterable<T>, Serializable {
         };
     }
 
+    /**
+     * Creates a sized spliterator over the elements so that boxed streams of the tensor can be split evenly
+     * @return the spliterator
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(storage.array, 0, length, Spliterator.ORDERED);
+    }
+
+    /**
+     * Creates a primitive stream over the elements in row major order without boxing them, null elements are read
+     * as zero. The stream is sized and splits evenly, so it can be made parallel.
+     * @return the stream of elements
+     * @throws ClassCastException if the elements are not numbers
+     */
+    public DoubleStream doubleStream() {
+        return StreamSupport.doubleStream(new TensorSpliterator(storage.array, 0, length), false);
+    }
+
     /**
      * Checks if a tensor is equivalent to this one
      * @param o the second tensor
@@ -166,7 +248,7 @@ public class Tensor<T> implements Iterable<T>, Serializable {
                 length == tensor.length &&
                 Arrays.equals(dimensions, tensor.dimensions) &&
                 Arrays.equals(multipliers, tensor.multipliers) &&
-                Arrays.equals(backingArray, tensor.backingArray);
+                Arrays.equals(storage.array, tensor.storage.array);
     }
 
     /**
@@ -178,7 +260,7 @@ public class Tensor<T> implements Iterable<T>, Serializable {
         int result = Objects.hash(rank, length);
         result = 31 * result + Arrays.hashCode(dimensions);
         result = 31 * result + Arrays.hashCode(multipliers);
-        result = 31 * result + Arrays.hashCode(backingArray);
+        result = 31 * result + Arrays.hashCode(storage.array);
         return result;
     }
 
@@ -224,11 +306,54 @@ public class Tensor<T> implements Iterable<T>, Serializable {
     }
 
     /**
-     * Gets the backing array of the tensor
+     * Gets the backing array of the tensor to write to, copying it first if it is still shared with a clone. The
+     * modification count is bumped when the array is handed out, so a caller that runs other code while it writes,
+     * such as a function passed in by the user, must call {@link #finishWrite()} once it is done, or a result computed
+     * from the half written elements would be reused.
      * @return the backing array
      */
     Object[] getBackingArray() {
-        return backingArray;
+        return writableArray();
+    }
+
+    /*
+     * Bumps the modification count again at the end of a write through the backing array, so that nothing computed
+     * while the write was in progress is reused
+     */
+    void finishWrite() {
+        storage.modCount++;
+    }
+
+    /*
+     * Gets the backing array of the tensor only to read from, which never copies it
+     */
+    Object[] readBackingArray() {
+        return storage.array;
+    }
+
+    /**
+     * Gets a stamp that changes every time the elements of the tensor may have been written, through this tensor or
+     * a view of it, so that results computed from the elements can be reused while the stamp stays the same. Handing
+     * out the backing array to write to counts as a write, and so does the end of every write that calls back into
+     * user code, such as {@link #map(Function)}.
+     * @return the modification count
+     */
+    public long getModificationCount() {
+        return storage.modCount;
+    }
+
+    /*
+     * The single point every write goes through, which bumps the modification count and gives the storage its own
+     * copy of the elements the first time it is written to after a clone
+     */
+    private Object[] writableArray() {
+        Storage storage = this.storage;
+        storage.modCount++;
+        if(storage.shared) {
+            storage.array = storage.array.clone();
+            storage.shared = false;
+        }
+        return storage.array;
     }
 
     /**
@@ -238,7 +363,30 @@ public class Tensor<T> implements Iterable<T>, Serializable {
      * @return the value at the specified index
      */
     T getFromBackingArray(int i, T defaultValue) {
-        return backingArray[i] == null? defaultValue: (T) backingArray[i];
+        Object o = storage.array[i];
+        return o == null? defaultValue: (T) o;
+    }
+
+    /*
+     * Replaces every element of the backing array with a function of its index, where nulls are read as zero
+     * @param function the function from the backing array index and the current value to the new value
+     * @param parallel whether to split the work across the common fork join pool
+     */
+    void setAllInBackingArray(IntToDoubleFunction function, boolean parallel) {
+        Object[] backingArray = writableArray();
+        if(parallel)
+            Arrays.parallelSetAll(backingArray, function::applyAsDouble);
+        else
+            Arrays.setAll(backingArray, function::applyAsDouble);
+        finishWrite();
+    }
+
+    /*
+     * Reads an element of the backing array as a primitive, where nulls are read as zero
+     */
+    double doubleAt(int i) {
+        Object o = storage.array[i];
+        return o == null? 0: ((Number) o).doubleValue();
     }
 
     /**
@@ -247,7 +395,7 @@ public class Tensor<T> implements Iterable<T>, Serializable {
      * @param value the value to put in the index
      */
     void setInBackingArray(int i, T value) {
-        backingArray[i] = value;
+        writableArray()[i] = value;
     }
 
     /**
@@ -319,6 +467,26 @@ public class Tensor<T> implements Iterable<T>, Serializable {
         return dim.stream().mapToInt(i -> i).toArray();
     }
 
+    /**
+     * Reads a tensor written by writeTo from a stream
+     * @param in the stream to read from, exactly the bytes of one tensor are consumed and the stream is not closed
+     * @return the tensor
+     * @throws IOException if the stream cannot be read or does not hold a tensor
+     */
+    public static Tensor<Double> readFrom(InputStream in) throws IOException {
+        return TensorFile.read(in);
+    }
+
+    /**
+     * Reads a tensor written by writeTo from a channel
+     * @param channel the channel to read from, exactly the bytes of one tensor are consumed and it is not closed
+     * @return the tensor
+     * @throws IOException if the channel cannot be read or does not hold a tensor
+     */
+    public static Tensor<Double> readFrom(ReadableByteChannel channel) throws IOException {
+        return TensorFile.read(Channels.newInputStream(channel));
+    }
+
     /**
      * Maps a function onto a tensor
      * @param tensor the tensor
@@ -340,4 +508,23 @@ public class Tensor<T> implements Iterable<T>, Serializable {
         return Arrays.equals(a.getDimensions(), b.getDimensions());
     }
 
+    /*
+     * The elements of a tensor along with whether they are shared with a clone and how many times they were written.
+     * Views of a tensor share its storage object, while clones get their own storage object that points at the same
+     * array until one of them writes.
+     */
+    private static class Storage implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private Object[] array;
+        private boolean shared;
+        private long modCount;
+
+        private Storage(Object[] array) {
+            this.array = array;
+        }
+
+    }
+
 }
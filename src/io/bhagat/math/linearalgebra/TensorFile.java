@@ -0,0 +1,375 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Reads and writes the binary tensor file format and maps such files into memory.
+ * <p>
+ * A file starts with a header made of the magic bytes {@code JMLT}, a version byte, a dtype byte, a layout byte,
+ * a flags byte, the rank as a 32 bit integer and then each dimension as a 32 bit integer. The header is padded with
+ * zeros to a multiple of 8 bytes and is followed by the raw elements. Every number is little endian.
+ * <p>
+ * When the compressed flag is set the elements are instead stored as a 64 bit byte count followed by that many
+ * bytes of deflated element data. Compressed data can be streamed but not mapped.
+ * <p>
+ * A header is checked before anything is allocated for the elements, so a corrupt or truncated file is reported as
+ * an IOException rather than an oversized allocation or a runtime exception.
+ */
+public class TensorFile {
+
+    static final byte[] MAGIC = { 'J', 'M', 'L', 'T' };
+    static final byte VERSION = 1;
+    static final byte DTYPE_FLOAT64 = 1;
+    static final byte LAYOUT_ROW_MAJOR = 0;
+    static final byte FLAG_COMPRESSED = 1;
+
+    private static final int STREAM_BUFFER_DOUBLES = 4096;
+    private static final int MAX_DEFLATE_RATIO = 1032;
+
+    private TensorFile() {}
+
+    /**
+     * Writes a tensor of doubles to a file, replacing the file if it exists
+     * @param path the path of the file
+     * @param tensor the tensor to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, Tensor<Double> tensor) throws IOException {
+        try(DirectTensor mapped = create(path, tensor.getDimensions())) {
+            mapped.copyFrom(tensor);
+        }
+    }
+
+    /**
+     * Creates a zero filled tensor file and maps it into memory for reading and writing
+     * @param path the path of the file
+     * @param dimensions the dimensions of the tensor
+     * @return the mapped tensor, a DirectMatrix if the tensor has a rank of 2
+     * @throws IOException if the file cannot be created
+     */
+    public static DirectTensor create(Path path, int... dimensions) throws IOException {
+        Header header = new Header(DTYPE_FLOAT64, LAYOUT_ROW_MAJOR, (byte) 0, dimensions);
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer headerBuffer = header.toBuffer();
+            while(headerBuffer.hasRemaining())
+                channel.write(headerBuffer);
+            return map(channel, header, true);
+        }
+    }
+
+    /**
+     * Maps a tensor file into memory without loading it onto the java heap
+     * @param path the path of the file
+     * @param writable true to map the file for reading and writing, false to map it read only
+     * @return the mapped tensor, a DirectMatrix if the tensor has a rank of 2
+     * @throws IOException if the file cannot be read or is not a tensor file
+     */
+    public static DirectTensor map(Path path, boolean writable) throws IOException {
+        try(FileChannel channel = writable?
+                FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE):
+                FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            if(header.flags != 0)
+                throw new IOException(path + " holds compressed data and cannot be mapped");
+            if(channel.size() - header.getDataOffset() < DirectTensor.lengthOf(header.dimensions) * Double.BYTES)
+                throw new IOException(path + " is truncated");
+            return map(channel, header, writable);
+        }
+    }
+
+    /**
+     * Reads the header at the start of a tensor file
+     * @param path the path of the file
+     * @return the header
+     * @throws IOException if the file cannot be read or is not a tensor file
+     */
+    public static Header readHeader(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readHeader(channel);
+        }
+    }
+
+    private static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer fixed = ByteBuffer.allocate(Header.FIXED_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, fixed, 0);
+        int rank = Header.checkFixed(fixed);
+        ByteBuffer dims = ByteBuffer.allocate(rank * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, dims, Header.FIXED_SIZE);
+        return Header.fromBuffers(fixed, dims, rank);
+    }
+
+    /*
+     * Writes the elements of a backing array in the tensor file format, null elements are written as 0
+     * @param out the stream to write to, it is not closed
+     * @param backingArray the elements, which must be numbers or null
+     * @param dimensions the dimensions of the tensor
+     * @param compress whether to deflate the element data
+     */
+    static void write(OutputStream out, Object[] backingArray, int[] dimensions, boolean compress) throws IOException {
+        Header header = new Header(DTYPE_FLOAT64, LAYOUT_ROW_MAJOR, compress? FLAG_COMPRESSED: 0, dimensions);
+        out.write(header.toBuffer().array());
+        if(!compress) {
+            writeElements(out, backingArray);
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try(DeflaterOutputStream deflated = new DeflaterOutputStream(bytes, deflater)) {
+            writeElements(deflated, backingArray);
+        } finally {
+            deflater.end();
+        }
+        ByteBuffer size = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(0, bytes.size());
+        out.write(size.array());
+        bytes.writeTo(out);
+    }
+
+    /*
+     * Reads a tensor written in the tensor file format, consuming exactly the bytes of that tensor
+     * @param in the stream to read from, it is not closed
+     * @return the tensor
+     */
+    static Tensor<Double> read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        ByteBuffer fixed = ByteBuffer.allocate(Header.FIXED_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        data.readFully(fixed.array());
+        int rank = Header.checkFixed(fixed);
+        ByteBuffer dims = ByteBuffer.allocate(rank * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        data.readFully(dims.array());
+        Header header = Header.fromBuffers(fixed, dims, rank);
+        data.skipNBytes(header.getDataOffset() - Header.FIXED_SIZE - rank * Integer.BYTES);
+
+        long length = DirectTensor.lengthOf(header.dimensions);
+        if(length > Integer.MAX_VALUE)
+            throw new IOException("Tensor of dimensions " + Arrays.toString(header.dimensions) + " does not fit on the heap");
+        if((header.flags & FLAG_COMPRESSED) == 0)
+            return new Tensor<>(readElements(data, (int) length), header.dimensions);
+
+        ByteBuffer size = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        data.readFully(size.array());
+        long compressedSize = size.getLong(0);
+        if(compressedSize < 0 || compressedSize > Integer.MAX_VALUE)
+            throw new IOException("Invalid compressed tensor data size " + compressedSize);
+        if(length * Double.BYTES > Integer.MAX_VALUE)
+            throw new IOException("Compressed tensor of dimensions " + Arrays.toString(header.dimensions)
+                    + " does not fit in one array");
+        // deflate never shrinks data by more than about 1032 to 1, so a larger tensor means the header is corrupt
+        if(length * Double.BYTES > (compressedSize + 1) * MAX_DEFLATE_RATIO)
+            throw new IOException("Compressed tensor data is too short for dimensions "
+                    + Arrays.toString(header.dimensions));
+        byte[] compressed = data.readNBytes((int) compressedSize);
+        if(compressed.length != compressedSize)
+            throw new IOException("Compressed tensor data is truncated");
+        Object[] backingArray = new Object[(int) length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[(int) length * Double.BYTES];
+            int n = 0;
+            while(n < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, n, raw.length - n);
+                if(inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    break;
+                n += inflated;
+            }
+            if(n != raw.length)
+                throw new IOException("Compressed tensor data is truncated");
+            ByteBuffer buffer = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+            for(int i = 0; i < backingArray.length; i++)
+                backingArray[i] = buffer.getDouble();
+        } catch(DataFormatException e) {
+            throw new IOException("Compressed tensor data is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+        return new Tensor<>(backingArray, header.dimensions);
+    }
+
+    private static void writeElements(OutputStream out, Object[] backingArray) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(STREAM_BUFFER_DOUBLES * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for(Object o: backingArray) {
+            if(o != null && !(o instanceof Number))
+                throw new UnsupportedOperationException("Only tensors of numbers can be written");
+            buffer.putDouble(o == null? 0: ((Number) o).doubleValue());
+            if(!buffer.hasRemaining()) {
+                out.write(buffer.array());
+                buffer.clear();
+            }
+        }
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    /*
+     * Reads the raw elements of a tensor, growing the array as the data arrives so that a header that claims more
+     * elements than the stream holds fails at the end of the stream instead of allocating the claimed length
+     */
+    private static Object[] readElements(DataInputStream in, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(STREAM_BUFFER_DOUBLES * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        Object[] backingArray = new Object[Math.min(length, STREAM_BUFFER_DOUBLES)];
+        for(int i = 0; i < length; i += STREAM_BUFFER_DOUBLES) {
+            int n = Math.min(STREAM_BUFFER_DOUBLES, length - i);
+            in.readFully(buffer.array(), 0, n * Double.BYTES);
+            if(i + n > backingArray.length)
+                backingArray = Arrays.copyOf(backingArray, (int) Math.min(length, 2L * backingArray.length));
+            for(int j = 0; j < n; j++)
+                backingArray[i + j] = buffer.getDouble(j * Double.BYTES);
+        }
+        return backingArray;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Unexpected end of tensor file");
+        }
+        buffer.flip();
+    }
+
+    private static DirectTensor map(FileChannel channel, Header header, boolean writable) throws IOException {
+        long length = DirectTensor.lengthOf(header.dimensions);
+        FileChannel.MapMode mode = writable? FileChannel.MapMode.READ_WRITE: FileChannel.MapMode.READ_ONLY;
+        ByteBuffer[] chunks = new ByteBuffer[(int) ((length + DirectTensor.CHUNK_DOUBLES - 1) >>> DirectTensor.CHUNK_SHIFT)];
+        for(int i = 0; i < chunks.length; i++) {
+            long start = (long) i * DirectTensor.CHUNK_BYTES;
+            long size = Math.min(DirectTensor.CHUNK_BYTES, length * Double.BYTES - start);
+            chunks[i] = channel.map(mode, header.getDataOffset() + start, size);
+        }
+        if(header.dimensions.length == 2)
+            return new DirectMatrix(chunks, header.dimensions[0], header.dimensions[1], !writable);
+        return new DirectTensor(chunks, header.dimensions, !writable);
+    }
+
+    /**
+     * The header of a tensor file
+     */
+    public static class Header {
+
+        static final int FIXED_SIZE = 12;
+
+        private final byte dtype;
+        private final byte layout;
+        private final byte flags;
+        private final int[] dimensions;
+
+        Header(byte dtype, byte layout, byte flags, int[] dimensions) {
+            for(int d: dimensions)
+                if(d < 0)
+                    throw new InvalidShapeException(Arrays.toString(dimensions));
+            this.dtype = dtype;
+            this.layout = layout;
+            this.flags = flags;
+            this.dimensions = dimensions.clone();
+        }
+
+        /**
+         * Gets the dimensions of the stored tensor
+         * @return the dimensions array
+         */
+        public int[] getDimensions() {
+            return dimensions;
+        }
+
+        /**
+         * Gets the code of the element type, 1 for 64 bit floating point numbers
+         * @return the dtype code
+         */
+        public byte getDtype() {
+            return dtype;
+        }
+
+        /**
+         * Gets the code of the element layout, 0 for row major
+         * @return the layout code
+         */
+        public byte getLayout() {
+            return layout;
+        }
+
+        /**
+         * Gets the flags describing how the data is encoded
+         * @return the flags
+         */
+        public byte getFlags() {
+            return flags;
+        }
+
+        /**
+         * Gets the offset in bytes of the first element from the start of the file
+         * @return the data offset
+         */
+        public int getDataOffset() {
+            int size = FIXED_SIZE + dimensions.length * Integer.BYTES;
+            return (size + 7) & ~7;
+        }
+
+        /*
+         * Encodes the header including its padding
+         * @return the buffer, ready to be written
+         */
+        ByteBuffer toBuffer() {
+            ByteBuffer buffer = ByteBuffer.allocate(getDataOffset()).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(MAGIC).put(VERSION).put(dtype).put(layout).put(flags).putInt(dimensions.length);
+            for(int d: dimensions)
+                buffer.putInt(d);
+            buffer.position(0);
+            return buffer;
+        }
+
+        /*
+         * Validates the fixed part of a header
+         * @param fixed the first FIXED_SIZE bytes
+         * @return the rank
+         */
+        static int checkFixed(ByteBuffer fixed) throws IOException {
+            for(byte b: MAGIC)
+                if(fixed.get() != b)
+                    throw new IOException("Not a tensor file");
+            if(fixed.get() != VERSION)
+                throw new IOException("Unsupported tensor file version");
+            if(fixed.get() != DTYPE_FLOAT64 || fixed.get() != LAYOUT_ROW_MAJOR)
+                throw new IOException("Unsupported tensor file dtype or layout");
+            int rank = fixed.getInt(8);
+            if(rank < 0 || rank > 255)
+                throw new IOException("Invalid tensor file rank " + rank);
+            return rank;
+        }
+
+        /*
+         * Decodes a header, checking that every dimension is non-negative and that the number of element bytes fits
+         * in a long
+         */
+        static Header fromBuffers(ByteBuffer fixed, ByteBuffer dims, int rank) throws IOException {
+            int[] dimensions = new int[rank];
+            long bytes = Double.BYTES;
+            for(int i = 0; i < rank; i++) {
+                dimensions[i] = dims.getInt();
+                if(dimensions[i] < 0)
+                    throw new IOException("Invalid tensor file dimension " + dimensions[i]);
+                if(dimensions[i] != 0 && bytes > Long.MAX_VALUE / dimensions[i])
+                    throw new IOException("Tensor file dimensions "
+                            + Arrays.toString(Arrays.copyOf(dimensions, i + 1)) + " are too large");
+                bytes *= Math.max(1, dimensions[i]);
+            }
+            return new Header(fixed.get(5), fixed.get(6), fixed.get(7), dimensions);
+        }
+
+    }
+
+}
@@ -0,0 +1,71 @@
+package io.bhagat.math.linearalgebra;
+
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+
+/*
+ * A splittable primitive view over a range of a tensor backing array. Null elements are reported as zero, the same
+ * way the numerical tensors treat them everywhere else, and the range is split in halves so parallel streams get
+ * balanced chunks.
+ */
+class TensorSpliterator implements Spliterator.OfDouble {
+
+    private final Object[] backingArray;
+    private int index;
+    private final int fence;
+
+    /*
+     * Creates a spliterator over backingArray[origin, fence)
+     */
+    TensorSpliterator(Object[] backingArray, int origin, int fence) {
+        this.backingArray = backingArray;
+        this.index = origin;
+        this.fence = fence;
+    }
+
+    @Override
+    public OfDouble trySplit() {
+        int lo = index, mid = (lo + fence) >>> 1;
+        if(lo >= mid)
+            return null;
+        index = mid;
+        return new TensorSpliterator(backingArray, lo, mid);
+    }
+
+    @Override
+    public boolean tryAdvance(DoubleConsumer action) {
+        if(index >= fence)
+            return false;
+        action.accept(valueAt(index++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(DoubleConsumer action) {
+        Object[] a = backingArray;
+        int hi = fence;
+        for(int i = index; i < hi; i++)
+            action.accept(valueAt(a, i));
+        index = hi;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED;
+    }
+
+    private double valueAt(int i) {
+        return valueAt(backingArray, i);
+    }
+
+    private static double valueAt(Object[] a, int i) {
+        Object o = a[i];
+        return o == null? 0: ((Number) o).doubleValue();
+    }
+
+}
@@ -0,0 +1,250 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A matrix stored on disk as square tiles, one tensor file per tile, so that it never has to be resident in memory.
+ * Tiles that were never written are treated as all zeros.
+ */
+public class TiledMatrix {
+
+    private static final String METADATA_FILE = "matrix.properties";
+
+    private final Path directory;
+    private final int rows;
+    private final int cols;
+    private final int tileSize;
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    private TiledMatrix(Path directory, int rows, int cols, int tileSize) {
+        this.directory = directory;
+        this.rows = rows;
+        this.cols = cols;
+        this.tileSize = tileSize;
+    }
+
+    /**
+     * Creates an empty (all zero) tiled matrix in a directory
+     * @param directory the directory to store the tiles in, it is created if needed
+     * @param rows the number of rows in the matrix
+     * @param cols the number of cols in the matrix
+     * @param tileSize the number of rows and columns in each tile
+     * @return the tiled matrix
+     * @throws IOException if the directory cannot be written
+     */
+    public static TiledMatrix create(Path directory, int rows, int cols, int tileSize) throws IOException {
+        if(rows <= 0 || cols <= 0 || tileSize <= 0 || (long) tileSize * tileSize > DirectTensor.CHUNK_DOUBLES)
+            throw new InvalidShapeException(rows + "x" + cols + " with tiles of " + tileSize);
+        Files.createDirectories(directory);
+        Properties metadata = new Properties();
+        metadata.setProperty("rows", Integer.toString(rows));
+        metadata.setProperty("cols", Integer.toString(cols));
+        metadata.setProperty("tileSize", Integer.toString(tileSize));
+        try(Writer writer = Files.newBufferedWriter(directory.resolve(METADATA_FILE))) {
+            metadata.store(writer, "JMathLib tiled matrix");
+        }
+        return new TiledMatrix(directory, rows, cols, tileSize);
+    }
+
+    /**
+     * Writes a matrix as tiles to a directory
+     * @param directory the directory to store the tiles in, it is created if needed
+     * @param m the matrix
+     * @param tileSize the number of rows and columns in each tile
+     * @return the tiled matrix
+     * @throws IOException if the directory cannot be written
+     */
+    public static TiledMatrix of(Path directory, Matrix m, int tileSize) throws IOException {
+        TiledMatrix tiled = create(directory, m.getRows(), m.getCols(), tileSize);
+        for(int ti = 0; ti < tiled.getTileRows(); ti++) {
+            for(int tj = 0; tj < tiled.getTileCols(); tj++) {
+                int h = tiled.getTileHeight(ti);
+                int w = tiled.getTileWidth(tj);
+                double[] tile = new double[h * w];
+                for(int i = 0; i < h; i++)
+                    for(int j = 0; j < w; j++)
+                        tile[i * w + j] = m.get(ti * tileSize + i, tj * tileSize + j);
+                tiled.writeTile(ti, tj, tile);
+            }
+        }
+        return tiled;
+    }
+
+    /**
+     * Opens a tiled matrix that was previously created in a directory
+     * @param directory the directory holding the tiles
+     * @return the tiled matrix
+     * @throws IOException if the directory does not hold a tiled matrix
+     */
+    public static TiledMatrix open(Path directory) throws IOException {
+        Properties metadata = new Properties();
+        try(Reader reader = Files.newBufferedReader(directory.resolve(METADATA_FILE))) {
+            metadata.load(reader);
+        }
+        try {
+            return new TiledMatrix(directory,
+                    Integer.parseInt(metadata.getProperty("rows")),
+                    Integer.parseInt(metadata.getProperty("cols")),
+                    Integer.parseInt(metadata.getProperty("tileSize")));
+        } catch(NumberFormatException e) {
+            throw new IOException("Invalid tiled matrix metadata in " + directory, e);
+        }
+    }
+
+    /**
+     * Reads a tile from disk
+     * @param ti the row index of the tile
+     * @param tj the column index of the tile
+     * @return the elements of the tile in row major order
+     * @throws IOException if the tile cannot be read
+     */
+    public double[] readTile(int ti, int tj) throws IOException {
+        double[] tile = new double[getTileHeight(ti) * getTileWidth(tj)];
+        Path path = tilePath(ti, tj);
+        if(!Files.exists(path))
+            return tile;
+        try(DirectTensor mapped = TensorFile.map(path, false)) {
+            if(mapped.getLength() != tile.length)
+                throw new IOException(path + " does not have the dimensions of tile " + ti + ", " + tj);
+            mapped.getBuffer(0).asDoubleBuffer().get(tile);
+        }
+        bytesRead.addAndGet((long) tile.length * Double.BYTES);
+        return tile;
+    }
+
+    /**
+     * Writes a tile to disk
+     * @param ti the row index of the tile
+     * @param tj the column index of the tile
+     * @param tile the elements of the tile in row major order
+     * @throws IOException if the tile cannot be written
+     */
+    public void writeTile(int ti, int tj, double[] tile) throws IOException {
+        int h = getTileHeight(ti);
+        int w = getTileWidth(tj);
+        if(tile.length != h * w)
+            throw new InvalidShapeException("tile of length " + tile.length);
+        try(DirectTensor mapped = TensorFile.create(tilePath(ti, tj), h, w)) {
+            mapped.getBuffer(0).asDoubleBuffer().put(tile);
+        }
+        bytesWritten.addAndGet((long) tile.length * Double.BYTES);
+    }
+
+    /**
+     * Loads the whole matrix onto the heap
+     * @return the matrix
+     * @throws IOException if a tile cannot be read
+     */
+    public Matrix toMatrix() throws IOException {
+        Matrix m = new Matrix(rows, cols);
+        for(int ti = 0; ti < getTileRows(); ti++) {
+            for(int tj = 0; tj < getTileCols(); tj++) {
+                double[] tile = readTile(ti, tj);
+                int w = getTileWidth(tj);
+                for(int i = 0; i < getTileHeight(ti); i++)
+                    for(int j = 0; j < w; j++)
+                        m.set(tile[i * w + j], ti * tileSize + i, tj * tileSize + j);
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Gets the number of rows of tiles
+     * @return the number of tile rows
+     */
+    public int getTileRows() {
+        return (rows + tileSize - 1) / tileSize;
+    }
+
+    /**
+     * Gets the number of columns of tiles
+     * @return the number of tile columns
+     */
+    public int getTileCols() {
+        return (cols + tileSize - 1) / tileSize;
+    }
+
+    /**
+     * Gets the number of rows in a row of tiles, which is smaller than the tile size for the last row
+     * @param ti the row index of the tile
+     * @return the number of rows in the tile
+     */
+    public int getTileHeight(int ti) {
+        return Math.min(tileSize, rows - ti * tileSize);
+    }
+
+    /**
+     * Gets the number of columns in a column of tiles, which is smaller than the tile size for the last column
+     * @param tj the column index of the tile
+     * @return the number of columns in the tile
+     */
+    public int getTileWidth(int tj) {
+        return Math.min(tileSize, cols - tj * tileSize);
+    }
+
+    /**
+     * Gets the number of rows in the matrix
+     * @return the number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of columns in the matrix
+     * @return the number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Gets the number of rows and columns in each tile
+     * @return the tile size
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Gets the directory holding the tiles
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the number of element bytes read from disk through this object
+     * @return the number of bytes read
+     */
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * Gets the number of element bytes written to disk through this object
+     * @return the number of bytes written
+     */
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    private Path tilePath(int ti, int tj) {
+        if(ti < 0 || ti >= getTileRows() || tj < 0 || tj >= getTileCols())
+            throw new IndexOutOfBoundsException("Tile " + ti + ", " + tj + " is out of bounds for "
+                    + getTileRows() + ", " + getTileCols() + " tiles");
+        return directory.resolve("tile-" + ti + "-" + tj + ".jmlt");
+    }
+
+}
@@ -0,0 +1,134 @@
+package io.bhagat.math.linearalgebra;
+
+/**
+ * A square matrix that is zero on one side of its main diagonal, stored as the other triangle packed row by row
+ */
+public class TriangularMatrix extends StructuredMatrix {
+
+    private final boolean upper;
+    private final double[] packed;
+
+    /**
+     * Creates a zero triangular matrix
+     * @param size the number of rows and columns
+     * @param upper true for an upper triangular matrix, false for a lower triangular one
+     */
+    public TriangularMatrix(int size, boolean upper) {
+        super(size);
+        this.upper = upper;
+        this.packed = new double[size * (size + 1) / 2];
+    }
+
+    /**
+     * Creates a triangular matrix from one triangle of a dense matrix, ignoring the other triangle
+     * @param m the dense matrix
+     * @param upper true to keep the upper triangle, false to keep the lower triangle
+     * @return the triangular matrix
+     */
+    public static TriangularMatrix from(Matrix m, boolean upper) {
+        assertSquare(m);
+        int n = m.getRows();
+        TriangularMatrix t = new TriangularMatrix(n, upper);
+        for(int i = 0; i < n; i++)
+            for(int j = upper? i: 0; j < (upper? n: i + 1); j++)
+                t.packed[t.index(i, j)] = m.get(i, j);
+        return t;
+    }
+
+    @Override
+    public double get(int r, int c) {
+        checkPosition(r, c);
+        return inStructure(r, c)? packed[index(r, c)]: 0;
+    }
+
+    @Override
+    public void set(double value, int r, int c) {
+        checkPosition(r, c);
+        if(!inStructure(r, c))
+            throw outsideStructure(r, c);
+        packed[index(r, c)] = value;
+    }
+
+    @Override
+    public Vector multiply(Vector v) {
+        assertLength(v);
+        int n = getRows();
+        Vector out = new Vector(n);
+        for(int i = 0; i < n; i++) {
+            double sum = 0;
+            int start = upper? i: 0, end = upper? n: i + 1, base = index(i, start);
+            for(int j = start; j < end; j++)
+                sum += packed[base + j - start] * v.get(j);
+            out.set(sum, i);
+        }
+        return out;
+    }
+
+    /**
+     * Computes out = A<sup>T</sup> in from the packed triangle, which takes O(n<sup>2</sup> / 2) time
+     * @param in the input vector
+     * @param out the vector that receives the output
+     */
+    @Override
+    public void applyTranspose(Vector in, Vector out) {
+        int n = getRows();
+        LinearOperators.checkLengths(in, out, n, n);
+        double[] sums = new double[n];
+        for(int i = 0; i < n; i++) {
+            double x = in.get(i);
+            int start = upper? i: 0, end = upper? n: i + 1, base = index(i, start);
+            for(int j = start; j < end; j++)
+                sums[j] += packed[base + j - start] * x;
+        }
+        for(int j = 0; j < n; j++)
+            out.set(sums[j], j);
+    }
+
+    /**
+     * Solves the system of equations Ax = b with forward substitution for a lower triangular matrix or back
+     * substitution for an upper triangular matrix
+     * @param b the right hand side
+     * @return the solution x
+     * @throws ArithmeticException if a diagonal entry is zero
+     */
+    @Override
+    public Vector solve(Vector b) {
+        assertLength(b);
+        int n = getRows();
+        double[] x = new double[n];
+        for(int step = 0; step < n; step++) {
+            int i = upper? n - 1 - step: step;
+            double sum = b.get(i);
+            int start = upper? i + 1: 0, end = upper? n: i;
+            for(int j = start; j < end; j++)
+                sum -= packed[index(i, j)] * x[j];
+            double pivot = packed[index(i, i)];
+            if(pivot == 0)
+                throw new ArithmeticException("Zero on the diagonal in row " + i + " of the triangular system");
+            x[i] = sum / pivot;
+        }
+        return new Vector(x);
+    }
+
+    /**
+     * Checks if this matrix is upper triangular
+     * @return true for an upper triangular matrix, false for a lower triangular one
+     */
+    public boolean isUpper() {
+        return upper;
+    }
+
+    private boolean inStructure(int r, int c) {
+        return upper? c >= r: c <= r;
+    }
+
+    /*
+     * Gets the position of an entry of the triangle in the packed array
+     */
+    private int index(int r, int c) {
+        if(upper)
+            return r * getRows() - r * (r - 1) / 2 + (c - r);
+        return r * (r + 1) / 2 + c;
+    }
+
+}
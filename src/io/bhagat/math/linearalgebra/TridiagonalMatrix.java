@@ -0,0 +1,150 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+/**
+ * A square matrix that is zero outside of its main diagonal and the diagonals directly above and below it
+ */
+public class TridiagonalMatrix extends StructuredMatrix {
+
+    private final double[] lower;
+    private final double[] diagonal;
+    private final double[] upper;
+
+    /**
+     * Creates a tridiagonal matrix from its three diagonals
+     * @param lower the n - 1 entries below the main diagonal
+     * @param diagonal the n entries on the main diagonal
+     * @param upper the n - 1 entries above the main diagonal
+     */
+    public TridiagonalMatrix(double[] lower, double[] diagonal, double[] upper) {
+        super(diagonal.length);
+        if(lower.length != diagonal.length - 1 || upper.length != diagonal.length - 1)
+            throw new InvalidShapeException("lower diagonal of length " + lower.length,
+                    "main diagonal of length " + diagonal.length, "upper diagonal of length " + upper.length);
+        this.lower = lower.clone();
+        this.diagonal = diagonal.clone();
+        this.upper = upper.clone();
+    }
+
+    /**
+     * Creates a zero tridiagonal matrix
+     * @param size the number of rows and columns
+     */
+    public TridiagonalMatrix(int size) {
+        super(size);
+        this.lower = new double[size - 1];
+        this.diagonal = new double[size];
+        this.upper = new double[size - 1];
+    }
+
+    /**
+     * Creates a tridiagonal matrix from the three central diagonals of a dense matrix
+     * @param m the dense matrix
+     * @return the tridiagonal matrix
+     */
+    public static TridiagonalMatrix from(Matrix m) {
+        assertSquare(m);
+        TridiagonalMatrix t = new TridiagonalMatrix(m.getRows());
+        for(int i = 0; i < m.getRows(); i++) {
+            t.diagonal[i] = m.get(i, i);
+            if(i > 0) {
+                t.lower[i - 1] = m.get(i, i - 1);
+                t.upper[i - 1] = m.get(i - 1, i);
+            }
+        }
+        return t;
+    }
+
+    @Override
+    public double get(int r, int c) {
+        if(r == c)
+            return diagonal[r];
+        if(r == c + 1)
+            return lower[c];
+        if(c == r + 1)
+            return upper[r];
+        return 0;
+    }
+
+    @Override
+    public void set(double value, int r, int c) {
+        if(r == c)
+            diagonal[r] = value;
+        else if(r == c + 1)
+            lower[c] = value;
+        else if(c == r + 1)
+            upper[r] = value;
+        else
+            throw outsideStructure(r, c);
+    }
+
+    @Override
+    public Vector multiply(Vector v) {
+        assertLength(v);
+        int n = diagonal.length;
+        Vector out = new Vector(n);
+        for(int i = 0; i < n; i++) {
+            double sum = diagonal[i] * v.get(i);
+            if(i > 0)
+                sum += lower[i - 1] * v.get(i - 1);
+            if(i < n - 1)
+                sum += upper[i] * v.get(i + 1);
+            out.set(sum, i);
+        }
+        return out;
+    }
+
+    /**
+     * Computes out = A<sup>T</sup> in in linear time by swapping the roles of the two off diagonals
+     * @param in the input vector
+     * @param out the vector that receives the output
+     */
+    @Override
+    public void applyTranspose(Vector in, Vector out) {
+        int n = diagonal.length;
+        LinearOperators.checkLengths(in, out, n, n);
+        double[] sums = new double[n];
+        for(int i = 0; i < n; i++) {
+            double sum = diagonal[i] * in.get(i);
+            if(i > 0)
+                sum += upper[i - 1] * in.get(i - 1);
+            if(i < n - 1)
+                sum += lower[i] * in.get(i + 1);
+            sums[i] = sum;
+        }
+        for(int i = 0; i < n; i++)
+            out.set(sums[i], i);
+    }
+
+    /**
+     * Solves the system of equations Ax = b in linear time with the Thomas algorithm. The algorithm does not pivot,
+     * so it is meant for the diagonally dominant or symmetric positive definite systems that splines and finite
+     * difference schemes produce.
+     * @param b the right hand side
+     * @return the solution x
+     * @throws ArithmeticException if a zero pivot is met
+     */
+    @Override
+    public Vector solve(Vector b) {
+        assertLength(b);
+        int n = diagonal.length;
+        double[] c = new double[n];
+        double[] d = new double[n];
+        double pivot = diagonal[0];
+        for(int i = 0; i < n; i++) {
+            if(i > 0)
+                pivot = diagonal[i] - lower[i - 1] * c[i - 1];
+            if(pivot == 0)
+                throw new ArithmeticException("Zero pivot in row " + i + " of the tridiagonal system");
+            c[i] = i < n - 1? upper[i] / pivot: 0;
+            d[i] = (b.get(i) - (i > 0? lower[i - 1] * d[i - 1]: 0)) / pivot;
+        }
+        Vector x = new Vector(n);
+        x.set(d[n - 1], n - 1);
+        for(int i = n - 2; i >= 0; i--)
+            x.set(d[i] - c[i] * x.get(i + 1), i);
+        return x;
+    }
+
+}
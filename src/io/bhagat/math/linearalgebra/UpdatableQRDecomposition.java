@@ -0,0 +1,195 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+/**
+ * A QR factorization A = QR that keeps the full square Q and the trapezoidal R so that it can be changed in place
+ * with Givens rotations. A rank one change A + uv<sup>T</sup>, appending a row or removing a row each cost O(m^2 + mn)
+ * instead of the O(mn^2) of factoring again, which suits least squares fits over a stream of observations.
+ * @see QRDecomposition
+ */
+public class UpdatableQRDecomposition {
+
+    private int m;
+    private final int n;
+    private double[] q;
+    private double[] r;
+
+    /**
+     * Factors a matrix with Householder reflections
+     * @param a the matrix with at least as many rows as columns
+     */
+    public UpdatableQRDecomposition(Matrix a) {
+        QRDecomposition qr = new QRDecomposition(a);
+        this.m = a.getRows();
+        this.n = a.getCols();
+        this.q = qr.getFullQ();
+        this.r = new double[m * n];
+        System.arraycopy(qr.getR().getFlatDataArray(), 0, r, 0, n * n);
+    }
+
+    /**
+     * Updates the factorization to that of A + uv<sup>T</sup>. The vector Q<sup>T</sup>u is rotated onto the first
+     * axis, which makes R upper Hessenberg, and a second sweep of rotations makes it triangular again.
+     * @param u the vector with one entry per row
+     * @param v the vector with one entry per column
+     */
+    public void update(Vector u, Vector v) {
+        if(u.getLength() != m || v.getLength() != n)
+            throw new InvalidShapeException(u.toString(), v.toString());
+        double[] w = new double[m];
+        for(int i = 0; i < m; i++) {
+            double ui = u.get(i);
+            if(ui == 0)
+                continue;
+            for(int j = 0; j < m; j++)
+                w[j] += q[i * m + j] * ui;
+        }
+        for(int k = m - 1; k > 0; k--) {
+            double a = w[k - 1], b = w[k];
+            if(b == 0)
+                continue;
+            double h = Math.hypot(a, b), c = a / h, s = b / h;
+            w[k - 1] = h;
+            w[k] = 0;
+            rotateRows(k - 1, k, c, s, k - 1);
+        }
+        for(int j = 0; j < n; j++)
+            r[j] += w[0] * v.get(j);
+        for(int k = 0; k < n && k + 1 < m; k++)
+            eliminate(k, k + 1, k);
+    }
+
+    /**
+     * Updates the factorization to that of A with a row appended at the bottom
+     * @param row the new row with one entry per column
+     */
+    public void appendRow(Vector row) {
+        if(row.getLength() != n)
+            throw new InvalidShapeException(row.toString());
+        int size = m + 1;
+        double[] grownQ = new double[size * size];
+        for(int i = 0; i < m; i++)
+            System.arraycopy(q, i * m, grownQ, i * size, m);
+        grownQ[size * size - 1] = 1;
+        double[] grownR = new double[size * n];
+        System.arraycopy(r, 0, grownR, 0, m * n);
+        for(int j = 0; j < n; j++)
+            grownR[m * n + j] = row.get(j);
+        q = grownQ;
+        r = grownR;
+        m = size;
+        for(int k = 0; k < n; k++)
+            eliminate(k, m - 1, k);
+    }
+
+    /**
+     * Updates the factorization to that of A with a row removed. Row i of Q is rotated onto the first axis, after
+     * which the first row of R belongs to the removed row alone and the rest of R is still triangular.
+     * @param i the index of the row to remove
+     */
+    public void removeRow(int i) {
+        if(m <= n)
+            throw new InvalidShapeException("Removing a row would leave fewer rows than columns");
+        for(int k = m - 1; k > 0; k--) {
+            double a = q[i * m + k - 1], b = q[i * m + k];
+            if(b == 0)
+                continue;
+            double h = Math.hypot(a, b);
+            rotateRows(k - 1, k, a / h, b / h, k - 1);
+        }
+        int size = m - 1;
+        double[] shrunkQ = new double[size * size];
+        for(int row = 0, target = 0; row < m; row++)
+            if(row != i)
+                System.arraycopy(q, row * m + 1, shrunkQ, target++ * size, size);
+        double[] shrunkR = new double[size * n];
+        System.arraycopy(r, n, shrunkR, 0, size * n);
+        q = shrunkQ;
+        r = shrunkR;
+        m = size;
+    }
+
+    /*
+     * Applies a rotation that zeroes r[below][column] against r[above][column]
+     */
+    private void eliminate(int above, int below, int column) {
+        double a = r[above * n + column], b = r[below * n + column];
+        if(b == 0)
+            return;
+        double h = Math.hypot(a, b);
+        rotateRows(above, below, a / h, b / h, column);
+        r[below * n + column] = 0;
+    }
+
+    /*
+     * Applies the rotation [c s; -s c] to rows p and q of R from a starting column and the matching columns of Q, so
+     * that the product QR does not change
+     */
+    private void rotateRows(int p, int o, double c, double s, int from) {
+        for(int j = Math.max(from, 0); j < n; j++) {
+            double x = r[p * n + j], y = r[o * n + j];
+            r[p * n + j] = c * x + s * y;
+            r[o * n + j] = c * y - s * x;
+        }
+        for(int i = 0; i < m; i++) {
+            double x = q[i * m + p], y = q[i * m + o];
+            q[i * m + p] = c * x + s * y;
+            q[i * m + o] = c * y - s * x;
+        }
+    }
+
+    /**
+     * Solves the least squares problem, finding the x that minimizes the norm of Ax - b
+     * @param b the right hand side with one entry per row
+     * @return the solution x with one entry per column
+     * @throws ArithmeticException if R has a zero on its diagonal
+     */
+    public Vector solve(Vector b) {
+        if(b.getLength() != m)
+            throw new InvalidShapeException(b.toString());
+        double[] x = new double[n];
+        for(int i = 0; i < m; i++) {
+            double bi = b.get(i);
+            if(bi == 0)
+                continue;
+            for(int j = 0; j < n; j++)
+                x[j] += q[i * m + j] * bi;
+        }
+        for(int k = n - 1; k >= 0; k--) {
+            double d = r[k * n + k];
+            if(d == 0)
+                throw new ArithmeticException("The matrix is rank deficient");
+            double sum = x[k];
+            for(int j = k + 1; j < n; j++)
+                sum -= r[k * n + j] * x[j];
+            x[k] = sum / d;
+        }
+        return new Vector(x);
+    }
+
+    /**
+     * Gets the current number of rows
+     * @return the number of rows
+     */
+    public int getRows() {
+        return m;
+    }
+
+    /**
+     * Gets the m by m orthogonal factor Q
+     * @return Q
+     */
+    public Matrix getQ() {
+        return Matrix.fromFlatDataArray(m, m, q.clone());
+    }
+
+    /**
+     * Gets the m by n upper trapezoidal factor R
+     * @return R
+     */
+    public Matrix getR() {
+        return Matrix.fromFlatDataArray(m, n, r.clone());
+    }
+
+}
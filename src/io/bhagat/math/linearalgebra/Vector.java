@@ -5,9 +5,10 @@ import io.bhagat.math.functions.Function;
 import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
 import org.jetbrains.annotations.NotNull;
 
-public class Vector extends Tensor<Double> implements Comparable<Vector>{
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
 
-    private VectorEntry[] vectorEntries;
+public class Vector extends Tensor<Double> implements Comparable<Vector>{
 
     /**
      * Creates a vector with a definite length
@@ -34,7 +35,7 @@ public class Vector extends Tensor<Double> implements Comparable<Vector>{
      * @param tensor the tensor
      */
     public Vector(Tensor<Double> tensor) {
-        super(tensor.getBackingArray(), new int[] { tensor.getLength() });
+        super(tensor, new int[] { tensor.getLength() });
     }
 
     /**
@@ -53,7 +54,7 @@ public class Vector extends Tensor<Double> implements Comparable<Vector>{
      * @return the row matrix
      */
     public Matrix rowMatrix() {
-        return new Matrix(new Tensor<>(getBackingArray(), new int[] { 1, getLength() }));
+        return new Matrix(new Tensor<>(this, new int[] { 1, getLength() }));
     }
 
     /**
@@ -61,7 +62,7 @@ public class Vector extends Tensor<Double> implements Comparable<Vector>{
      * @return the column matrix
      */
     public Matrix columnMatrix() {
-        return new Matrix(new Tensor<>(getBackingArray(), new int[] { getLength(), 1 }));
+        return new Matrix(new Tensor<>(this, new int[] { getLength(), 1 }));
     }
 
     /**
@@ -197,25 +198,24 @@ public class Vector extends Tensor<Double> implements Comparable<Vector>{
     }
 
     /**
-     * Calculates the squared magnitude of the vector
+     * Calculates the squared magnitude of the vector with a deterministic pairwise sum
      * @return the squared magnitude of the vector
+     * @see Reductions
      */
     public double squaredMagnitude() {
-        double sum = 0;
-        for(Double x: this)
-            sum += x * x;
-        return sum;
+        return Reductions.sum(i -> {
+            double x = doubleAt(i);
+            return x * x;
+        }, getLength());
     }
 
     /**
-     * Calculates the sum of the elements in the vector
+     * Calculates the sum of the elements in the vector with a deterministic pairwise sum
      * @return the sum of the elements in the vector
+     * @see Reductions
      */
     public double sum() {
-        double sum = 0;
-        for(Double x: this)
-            sum += x;
-        return sum;
+        return Reductions.sum(this::doubleAt, getLength());
     }
 
     /**
@@ -224,11 +224,7 @@ public class Vector extends Tensor<Double> implements Comparable<Vector>{
      * @return the vector entry object
      */
     public VectorEntry getVectorEntry(int i) {
-        if(vectorEntries == null)
-            vectorEntries = new VectorEntry[getLength()];
-        if(vectorEntries[i] == null)
-            vectorEntries[i] = new VectorEntry(i);
-        return vectorEntries[i];
+        return new VectorEntry(i);
     }
 
     /**
@@ -249,7 +245,29 @@ public class Vector extends Tensor<Double> implements Comparable<Vector>{
     public Vector mapFromEntries(Function<VectorEntry, Double> function) {
         Object[] backingArray = getBackingArray();
         for(int i = 0; i < getLength(); i++)
-            backingArray[i] = function.f(getVectorEntry(i));
+            backingArray[i] = function.f(new VectorEntry(i));
+        finishWrite();
+        return this;
+    }
+
+    /**
+     * Maps a function onto each element in the vector without boxing the input
+     * @param function the function to apply to each element
+     * @return a reference to this vector
+     */
+    public Vector mapDoubles(DoubleUnaryOperator function) {
+        return mapDoubles(function, false);
+    }
+
+    /**
+     * Maps a function onto each element in the vector without boxing the input
+     * @param function the function to apply to each element, which must be safe to call from several threads when
+     *                 parallel is true
+     * @param parallel whether to apply the function in parallel, which pays off for expensive functions
+     * @return a reference to this vector
+     */
+    public Vector mapDoubles(DoubleUnaryOperator function, boolean parallel) {
+        setAllInBackingArray(i -> function.applyAsDouble(doubleAt(i)), parallel);
         return this;
     }
 
@@ -318,22 +336,21 @@ public class Vector extends Tensor<Double> implements Comparable<Vector>{
             if(v.getLength() - 1 != vs.length)
                 throw new InvalidShapeException(v.toString());
         }
+        if(vs.length == 2)
+            return Vector3.of(vs[0]).cross(Vector3.of(vs[1])).toVector();
         return new CrossProductMatrix(vs).determinant();
     }
 
     /**
-     * Calculates the inner product of the two input vectors
+     * Calculates the inner product of the two input vectors with a deterministic pairwise sum
      * @param a the first input vector
      * @param b the second input vector
      * @return the scalar output
+     * @see Reductions
      */
     public static double inner(Vector a, Vector b) {
         assertShape(a, b);
-        double sum = 0;
-        for(int i = 0; i < a.getLength(); i++) {
-            sum += a.get(i) * b.get(i);
-        }
-        return sum;
+        return Reductions.sum(i -> a.doubleAt(i) * b.doubleAt(i), a.getLength());
     }
 
     /**
@@ -426,20 +443,48 @@ public class Vector extends Tensor<Double> implements Comparable<Vector>{
 
     /**
      * Orthogonalize the set of input vectors
-     * @param x the set of input vectors
+     * @param x the set of input vectors, which must all have the same length
      * @return the orthogonalized vectors
+     * @throws InvalidShapeException if the vectors do not all have the same length
      */
     public static Vector[] orthogonalize(Vector[] x) {
-        Vector[] v = new Vector[x.length];
-        for(int y = 0; y < v.length; y++) {
-            final int k = y;
-            Vector sum = new Vector(x[k].getLength());
-            for (int i = 0; i < k; i++) {
-                sum.add(Vector.multiply(v[i], Vector.dot(x[k], v[i]) / v[i].squaredMagnitude()));
+        if(x.length == 0)
+            return new Vector[0];
+        int n = x[0].getLength();
+        for(Vector xk: x)
+            if(xk.getLength() != n)
+                throw new InvalidShapeException("vector of length " + n, "vector of length " + xk.getLength());
+        Workspace workspace = Workspace.get();
+        double[] basis = workspace.borrow(x.length * n);
+        double[] squaredMagnitudes = workspace.borrow(x.length);
+        double[] xk = workspace.borrow(n);
+        try {
+            Vector[] v = new Vector[x.length];
+            for(int k = 0; k < v.length; k++) {
+                for(int j = 0; j < n; j++)
+                    xk[j] = x[k].getFromBackingArray(j, 0.0);
+                int row = k * n;
+                System.arraycopy(xk, 0, basis, row, n);
+                for(int i = 0; i < k; i++) {
+                    double dot = 0;
+                    for(int j = 0; j < n; j++)
+                        dot += xk[j] * basis[i * n + j];
+                    double c = dot / squaredMagnitudes[i];
+                    for(int j = 0; j < n; j++)
+                        basis[row + j] -= c * basis[i * n + j];
+                }
+                double squaredMagnitude = 0;
+                for(int j = 0; j < n; j++)
+                    squaredMagnitude += basis[row + j] * basis[row + j];
+                squaredMagnitudes[k] = squaredMagnitude;
+                v[k] = new Vector(Arrays.copyOfRange(basis, row, row + n));
             }
-            v[k] = Vector.subtract(x[k], sum);
+            return v;
+        } finally {
+            workspace.release(xk);
+            workspace.release(squaredMagnitudes);
+            workspace.release(basis);
         }
-        return v;
     }
 
     public static Vector[] orthonormalize(Vector[] x) {
@@ -508,32 +553,44 @@ public class Vector extends Tensor<Double> implements Comparable<Vector>{
             VectorEntry o = (VectorEntry) obj;
             return index == o.getIndex() && getParent() == o.getParent();
         }
+
+        @Override
+        public int hashCode() {
+            return 31 * index + System.identityHashCode(getParent());
+        }
     }
 
     private static class CrossProductMatrix {
 
-        private Matrix internalMatrix;
-        private Vector[] topRow;
+        private final Vector[] rows;
 
         private CrossProductMatrix(Vector[] vs)
         {
-            topRow = new Vector[vs[0].getLength()];
-            for(int i = 0; i < topRow.length; i++)
-                topRow[i] = Vector.generateUnitVector(i, topRow.length);
-
-            internalMatrix = new Matrix(vs);
+            rows = vs;
         }
 
+        /*
+         * Expands the determinant along the formal top row of unit vectors, computing each cofactor in a scratch
+         * buffer from the workspace
+         */
         private Vector determinant()
         {
-            Vector sum = new Vector(topRow[0].getLength());
+            int n = rows[0].getLength(), m = n - 1;
+            Workspace workspace = Workspace.get();
+            double[] minor = workspace.borrow(m * m);
+            double[] sum = new double[n];
 
-            for(int i = 0; i < topRow.length; i++)
+            for(int i = 0; i < n; i++)
             {
-                sum.add(topRow[i].clone().scale(Math.pow(-1, i) * internalMatrix.clone().removeColumn(i).determinant()));
+                for(int r = 0; r < m; r++)
+                    for(int c = 0, k = 0; c < n; c++)
+                        if(c != i)
+                            minor[r * m + k++] = rows[r].getFromBackingArray(c, 0.0);
+                sum[i] += (i % 2 == 0? 1: -1) * GaussianElimination.determinant(minor, m);
             }
 
-            return sum;
+            workspace.release(minor);
+            return new Vector(sum);
         }
 
     }
@@ -0,0 +1,137 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+/**
+ * An immutable two dimensional vector stored in fields, so operations on it do not allocate arrays or box elements
+ */
+public final class Vector2 {
+
+    private final double x;
+    private final double y;
+
+    /**
+     * Creates a two dimensional vector
+     * @param x the first component
+     * @param y the second component
+     */
+    public Vector2(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Creates a two dimensional vector from a vector of length two
+     * @param v the vector
+     * @return the two dimensional vector
+     */
+    public static Vector2 of(Vector v) {
+        if(v.getLength() != 2)
+            throw new InvalidShapeException(v.toString());
+        return new Vector2(v.get(0), v.get(1));
+    }
+
+    /**
+     * Adds another vector to this one
+     * @param v the other vector
+     * @return the sum
+     */
+    public Vector2 add(Vector2 v) {
+        return new Vector2(x + v.x, y + v.y);
+    }
+
+    /**
+     * Subtracts another vector from this one
+     * @param v the other vector
+     * @return the difference
+     */
+    public Vector2 subtract(Vector2 v) {
+        return new Vector2(x - v.x, y - v.y);
+    }
+
+    /**
+     * Scales this vector by a scalar
+     * @param c the scalar
+     * @return the scaled vector
+     */
+    public Vector2 scale(double c) {
+        return new Vector2(c * x, c * y);
+    }
+
+    /**
+     * Calculates the dot product with another vector
+     * @param v the other vector
+     * @return the dot product
+     */
+    public double dot(Vector2 v) {
+        return x * v.x + y * v.y;
+    }
+
+    /**
+     * Calculates the z component of the cross product of the two vectors placed in the xy plane
+     * @param v the other vector
+     * @return the signed area of the parallelogram spanned by the vectors
+     */
+    public double cross(Vector2 v) {
+        return x * v.y - y * v.x;
+    }
+
+    /**
+     * Calculates the magnitude of this vector
+     * @return the magnitude
+     */
+    public double magnitude() {
+        return Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Scales this vector to a magnitude of one
+     * @return the unit vector
+     */
+    public Vector2 normalize() {
+        return scale(1 / magnitude());
+    }
+
+    /**
+     * Gets the first component
+     * @return x
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Gets the second component
+     * @return y
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Converts this into a general vector
+     * @return the vector
+     */
+    public Vector toVector() {
+        return new Vector(x, y);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(!(o instanceof Vector2)) return false;
+        Vector2 v = (Vector2) o;
+        return Double.compare(x, v.x) == 0 && Double.compare(y, v.y) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(x) + Double.hashCode(y);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + x + ", " + y + "]";
+    }
+
+}
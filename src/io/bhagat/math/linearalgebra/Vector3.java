@@ -0,0 +1,148 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+/**
+ * An immutable three dimensional vector stored in fields, so operations on it do not allocate arrays or box elements
+ */
+public final class Vector3 {
+
+    private final double x;
+    private final double y;
+    private final double z;
+
+    /**
+     * Creates a three dimensional vector
+     * @param x the first component
+     * @param y the second component
+     * @param z the third component
+     */
+    public Vector3(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    /**
+     * Creates a three dimensional vector from a vector of length three
+     * @param v the vector
+     * @return the three dimensional vector
+     */
+    public static Vector3 of(Vector v) {
+        if(v.getLength() != 3)
+            throw new InvalidShapeException(v.toString());
+        return new Vector3(v.get(0), v.get(1), v.get(2));
+    }
+
+    /**
+     * Adds another vector to this one
+     * @param v the other vector
+     * @return the sum
+     */
+    public Vector3 add(Vector3 v) {
+        return new Vector3(x + v.x, y + v.y, z + v.z);
+    }
+
+    /**
+     * Subtracts another vector from this one
+     * @param v the other vector
+     * @return the difference
+     */
+    public Vector3 subtract(Vector3 v) {
+        return new Vector3(x - v.x, y - v.y, z - v.z);
+    }
+
+    /**
+     * Scales this vector by a scalar
+     * @param c the scalar
+     * @return the scaled vector
+     */
+    public Vector3 scale(double c) {
+        return new Vector3(c * x, c * y, c * z);
+    }
+
+    /**
+     * Calculates the dot product with another vector
+     * @param v the other vector
+     * @return the dot product
+     */
+    public double dot(Vector3 v) {
+        return x * v.x + y * v.y + z * v.z;
+    }
+
+    /**
+     * Calculates the cross product with another vector
+     * @param v the other vector
+     * @return this vector cross v
+     */
+    public Vector3 cross(Vector3 v) {
+        return new Vector3(y * v.z - z * v.y, z * v.x - x * v.z, x * v.y - y * v.x);
+    }
+
+    /**
+     * Calculates the magnitude of this vector
+     * @return the magnitude
+     */
+    public double magnitude() {
+        return Math.sqrt(x * x + y * y + z * z);
+    }
+
+    /**
+     * Scales this vector to a magnitude of one
+     * @return the unit vector
+     */
+    public Vector3 normalize() {
+        return scale(1 / magnitude());
+    }
+
+    /**
+     * Gets the first component
+     * @return x
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Gets the second component
+     * @return y
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Gets the third component
+     * @return z
+     */
+    public double getZ() {
+        return z;
+    }
+
+    /**
+     * Converts this into a general vector
+     * @return the vector
+     */
+    public Vector toVector() {
+        return new Vector(x, y, z);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(!(o instanceof Vector3)) return false;
+        Vector3 v = (Vector3) o;
+        return Double.compare(x, v.x) == 0 && Double.compare(y, v.y) == 0 && Double.compare(z, v.z) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Double.hashCode(x) + Double.hashCode(y)) + Double.hashCode(z);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + x + ", " + y + ", " + z + "]";
+    }
+
+}
@@ -0,0 +1,151 @@
+package io.bhagat.math.linearalgebra;
+
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+
+/**
+ * An immutable four dimensional vector stored in fields, so operations on it do not allocate arrays or box elements
+ */
+public final class Vector4 {
+
+    private final double x;
+    private final double y;
+    private final double z;
+    private final double w;
+
+    /**
+     * Creates a four dimensional vector
+     * @param x the first component
+     * @param y the second component
+     * @param z the third component
+     * @param w the fourth component
+     */
+    public Vector4(double x, double y, double z, double w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+    }
+
+    /**
+     * Creates a four dimensional vector from a vector of length four
+     * @param v the vector
+     * @return the four dimensional vector
+     */
+    public static Vector4 of(Vector v) {
+        if(v.getLength() != 4)
+            throw new InvalidShapeException(v.toString());
+        return new Vector4(v.get(0), v.get(1), v.get(2), v.get(3));
+    }
+
+    /**
+     * Adds another vector to this one
+     * @param v the other vector
+     * @return the sum
+     */
+    public Vector4 add(Vector4 v) {
+        return new Vector4(x + v.x, y + v.y, z + v.z, w + v.w);
+    }
+
+    /**
+     * Subtracts another vector from this one
+     * @param v the other vector
+     * @return the difference
+     */
+    public Vector4 subtract(Vector4 v) {
+        return new Vector4(x - v.x, y - v.y, z - v.z, w - v.w);
+    }
+
+    /**
+     * Scales this vector by a scalar
+     * @param c the scalar
+     * @return the scaled vector
+     */
+    public Vector4 scale(double c) {
+        return new Vector4(c * x, c * y, c * z, c * w);
+    }
+
+    /**
+     * Calculates the dot product with another vector
+     * @param v the other vector
+     * @return the dot product
+     */
+    public double dot(Vector4 v) {
+        return x * v.x + y * v.y + z * v.z + w * v.w;
+    }
+
+    /**
+     * Calculates the magnitude of this vector
+     * @return the magnitude
+     */
+    public double magnitude() {
+        return Math.sqrt(x * x + y * y + z * z + w * w);
+    }
+
+    /**
+     * Scales this vector to a magnitude of one
+     * @return the unit vector
+     */
+    public Vector4 normalize() {
+        return scale(1 / magnitude());
+    }
+
+    /**
+     * Gets the first component
+     * @return x
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Gets the second component
+     * @return y
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Gets the third component
+     * @return z
+     */
+    public double getZ() {
+        return z;
+    }
+
+    /**
+     * Gets the fourth component
+     * @return w
+     */
+    public double getW() {
+        return w;
+    }
+
+    /**
+     * Converts this into a general vector
+     * @return the vector
+     */
+    public Vector toVector() {
+        return new Vector(x, y, z, w);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(!(o instanceof Vector4)) return false;
+        Vector4 v = (Vector4) o;
+        return Double.compare(x, v.x) == 0 && Double.compare(y, v.y) == 0 && Double.compare(z, v.z) == 0
+                && Double.compare(w, v.w) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * Double.hashCode(x) + Double.hashCode(y)) + Double.hashCode(z)) + Double.hashCode(w);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + x + ", " + y + ", " + z + ", " + w + "]";
+    }
+
+}
@@ -0,0 +1,107 @@
+package io.bhagat.math.linearalgebra;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * A per thread pool of scratch arrays for algorithms that need temporary storage on every iteration. Arrays are
+ * grouped in power of two size classes, so an iterative solver that borrows and releases the same sizes reaches a
+ * steady state where it no longer allocates. At most 64 MiB is pooled per thread, and an array released past that
+ * budget is left to the garbage collector, so a single huge temporary does not stay reachable for the life of the
+ * thread.
+ * <p>
+ * A workspace is confined to the thread that got it through {@link #get()}. Arrays must be released to the
+ * workspace they were borrowed from and must not be used after they are released.
+ */
+public final class Workspace {
+
+    private static final int MAX_POOLED_PER_CLASS = 16;
+    private static final long MAX_POOLED_BYTES = 64L << 20;
+    private static final ThreadLocal<Workspace> LOCAL = ThreadLocal.withInitial(Workspace::new);
+
+    private final ArrayDeque<double[]>[] pools;
+    private long allocations;
+    private long pooledBytes;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Workspace() {
+        pools = new ArrayDeque[Integer.SIZE];
+    }
+
+    /**
+     * Gets the workspace of the current thread
+     * @return the workspace
+     */
+    public static Workspace get() {
+        return LOCAL.get();
+    }
+
+    /**
+     * Borrows an array from the pool, allocating one only when the size class is empty
+     * @param length the minimum length, the array is rounded up to the next power of two
+     * @return the array, where the first length entries are zero
+     */
+    public double[] borrow(int length) {
+        int sizeClass = sizeClass(length);
+        ArrayDeque<double[]> pool = pools[sizeClass];
+        double[] array = pool == null? null: pool.pollLast();
+        if(array == null) {
+            allocations++;
+            return new double[1 << sizeClass];
+        }
+        pooledBytes -= (long) array.length * Double.BYTES;
+        Arrays.fill(array, 0, length, 0);
+        return array;
+    }
+
+    /**
+     * Returns an array to the pool so a later borrow can reuse it, unless its size class is full or the pool would go
+     * over its byte budget
+     * @param array an array that was borrowed from this workspace
+     */
+    public void release(double[] array) {
+        if(array == null || Integer.bitCount(array.length) != 1)
+            return;
+        long bytes = (long) array.length * Double.BYTES;
+        if(pooledBytes + bytes > MAX_POOLED_BYTES)
+            return;
+        int sizeClass = Integer.numberOfTrailingZeros(array.length);
+        if(pools[sizeClass] == null)
+            pools[sizeClass] = new ArrayDeque<>();
+        if(pools[sizeClass].size() < MAX_POOLED_PER_CLASS) {
+            pools[sizeClass].addLast(array);
+            pooledBytes += bytes;
+        }
+    }
+
+    /**
+     * Gets the number of bytes held by the arrays in the pool
+     * @return the number of pooled bytes
+     */
+    public long getPooledBytes() {
+        return pooledBytes;
+    }
+
+    /**
+     * Gets the number of arrays this workspace had to allocate because its pool was empty
+     * @return the number of allocations
+     */
+    public long getAllocationCount() {
+        return allocations;
+    }
+
+    /**
+     * Drops every pooled array so the memory can be reclaimed
+     */
+    public void clear() {
+        Arrays.fill(pools, null);
+        pooledBytes = 0;
+    }
+
+    private static int sizeClass(int length) {
+        if(length < 0 || length > 1 << 30)
+            throw new IllegalArgumentException("Cannot borrow an array of length " + length);
+        return length <= 1? 0: Integer.SIZE - Integer.numberOfLeadingZeros(length - 1);
+    }
+
+}
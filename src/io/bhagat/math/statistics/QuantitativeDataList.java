@@ -6,6 +6,7 @@ import java.util.Collections;
 
 import io.bhagat.math.functions.Function;
 import io.bhagat.math.settheory.Interval;
+import io.bhagat.math.linearalgebra.Reductions;
 import io.bhagat.math.linearalgebra.Vector;
 
 // TODO create CategoricalDataList implements DataList
@@ -108,14 +109,14 @@ public class QuantitativeDataList extends ArrayList<Double> { //TODO implements
 	}
 
 	/**
-	 * computes the sum of all the data
+	 * computes the sum of all the data with a deterministic pairwise sum, which gives the same result whether or not
+	 * it runs in parallel
 	 * @return the sum
+	 * @see Reductions
 	 */
 	public double sum()
 	{
-		double sum = 0;
-		for (Double aDouble : this) sum += aDouble;
-		return sum;
+		return Reductions.sum(this::get, size());
 	}
 	
 	/**
@@ -1,5 +1,11 @@
 package tests;
 
+import io.bhagat.math.linearalgebra.Dispatcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 public class TestUtils {
 
     public static boolean withinTest = false;
@@ -56,6 +62,21 @@ public class TestUtils {
         passed = 0;
     }
 
+    /**
+     * Points the dispatcher at a temporary calibration file that is deleted on exit, so that tests do not write to the
+     * home directory. It must be called before anything uses the dispatcher.
+     */
+    public static void useTemporaryDispatchFile() {
+        try {
+            File file = File.createTempFile("dispatch", ".properties");
+            file.delete();
+            file.deleteOnExit();
+            System.setProperty(Dispatcher.FILE_PROPERTY, file.getPath());
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private static String pad(String string, int length) {
         if(string.length() > length) {
             string = string.substring(0, length - 3) + "...";
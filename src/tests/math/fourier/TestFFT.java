@@ -0,0 +1,91 @@
+package tests.math.fourier;
+
+import io.bhagat.math.fourier.FFT;
+import io.bhagat.math.fourier.FFTPlan;
+import io.bhagat.math.linearalgebra.Matrix;
+import tests.TestUtils;
+
+import java.util.Arrays;
+
+public class TestFFT {
+
+    public static void main(String[] args) {
+        TestUtils.useTemporaryDispatchFile();
+        for(int n: new int[] {1, 8, 12, 30, 13, 97}) {
+            double[] re = new double[n], im = new double[n];
+            for(int i = 0; i < n; i++) {
+                re[i] = Math.sin(i * 0.7) + i % 3;
+                im[i] = Math.cos(i * 1.3);
+            }
+            double[][] expected = dft(re, im);
+            double[] fRe = re.clone(), fIm = im.clone();
+            FFT.fft(fRe, fIm);
+            TestUtils.check("FFT matches DFT, n = " + n,
+                    close(fRe, expected[0]) && close(fIm, expected[1]), true);
+            FFT.ifft(fRe, fIm);
+            TestUtils.check("Inverse FFT round trip, n = " + n, close(fRe, re) && close(fIm, im), true);
+        }
+        TestUtils.endTest();
+
+        for(int n: new int[] {10, 7, 64, 12, 30, 26}) {
+            double[] x = new double[n];
+            for(int i = 0; i < n; i++)
+                x[i] = Math.sin(i * 0.3) * i;
+            double[][] half = FFT.rfft(x);
+            double[][] expected = dft(x, new double[n]);
+            TestUtils.check("Real FFT matches DFT, n = " + n,
+                    close(half[0], Arrays.copyOf(expected[0], n / 2 + 1))
+                            && close(half[1], Arrays.copyOf(expected[1], n / 2 + 1)), true);
+            TestUtils.check("Real FFT round trip, n = " + n, close(FFT.irfft(half[0], half[1], n), x), true);
+        }
+        FFTPlan plan = FFTPlan.of(5);
+        TestUtils.check("Plans are shared", FFTPlan.of(5) == plan, true);
+        for(int n = 100; n < 100 + FFTPlan.MAX_CACHED_PLANS; n++)
+            FFTPlan.of(n);
+        TestUtils.check("Plan cache is bounded", FFTPlan.of(5) != plan, true);
+        TestUtils.endTest();
+
+        TestUtils.check("Polynomial multiplication",
+                close(FFT.convolve(new double[] {1, 2}, new double[] {1, 3, 1}), new double[] {1, 5, 7, 2}), true);
+        TestUtils.check("Power spectrum of a constant",
+                close(FFT.powerSpectrum(new double[] {1, 1, 1, 1}), new double[] {4, 0, 0}), true);
+        TestUtils.endTest();
+
+        Matrix m = new Matrix(5, 6).randomize();
+        Matrix[] spectrum = FFT.fft2(m, null);
+        TestUtils.check("2D DC component", Math.abs(spectrum[0].get(0, 0) - sum(m)) < 1e-9, true);
+        Matrix[] back = FFT.ifft2(spectrum[0], spectrum[1]);
+        TestUtils.check("2D round trip", Matrix.subtract(back[0], m).clean(), new Matrix(5, 6).translate(0));
+        TestUtils.endTest();
+    }
+
+    private static double sum(Matrix m) {
+        double sum = 0;
+        for(Double d: m)
+            sum += d;
+        return sum;
+    }
+
+    private static double[][] dft(double[] re, double[] im) {
+        int n = re.length;
+        double[] outRe = new double[n], outIm = new double[n];
+        for(int k = 0; k < n; k++) {
+            for(int t = 0; t < n; t++) {
+                double angle = -2 * Math.PI * k * t / n;
+                outRe[k] += re[t] * Math.cos(angle) - im[t] * Math.sin(angle);
+                outIm[k] += re[t] * Math.sin(angle) + im[t] * Math.cos(angle);
+            }
+        }
+        return new double[][] { outRe, outIm };
+    }
+
+    private static boolean close(double[] a, double[] b) {
+        if(a.length != b.length)
+            return false;
+        for(int i = 0; i < a.length; i++)
+            if(Math.abs(a[i] - b[i]) > 1e-8)
+                return false;
+        return true;
+    }
+
+}
@@ -1,14 +1,53 @@
 package tests.math.linearalgebra;
 
 import io.bhagat.math.Constants;
+import io.bhagat.math.functions.Activation;
+import io.bhagat.math.linearalgebra.BandedMatrix;
+import io.bhagat.math.linearalgebra.BlockMatrix;
+import io.bhagat.math.linearalgebra.CholeskyDecomposition;
+import io.bhagat.math.linearalgebra.Convolution;
+import io.bhagat.math.linearalgebra.DiagonalMatrix;
+import io.bhagat.math.linearalgebra.DirectMatrix;
+import io.bhagat.math.linearalgebra.DirectTensor;
+import io.bhagat.math.linearalgebra.Dispatcher;
+import io.bhagat.math.linearalgebra.IterativeSolvers;
+import io.bhagat.math.linearalgebra.KroneckerProduct;
+import io.bhagat.math.linearalgebra.LUDecomposition;
+import io.bhagat.math.linearalgebra.LinearOperator;
+import io.bhagat.math.linearalgebra.LinearOperators;
 import io.bhagat.math.linearalgebra.Matrix;
+import io.bhagat.math.linearalgebra.Matrix2;
+import io.bhagat.math.linearalgebra.Matrix3;
+import io.bhagat.math.linearalgebra.Matrix4;
+import io.bhagat.math.linearalgebra.MatrixChain;
+import io.bhagat.math.linearalgebra.OutOfCoreMultiply;
+import io.bhagat.math.linearalgebra.QRDecomposition;
+import io.bhagat.math.linearalgebra.SymmetricEigendecomposition;
+import io.bhagat.math.linearalgebra.SymmetricMatrix;
+import io.bhagat.math.linearalgebra.TensorFile;
+import io.bhagat.math.linearalgebra.TiledMatrix;
+import io.bhagat.math.linearalgebra.TriangularMatrix;
+import io.bhagat.math.linearalgebra.TridiagonalMatrix;
+import io.bhagat.math.linearalgebra.UpdatableQRDecomposition;
 import io.bhagat.math.linearalgebra.Vector;
+import io.bhagat.math.linearalgebra.Workspace;
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
+import tests.TestUtils;
 
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.HashMap;
 
 public class TestMatrix {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        TestUtils.useTemporaryDispatchFile();
 //        Matrix A = new Matrix(new Vector(2, 3, 4), new Vector(5, 6, 7), new Vector(1, 0, 1));
 //        System.out.println(A.determinant());
 //        A.setRow(2, new Vector(0, 1, 0));
@@ -31,6 +70,480 @@ public class TestMatrix {
         System.out.println(SVD[1]);
         System.out.println(SVD[2]);
 
+        DirectMatrix direct = DirectMatrix.of(A2);
+        TestUtils.check("Direct matrix get", direct.get(1, 2), -2.0);
+        TestUtils.check("Direct matrix round trip", direct.toMatrix(), A2);
+        TestUtils.check("Direct matrix multiply", direct.multiply(new Vector(1, 1, 1)), new Vector(7, 3));
+        direct.close();
+        TestUtils.check("Direct matrix closed", direct.isClosed(), true);
+        DirectMatrix offHeap = new DirectMatrix(1024, 1024);
+        long allocated = bufferPool("direct").getMemoryUsed();
+        offHeap.close();
+        TestUtils.check("Closing frees direct memory",
+                allocated - bufferPool("direct").getMemoryUsed() >= 1024L * 1024 * Double.BYTES, true);
+        ByteBuffer owned = ByteBuffer.allocateDirect(6 * Double.BYTES);
+        DirectTensor wrapped = DirectTensor.wrap(owned, 2, 3);
+        wrapped.setFlat(4, 4.0);
+        wrapped.close();
+        TestUtils.check("Closing leaves a wrapped buffer", owned.order(ByteOrder.LITTLE_ENDIAN).getDouble(32), 4.0);
+        TestUtils.endTest();
+
+        Path file = Files.createTempFile("matrix", ".jmlt");
+        TensorFile.write(file, A2);
+        DirectMatrix mapped = Matrix.mapFile(file);
+        TestUtils.check("Mapped matrix shape", mapped.getRows() + "x" + mapped.getCols(), "2x3");
+        TestUtils.check("Mapped matrix round trip", mapped.toMatrix(), A2);
+        TestUtils.check("Mapped matrix is read only", mapped.isReadOnly(), true);
+        long mappings = bufferPool("mapped").getCount();
+        mapped.close();
+        TestUtils.check("Closing unmaps the file", bufferPool("mapped").getCount(), mappings - 1);
+        DirectMatrix writable = Matrix.mapFile(file, true);
+        writable.set(5.0, 0, 0);
+        writable.close();
+        TestUtils.check("Mapped matrix write through", Matrix.mapFile(file).get(0, 0), 5.0);
+        byte[] header = Files.readAllBytes(file);
+        ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN).putInt(12, 1 << 30);
+        Files.write(file, header);
+        String oversized;
+        try {
+            oversized = Matrix.mapFile(file).toString();
+        } catch(IOException e) {
+            oversized = e.getMessage();
+        }
+        TestUtils.check("Mapped matrix larger than its file", oversized, file + " is truncated");
+        Files.delete(file);
+        TestUtils.endTest();
+
+        Matrix B = new Matrix(5, 7).randomize();
+        Matrix C = new Matrix(7, 4).randomize();
+        Path tiles = Files.createTempDirectory("tiles");
+        try(OutOfCoreMultiply outOfCore = new OutOfCoreMultiply(4)) {
+            Matrix product = outOfCore.multiply(TiledMatrix.of(tiles.resolve("b"), B, 3),
+                    TiledMatrix.of(tiles.resolve("c"), C, 3), tiles.resolve("bc")).toMatrix();
+            TestUtils.check("Out of core multiply", Matrix.subtract(product, Matrix.multiply(B, C)).clean(),
+                    new Matrix(5, 4).translate(0));
+            TestUtils.check("Out of core bytes written", outOfCore.getBytesWritten(), 5L * 4 * Double.BYTES);
+        }
+        try(OutOfCoreMultiply thrashing = new OutOfCoreMultiply(2)) {
+            Matrix product = thrashing.multiply(TiledMatrix.of(tiles.resolve("b2"), B, 3),
+                    TiledMatrix.of(tiles.resolve("c2"), C, 3), tiles.resolve("bc2")).toMatrix();
+            TestUtils.check("Out of core multiply with more inner tiles than the cache",
+                    approximatelyEqual(product, Matrix.multiply(B, C)), true);
+            TestUtils.check("Out of core bytes read", thrashing.getBytesRead(), 7L * (2 * (3 + 2) + 2 * (3 + 1))
+                    * Double.BYTES);
+            Matrix infinite = thrashing.multiply(TiledMatrix.of(tiles.resolve("z"), new Matrix(new double[][] {{0, 1}}), 2),
+                    TiledMatrix.of(tiles.resolve("i"), new Matrix(new double[][] {{Double.POSITIVE_INFINITY}, {1}}), 2),
+                    tiles.resolve("zi")).toMatrix();
+            TestUtils.check("Out of core multiply propagates infinity", Double.isNaN(infinite.get(0, 0)), true);
+        }
+        TestUtils.endTest();
+
+        Matrix image = new Matrix(new double[][] {{1, 2}, {3, 4}});
+        Matrix full = Matrix.convolve(image, new Matrix(new double[][] {{1, 1}}));
+        TestUtils.check("Full convolution", full, new Matrix(new double[][] {{1, 3, 2}, {3, 7, 4}}));
+        Matrix signal = new Matrix(9, 11).randomize();
+        Matrix kernel = new Matrix(4, 3).randomize();
+        for(Convolution.Mode mode: Convolution.Mode.values()) {
+            Matrix reference = Convolution.convolve(signal, kernel, mode, 2, 1, Convolution.Engine.DIRECT);
+            TestUtils.check("im2col matches direct " + mode, approximatelyEqual(reference,
+                    Convolution.convolve(signal, kernel, mode, 2, 1, Convolution.Engine.IM2COL)), true);
+            TestUtils.check("FFT matches direct " + mode, approximatelyEqual(reference,
+                    Convolution.convolve(signal, kernel, mode, 2, 1, Convolution.Engine.FFT)), true);
+        }
+        TestUtils.check("Same convolution shape", Matrix.convolve(signal, kernel, Convolution.Mode.SAME).getDimensions()[1], 11);
+        TestUtils.check("Correlation", Matrix.correlate(image, new Matrix(new double[][] {{1, -1}}), Convolution.Mode.VALID),
+                new Matrix(new double[][] {{-1}, {-1}}));
+        TestUtils.check("Tiny kernel engine", Convolution.chooseEngine(512, 512, 3, 3, Convolution.Mode.SAME, 1, 0),
+                Convolution.Engine.DIRECT);
+        TestUtils.check("Large kernel engine", Convolution.chooseEngine(512, 512, 64, 64, Convolution.Mode.SAME, 1, 0),
+                Convolution.Engine.FFT);
+        TestUtils.check("Medium kernel engine", Convolution.chooseEngine(256, 256, 9, 9, Convolution.Mode.SAME, 1, 0),
+                Convolution.Engine.DIRECT);
+        TestUtils.endTest();
+
+        Matrix dense = new Matrix(6, 6).randomize();
+        Vector rhs = new Vector(6).randomize();
+        TridiagonalMatrix tridiagonal = TridiagonalMatrix.from(Matrix.add(dense, Matrix.identityMatrix(6).scale(3)));
+        TestUtils.check("Thomas algorithm", approximatelyEqual(tridiagonal.multiply(tridiagonal.solve(rhs)).toMatrix(),
+                rhs.toMatrix()), true);
+        BandedMatrix banded = BandedMatrix.from(dense, 2, 1);
+        TestUtils.check("Banded multiply", approximatelyEqual(banded.multiply(rhs).toMatrix(),
+                Matrix.multiply(banded.toMatrix(), rhs)), true);
+        TestUtils.check("Banded LU solve", approximatelyEqual(banded.multiply(banded.solve(rhs)).toMatrix(),
+                rhs.toMatrix()), true);
+        String outside;
+        try {
+            outside = String.valueOf(banded.get(0, -1));
+        } catch(IndexOutOfBoundsException e) {
+            outside = e.getMessage();
+        }
+        TestUtils.check("Banded position outside of the matrix", outside, "Position 0, -1 is out of bounds for 6x6");
+        String mismatch;
+        try {
+            mismatch = banded.multiply(new Vector(5)).toString();
+        } catch(InvalidShapeException e) {
+            mismatch = e.getMessage();
+        }
+        TestUtils.check("Structured shape message", mismatch,
+                "The shape of BandedMatrix 6x6 and vector of length 5 are not compatible for this operation");
+        TriangularMatrix lower = TriangularMatrix.from(Matrix.add(dense, Matrix.identityMatrix(6)), false);
+        TestUtils.check("Forward substitution", approximatelyEqual(lower.multiply(lower.solve(rhs)).toMatrix(),
+                rhs.toMatrix()), true);
+        TriangularMatrix upper = TriangularMatrix.from(Matrix.add(dense, Matrix.identityMatrix(6)), true);
+        TestUtils.check("Back substitution", approximatelyEqual(upper.multiply(upper.solve(rhs)).toMatrix(),
+                rhs.toMatrix()), true);
+        Vector transposed = new Vector(6);
+        tridiagonal.applyTranspose(rhs, transposed);
+        TestUtils.check("Tridiagonal transpose apply", approximatelyEqual(transposed.toMatrix(),
+                Matrix.multiply(tridiagonal.toMatrix().transpose(), rhs)), true);
+        banded.applyTranspose(rhs, transposed);
+        TestUtils.check("Banded transpose apply", approximatelyEqual(transposed.toMatrix(),
+                Matrix.multiply(banded.toMatrix().transpose(), rhs)), true);
+        lower.applyTranspose(rhs, transposed);
+        TestUtils.check("Lower triangular transpose apply", approximatelyEqual(transposed.toMatrix(),
+                Matrix.multiply(lower.toMatrix().transpose(), rhs)), true);
+        upper.applyTranspose(rhs, transposed);
+        TestUtils.check("Upper triangular transpose apply", approximatelyEqual(transposed.toMatrix(),
+                Matrix.multiply(upper.toMatrix().transpose(), rhs)), true);
+        TestUtils.check("Diagonal shift", new DiagonalMatrix(6, 2).subtractFrom(dense),
+                Matrix.subtract(dense, Matrix.identityMatrix(6).scale(2)));
+        TestUtils.endTest();
+
+        Matrix tall = new Matrix(7, 4).randomize();
+        SymmetricMatrix gram = SymmetricMatrix.transposeProduct(tall);
+        TestUtils.check("Packed AtA", approximatelyEqual(gram.toMatrix(), Matrix.multiply(tall.transpose(), tall)), true);
+        TestUtils.check("Packed AAt", approximatelyEqual(SymmetricMatrix.productTranspose(tall).toMatrix(),
+                Matrix.multiply(tall, tall.transpose())), true);
+        TestUtils.check("Packed AtA propagates infinity", Double.isNaN(SymmetricMatrix.transposeProduct(new Matrix(
+                new double[][] {{Double.POSITIVE_INFINITY, 0}})).get(1, 0)), true);
+        Vector x4 = new Vector(1, -2, 3, 0.5);
+        TestUtils.check("Symmetric matrix vector product", approximatelyEqual(gram.multiply(x4).toMatrix(),
+                Matrix.multiply(gram.toMatrix(), x4)), true);
+        TestUtils.check("Symmetric Cholesky solve", approximatelyEqual(gram.solve(gram.multiply(x4)).toMatrix(),
+                x4.toMatrix()), true);
+        SymmetricEigendecomposition spectral = gram.eigendecomposition();
+        TestUtils.check("Packed Jacobi eigendecomposition", approximatelyEqual(Matrix.multiply(spectral.getV(),
+                spectral.getD().multiply(spectral.getV().transpose())), gram.toMatrix()), true);
+        double[] spectrum4 = spectral.getEigenvalues();
+        TestUtils.check("Packed Jacobi eigenvalues", approximatelyEqual(new DiagonalMatrix(gram.eigenvalues()).toMatrix(),
+                spectral.getD().toMatrix()), true);
+        TestUtils.check("Eigenvalues in decreasing order", spectrum4[0] >= spectrum4[1] && spectrum4[1] >= spectrum4[2]
+                && spectrum4[2] >= spectrum4[3], true);
+        TestUtils.check("Singular values from the packed Gram matrix", Arrays.toString(Arrays.stream(A2.singularValues(100))
+                .map(Math::rint).toArray()), "[5.0, 3.0]");
+        Matrix[] decomposition = A2.singularValueDecomposition(100);
+        TestUtils.check("Singular value decomposition", approximatelyEqual(Matrix.multiply(decomposition[0],
+                Matrix.multiply(decomposition[1], decomposition[2].transpose())), A2), true);
+        TestUtils.endTest();
+
+        Matrix markov = new Matrix(new double[][] {{0.9, 0.1, 0}, {0.2, 0.7, 0.1}, {0, 0.3, 0.7}});
+        Matrix repeated = Matrix.identityMatrix(3);
+        for(int i = 0; i < 13; i++)
+            repeated = Matrix.multiply(repeated, markov);
+        TestUtils.check("Power by squaring", approximatelyEqual(markov.pow(13), repeated), true);
+        TestUtils.check("Negative power", approximatelyEqual(Matrix.multiply(markov.pow(-2), markov.pow(2)),
+                Matrix.identityMatrix(3)), true);
+        TestUtils.check("Power propagates infinity", Double.isNaN(new Matrix(new double[][] {{0, Double.POSITIVE_INFINITY},
+                {0, 1}}).pow(2).get(0, 1)), true);
+        TestUtils.check("Exponential of a diagonal", approximatelyEqual(new DiagonalMatrix(1, -2, 3).toMatrix().exp(),
+                new DiagonalMatrix(Math.E, Math.exp(-2), Math.exp(3)).toMatrix()), true);
+        Matrix rotation = new Matrix(new double[][] {{0, -Math.PI / 3}, {Math.PI / 3, 0}});
+        TestUtils.check("Exponential of a generator", approximatelyEqual(rotation.exp(), new Matrix(new double[][] {
+                {Math.cos(Math.PI / 3), -Math.sin(Math.PI / 3)}, {Math.sin(Math.PI / 3), Math.cos(Math.PI / 3)}})), true);
+        Matrix spd = gram.toMatrix();
+        TestUtils.check("Symmetric square root", approximatelyEqual(Matrix.multiply(spd.sqrt(), spd.sqrt()), spd), true);
+        TestUtils.check("Symmetric logarithm", approximatelyEqual(spd.log().exp(), spd), true);
+        TestUtils.check("Square root", approximatelyEqual(Matrix.multiply(markov.sqrt(), markov.sqrt()), markov), true);
+        TestUtils.check("Logarithm", approximatelyEqual(markov.log().exp(), markov), true);
+        TestUtils.endTest();
+
+        Matrix four = Matrix.add(new Matrix(4, 4).randomize(), Matrix.identityMatrix(4).scale(2));
+        Matrix4 small = Matrix4.of(four);
+        TestUtils.check("Unrolled 4x4 inverse", approximatelyEqual(small.multiply(small.inverse()).toMatrix(),
+                Matrix.identityMatrix(4)), true);
+        TestUtils.check("Unrolled 4x4 determinant", Math.abs(small.determinant() - new LUDecomposition(four).determinant())
+                < 1e-9, true);
+        Matrix3 three = Matrix3.of(markov);
+        TestUtils.check("Unrolled 3x3 inverse", approximatelyEqual(three.inverse().multiply(three).toMatrix(),
+                Matrix.identityMatrix(3)), true);
+        TestUtils.check("Unrolled 3x3 product", approximatelyEqual(three.multiply(three).toMatrix(), markov.pow(2)), true);
+        TestUtils.check("Unrolled 2x2 inverse", approximatelyEqual(new Matrix2(4, 7, 2, 6).inverse().toMatrix(),
+                new Matrix(new double[][] {{0.6, -0.7}, {-0.2, 0.4}})), true);
+        TestUtils.check("Unrolled 3x3 equals", Matrix3.of(markov.clone()).equals(three)
+                && Matrix3.of(markov.clone()).hashCode() == three.hashCode(), true);
+        TestUtils.check("Unrolled 2x2 string", Matrix2.identity().toString(), "[[1.0, 0.0], [0.0, 1.0]]");
+        TestUtils.check("Singular 2x2 inverse", Double.isFinite(new Matrix(new double[][] {{1, 2}, {2, 4}}).inverse()
+                .get(0, 0)), false);
+        Matrix singular = new Matrix(5, 5).randomize(-9, 9).mapDoubles(Math::rint);
+        singular.setRow(4, singular.getRowVector(0));
+        TestUtils.check("Singular 5x5 inverse", Double.isFinite(singular.inverse().get(0, 0)), false);
+        TestUtils.endTest();
+
+        Matrix grid = new Matrix(40, 30).mapIndexed((r, c, v) -> r * 30 + c);
+        TestUtils.check("Indexed map", grid.get(2, 5), 65.0);
+        TestUtils.check("Parallel indexed map", new Matrix(40, 30).mapIndexed((r, c, v) -> r * 30 + c, true), grid);
+        TestUtils.check("Primitive map", grid.clone().mapDoubles(Math::sqrt), grid.clone().mapFromEntries(e -> Math.sqrt(e.getVal())));
+        TestUtils.check("Parallel primitive map", grid.clone().mapDoubles(Math::sqrt, true), grid.clone().mapDoubles(Math::sqrt));
+        TestUtils.check("Primitive map reads nulls as zero", new Matrix(2, 2).mapDoubles(x -> x + 1), new Matrix(2, 2).translate(1));
+        TestUtils.endTest();
+
+        Matrix swapped = new Matrix(new double[][] {{0, 1}, {1, 0}});
+        TestUtils.check("Pivoted echelon form", swapped.reducedRowEchelonForm(), new Matrix(new double[][] {{1, 0}, {0, 1}}));
+        Matrix deficient = new Matrix(new double[][] {{1, 2, 3}, {2, 4, 6}, {1, 0, 1}});
+        TestUtils.check("Reduced echelon form", deficient.reducedRowEchelonForm(),
+                new Matrix(new double[][] {{1, 0, 1}, {0, 1, 1}, {0, 0, 0}}));
+        TestUtils.check("Rank", deficient.rank(), 2);
+        Vector[] nullSpace = deficient.nullSpace();
+        TestUtils.check("Null space dimension", nullSpace.length, 1);
+        TestUtils.check("Null space", Matrix.multiply(deficient, nullSpace[0]), new Matrix(3, 1).translate(0));
+        TestUtils.check("Column space", deficient.columnSpace()[1], new Vector(2, 4, 0));
+        Matrix nearlyDeficient = new Matrix(new double[][] {{1, 2}, {1, 2 + 1e-9}});
+        TestUtils.check("Column space tolerance", nearlyDeficient.columnSpace().length + " "
+                + nearlyDeficient.columnSpace(1e-6).length, "2 1");
+        TestUtils.endTest();
+
+        Matrix symmetric = new Matrix(new double[][] {{2, 1}, {1, 2}});
+        TestUtils.check("Inverse iteration", approximatelyEqual(symmetric.eigenvector(3).toMatrix(),
+                new Vector(1, 1).normalize().toMatrix()), true);
+        TestUtils.check("Defective eigenvector", Math.abs(Vector.dot(eigensolution.get(-1.0), new Vector(1, -1).normalize()))
+                > 1 - 1e-6, true);
+        Vector[] eigenspace = Matrix.identityMatrix(3).eigenvectors(new double[] {1, 1, 1});
+        TestUtils.check("Repeated eigenvalue", new Matrix(false, eigenspace).rank(), 3);
+        TestUtils.check("No real eigenvector", Double.isNaN(rotation.eigenvector(0).get(0)), true);
+        double[] spectrum = new double[80];
+        for(int i = 0; i < spectrum.length; i++)
+            spectrum[i] = i + 1;
+        Matrix triangular = TriangularMatrix.from(new Matrix(80, 80).randomize(), true).toMatrix()
+                .mapIndexed((r, c, v) -> r == c? r + 1: v / 80);
+        Vector[] batch = triangular.eigenvectors(spectrum, true);
+        boolean residualsSmall = batch.length == 80;
+        for(int i = 0; i < batch.length && residualsSmall; i++)
+            residualsSmall = approximatelyEqual(Matrix.multiply(triangular, batch[i]), batch[i].clone().scale(spectrum[i]).toMatrix());
+        TestUtils.check("Parallel inverse iteration", residualsSmall, true);
+        TestUtils.endTest();
+
+        Matrix gramian = SymmetricMatrix.transposeProduct(A2).toMatrix();
+        TestUtils.check("Rank deficient eigenvalues", Arrays.toString(gramian.eigenvalues(200)), "[25.0, 9.0, 0.0]");
+        long allocations = Workspace.get().getAllocationCount();
+        gramian.eigenvalues(200);
+        Vector.orthonormalize(gramian.getColVectors());
+        TestUtils.check("Workspace steady state", Workspace.get().getAllocationCount(), allocations);
+        Workspace workspace = Workspace.get();
+        workspace.clear();
+        double[][] large = { workspace.borrow(1 << 22), workspace.borrow(1 << 22), workspace.borrow(1 << 22) };
+        for(double[] array: large)
+            workspace.release(array);
+        TestUtils.check("Workspace byte budget", workspace.getPooledBytes(), 64L << 20);
+        workspace.borrow(1 << 22);
+        TestUtils.check("Workspace borrow from budget", workspace.getPooledBytes(), 32L << 20);
+        workspace.clear();
+        TestUtils.endTest();
+
+        Vector y7 = new Vector(7).randomize();
+        TestUtils.check("Transpose operator", approximatelyEqual(tall.applyTranspose(y7).toMatrix(),
+                Matrix.multiply(tall.transpose(), y7)), true);
+        TestUtils.check("Transpose operator propagates infinity", Double.isNaN(new Matrix(new double[][] {
+                {Double.POSITIVE_INFINITY}, {1}}).applyTranspose(new Vector(0, 1)).get(0)), true);
+        LinearOperator implicitGram = LinearOperators.gram(tall);
+        TestUtils.check("Implicit Gram operator", approximatelyEqual(implicitGram.apply(x4).toMatrix(),
+                gram.multiply(x4).toMatrix()), true);
+        TestUtils.check("Conjugate gradient", approximatelyEqual(IterativeSolvers.conjugateGradient(implicitGram,
+                gram.multiply(x4), 1e-12, 100).toMatrix(), x4.toMatrix()), true);
+        TestUtils.check("Shifted operator", approximatelyEqual(LinearOperators.shifted(gram, 2).apply(x4).toMatrix(),
+                Matrix.multiply(new DiagonalMatrix(4, 2).subtractFrom(gram.toMatrix()), x4)), true);
+        Matrix left = new Matrix(2, 3).randomize(), right = new Matrix(3, 2).randomize();
+        Matrix kroneckerDense = new Matrix(6, 6).mapIndexed((r, c, v) -> left.get(r / 3, c / 2) * right.get(r % 3, c % 2));
+        Vector x6 = new Vector(6).randomize();
+        LinearOperator kronecker = LinearOperators.kronecker(left, right);
+        TestUtils.check("Kronecker operator", approximatelyEqual(kronecker.apply(x6).toMatrix(),
+                Matrix.multiply(kroneckerDense, x6)), true);
+        TestUtils.check("Kronecker transpose", approximatelyEqual(kronecker.applyTranspose(x6).toMatrix(),
+                Matrix.multiply(kroneckerDense.transpose(), x6)), true);
+        TestUtils.check("Power iteration", approximatelyEqual(IterativeSolvers.powerIteration(symmetric, 100).toMatrix(),
+                new Vector(1, 1).normalize().toMatrix()), true);
+        TestUtils.endTest();
+
+        Vector fitted = tall.leastSquares(y7);
+        TestUtils.check("Least squares", approximatelyEqual(fitted.toMatrix(),
+                Matrix.multiply(gram.toMatrix().inverse(), tall.applyTranspose(y7))), true);
+        QRDecomposition householder = new QRDecomposition(tall);
+        TestUtils.check("Householder QR", approximatelyEqual(Matrix.multiply(householder.getQ(), householder.getR()), tall), true);
+        TestUtils.check("Orthonormal Q", approximatelyEqual(SymmetricMatrix.transposeProduct(householder.getQ()).toMatrix(),
+                Matrix.identityMatrix(4).translate(0)), true);
+        Matrix dependent = tall.clone();
+        dependent.setCol(3, Vector.add(tall.getColVector(0), tall.getColVector(1)));
+        QRDecomposition pivoted = new QRDecomposition(dependent, true);
+        TestUtils.check("Rank revealing QR", pivoted.rank(), 3);
+        Vector pivotedFit = dependent.leastSquares(y7, true);
+        TestUtils.check("Rank deficient least squares", approximatelyEqual(Matrix.multiply(dependent.transpose(),
+                Matrix.subtract(Matrix.multiply(dependent, pivotedFit), y7.toMatrix())), new Matrix(4, 1)), true);
+        Matrix pinv = A2.pseudoInverse();
+        TestUtils.check("Pseudo-inverse", approximatelyEqual(Matrix.multiply(Matrix.multiply(A2, pinv), A2), A2), true);
+        TestUtils.check("Pseudo-inverse of full rank", approximatelyEqual(Matrix.multiply(tall.pseudoInverse(), tall),
+                Matrix.identityMatrix(4).translate(0)), true);
+        Matrix dependentPinv = dependent.pseudoInverse();
+        TestUtils.check("Rank deficient pseudo-inverse", approximatelyEqual(
+                Matrix.multiply(Matrix.multiply(dependentPinv, dependent), dependentPinv), dependentPinv), true);
+        TestUtils.endTest();
+
+        Vector u4 = new Vector(4).randomize(), v4 = new Vector(4).randomize();
+        Matrix rankOne = Matrix.multiply(u4.toMatrix(), v4.toMatrix().transpose());
+        CholeskyDecomposition cholesky = new CholeskyDecomposition(gram);
+        cholesky.update(u4);
+        Matrix updatedGram = Matrix.add(gram.toMatrix(), Matrix.multiply(u4.toMatrix(), u4.toMatrix().transpose()));
+        TestUtils.check("Cholesky update", approximatelyEqual(cholesky.getL(),
+                new CholeskyDecomposition(updatedGram).getL()), true);
+        cholesky.downdate(u4);
+        TestUtils.check("Cholesky downdate", approximatelyEqual(Matrix.multiply(cholesky.getL(),
+                cholesky.getL().transpose()), gram.toMatrix()), true);
+        TestUtils.check("Cholesky solve", approximatelyEqual(cholesky.solve(gram.multiply(x4)).toMatrix(),
+                x4.toMatrix()), true);
+        UpdatableQRDecomposition streaming = new UpdatableQRDecomposition(tall);
+        streaming.update(y7, v4);
+        Matrix updatedTall = Matrix.add(tall, Matrix.multiply(y7.toMatrix(), v4.toMatrix().transpose()));
+        TestUtils.check("QR rank one update", approximatelyEqual(Matrix.multiply(streaming.getQ(), streaming.getR()),
+                updatedTall), true);
+        streaming.appendRow(u4);
+        streaming.removeRow(0);
+        Matrix shifted = updatedTall.removeRow(0).addRow(u4);
+        TestUtils.check("QR row append and removal", approximatelyEqual(Matrix.multiply(streaming.getQ(), streaming.getR()),
+                shifted), true);
+        Vector target = new Vector(7).randomize();
+        TestUtils.check("Updated QR least squares", approximatelyEqual(streaming.solve(target).toMatrix(),
+                shifted.leastSquares(target).toMatrix()), true);
+        Matrix square = Matrix.add(new Matrix(4, 4).randomize(), Matrix.identityMatrix(4).scale(4));
+        LUDecomposition cached = new LUDecomposition(square);
+        TestUtils.check("Sherman-Morrison solve", approximatelyEqual(cached.solveUpdated(u4, v4, x4).toMatrix(),
+                new LUDecomposition(Matrix.add(square, rankOne)).solve(x4).toMatrix()), true);
+        Matrix lowU = new Matrix(4, 2).randomize(), lowV = new Matrix(4, 2).randomize();
+        TestUtils.check("Woodbury solve", approximatelyEqual(cached.solveUpdated(lowU, lowV, x4).toMatrix(),
+                new LUDecomposition(Matrix.add(square, Matrix.multiply(lowU, lowV.transpose()))).solve(x4).toMatrix()), true);
+        TestUtils.endTest();
+
+        BlockMatrix blocks = new BlockMatrix(new Matrix[][] {{tall, null}, {square, lowU}});
+        Matrix assembled = blocks.toMatrix();
+        TestUtils.check("Block matrix shape", assembled.getRows() + "x" + assembled.getCols(), "11x6");
+        TestUtils.check("Block matrix get", blocks.get(8, 5), lowU.get(1, 1));
+        TestUtils.check("Block matrix zero block", blocks.get(2, 5), 0.0);
+        Vector x11 = new Vector(11).randomize();
+        TestUtils.check("Block matrix multiply", approximatelyEqual(blocks.apply(x6).toMatrix(),
+                Matrix.multiply(assembled, x6)), true);
+        TestUtils.check("Block matrix transpose multiply", approximatelyEqual(blocks.applyTranspose(x11).toMatrix(),
+                Matrix.multiply(assembled.transpose(), x11)), true);
+        TestUtils.check("Augment", Matrix.augment(square, lowU), BlockMatrix.horizontal(square, lowU).toMatrix());
+        TestUtils.check("Add column", tall.addColumn(y7, 2).getColVector(2), y7);
+        TestUtils.check("Add row", tall.addRow(x4, 0).removeRow(0), tall);
+        TestUtils.check("Kronecker dense", approximatelyEqual(new KroneckerProduct(left, right).toMatrix(), kroneckerDense), true);
+        TestUtils.endTest();
+
+        Dispatcher dispatcher = Dispatcher.get();
+        long blockedThreshold = dispatcher.getThreshold(Dispatcher.Operation.MULTIPLY, Dispatcher.Implementation.BLOCKED);
+        long parallelThreshold = dispatcher.getThreshold(Dispatcher.Operation.MULTIPLY, Dispatcher.Implementation.PARALLEL);
+        Matrix wide = new Matrix(70, 90).randomize(), narrow = new Matrix(90, 50).randomize();
+        dispatcher.setThreshold(Dispatcher.Operation.MULTIPLY, Dispatcher.Implementation.BLOCKED, Long.MAX_VALUE);
+        dispatcher.setThreshold(Dispatcher.Operation.MULTIPLY, Dispatcher.Implementation.PARALLEL, Long.MAX_VALUE);
+        TestUtils.check("Serial dispatch", dispatcher.choose(Dispatcher.Operation.MULTIPLY, 70 * 90 * 50),
+                Dispatcher.Implementation.SERIAL);
+        Matrix serialProduct = Matrix.multiply(wide, narrow);
+        dispatcher.setThreshold(Dispatcher.Operation.MULTIPLY, Dispatcher.Implementation.BLOCKED, 0);
+        TestUtils.check("Blocked multiply matches serial", Matrix.multiply(wide, narrow), serialProduct);
+        dispatcher.setThreshold(Dispatcher.Operation.MULTIPLY, Dispatcher.Implementation.PARALLEL, 0);
+        TestUtils.check("Parallel multiply matches serial", Matrix.multiply(wide, narrow), serialProduct);
+        dispatcher.setThreshold(Dispatcher.Operation.MULTIPLY, Dispatcher.Implementation.BLOCKED, blockedThreshold);
+        dispatcher.setThreshold(Dispatcher.Operation.MULTIPLY, Dispatcher.Implementation.PARALLEL, parallelThreshold);
+        TestUtils.check("Multiply matches dot products", serialProduct.get(3, 4),
+                Vector.dot(wide.getRowVector(3), narrow.getColVector(4)));
+        TestUtils.check("No calibration on first use", Files.exists(Dispatcher.getFile()), false);
+        Dispatcher.recalibrate();
+        TestUtils.check("Calibration saved", Files.exists(Dispatcher.getFile()), true);
+        TestUtils.check("Blocked threshold measured", dispatcher.getThreshold(Dispatcher.Operation.MULTIPLY,
+                Dispatcher.Implementation.BLOCKED) < Long.MAX_VALUE, true);
+        TestUtils.check("Zero times infinity in a product", Double.isNaN(Matrix.multiply(new Matrix(new double[][] {{0, 1}}),
+                new Matrix(new double[][] {{Double.POSITIVE_INFINITY}, {1}})).get(0, 0)), true);
+
+        Matrix weights = new Matrix(6, 4).randomize(-1, 1), inputs = new Matrix(4, 5).randomize(-1, 1);
+        Vector bias = new Vector(6).randomize(-1, 1);
+        Matrix layer = Matrix.affine(weights, inputs, bias, Activation.TANH);
+        Matrix unfused = Matrix.multiply(weights, inputs).mapIndexed((r, c, value) -> Math.tanh(value + bias.get(r)));
+        TestUtils.check("Fused affine layer", approximatelyEqual(layer, unfused), true);
+        TestUtils.check("Affine layer on one sample", approximatelyEqual(Matrix.affine(weights, inputs.getColVector(2),
+                null, Activation.RELU).columnMatrix(), Matrix.multiply(weights, inputs.getColVector(2))
+                .mapDoubles(value -> Math.max(0, value))), true);
+        TestUtils.check("Affine layer propagates NaN", Double.isNaN(Matrix.affine(new Matrix(new double[][] {{0, 1}}),
+                new Matrix(new double[][] {{Double.NaN}, {1}}), null, Activation.IDENTITY).get(0, 0)), true);
+        Matrix gradOutput = new Matrix(6, 5).randomize(-1, 1);
+        Matrix[] gradients = Matrix.affineBackward(weights, inputs, layer, gradOutput, Activation.TANH);
+        Matrix delta = Matrix.hadamardProduct(gradOutput, layer.clone().mapDoubles(y -> 1 - y * y));
+        TestUtils.check("Affine input gradient", approximatelyEqual(gradients[0],
+                Matrix.multiply(weights.transpose(), delta)), true);
+        TestUtils.check("Affine weight gradient", approximatelyEqual(gradients[1],
+                Matrix.multiply(delta, inputs.transpose())), true);
+        TestUtils.check("Affine bias gradient", approximatelyEqual(gradients[2],
+                Matrix.multiply(delta, new Vector(5).translate(1))), true);
+        TestUtils.endTest();
+
+        Matrix design = new Matrix(40, 3).randomize(), covariance = new Matrix(40, 40).randomize();
+        Matrix direction = new Vector(3).randomize().columnMatrix();
+        MatrixChain chain = new MatrixChain(design.transpose(), covariance, design, direction);
+        TestUtils.check("Chain order", chain.toString(), "(A0 (A1 (A2 A3)))");
+        TestUtils.check("Chain cost", chain.getCost(), 40L * 3 + 40 * 40 + 3 * 40);
+        TestUtils.check("Chain left to right cost", chain.getLeftToRightCost(), 3L * 40 * 40 + 3 * 40 * 3 + 3 * 3);
+        TestUtils.check("Chain product", approximatelyEqual(Matrix.multiplyChain(design.transpose(), covariance, design,
+                direction), Matrix.multiply(Matrix.multiply(Matrix.multiply(design.transpose(), covariance), design),
+                direction)), true);
+        TestUtils.check("Chain of one", Matrix.multiplyChain(design), design);
+        TestUtils.endTest();
+
+        Matrix remembered = new Matrix(new double[][] {{4, 1, 0, 2, 1}, {1, 3, 1, 0, 0}, {0, 1, 5, 1, 2}, {2, 0, 1, 6, 1},
+                {1, 0, 2, 1, 7}});
+        double rememberedDeterminant = remembered.determinant();
+        long stamp = remembered.getModificationCount();
+        TestUtils.check("Cached determinant", remembered.determinant(), rememberedDeterminant);
+        TestUtils.check("Reads keep the stamp", remembered.getModificationCount(), stamp);
+        Matrix[] factors = remembered.LU();
+        factors[0].set(100.0, 0, 0);
+        TestUtils.check("Cached factors are copies", remembered.LU()[0].get(0, 0), 1.0);
+        Matrix rememberedInverse = remembered.inverse();
+        rememberedInverse.set(100.0, 0, 0);
+        TestUtils.check("Cached inverse is a copy", approximatelyEqual(Matrix.multiply(remembered, remembered.inverse()),
+                Matrix.identityMatrix(5)), true);
+        double[] rememberedEigenvalues = remembered.eigenvalues(Constants.N);
+        rememberedEigenvalues[0] = 100;
+        TestUtils.check("Cached eigenvalues are copies", remembered.eigenvalues(Constants.N)[0] != 100, true);
+        remembered.set(5.0, 0, 0);
+        TestUtils.check("Set bumps the stamp", remembered.getModificationCount() > stamp, true);
+        TestUtils.check("Set invalidates the determinant", remembered.determinant(),
+                rememberedDeterminant + new Matrix(new double[][] {{3, 1, 0, 0}, {1, 5, 1, 2}, {0, 1, 6, 1}, {0, 2, 1, 7}})
+                        .determinant());
+        Matrix view = new Matrix(remembered);
+        double before = remembered.determinant();
+        view.mapDoubles(value -> 2 * value);
+        TestUtils.check("View writes invalidate", remembered.determinant(), before * 32);
+        double doubled = remembered.determinant();
+        remembered.mapFromEntries(entry -> {
+            remembered.determinant();
+            return 2 * entry.getVal();
+        });
+        TestUtils.check("Determinant read while writing through the array", remembered.determinant(), doubled * 32);
+        double halved = remembered.determinant();
+        remembered.mapDoubles(value -> {
+            remembered.determinant();
+            return value / 2;
+        });
+        TestUtils.check("Determinant read while mapping", remembered.determinant(), halved / 32);
+        TestUtils.endTest();
+
+    }
+
+    private static BufferPoolMXBean bufferPool(String name) {
+        for(BufferPoolMXBean pool: ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class))
+            if(pool.getName().equals(name))
+                return pool;
+        throw new IllegalArgumentException(name);
+    }
+
+    private static boolean approximatelyEqual(Matrix a, Matrix b) {
+        return Matrix.subtract(a, b).clean().equals(new Matrix(a.getRows(), a.getCols()).translate(0));
     }
 
 }
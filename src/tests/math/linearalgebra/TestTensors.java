@@ -4,8 +4,15 @@ import io.bhagat.math.functions.Function;
 import io.bhagat.math.linearalgebra.Tensor;
 import tests.TestUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
 public class TestTensors {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         Tensor<String> tensor = new Tensor<>(3, 2);
 
         TestUtils.check("Set 2", tensor.set("hi", 2, 0), null);
@@ -78,6 +85,93 @@ public class TestTensors {
         TestUtils.check("Function Mapping Test with Lambda", tensor6.map(x -> x + 2), tensor6);
         TestUtils.endTest();
 
+        Tensor<Double> tensor8 = new Tensor<>(new Double[][][] {
+                {{1.0, 2.0}, {3.0, 4.0}},
+                {{0.0, 0.0}, {-1.5, 8.25}}
+        });
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        tensor8.writeTo(raw);
+        tensor8.writeTo(raw, true);
+        ByteArrayInputStream in = new ByteArrayInputStream(raw.toByteArray());
+        TestUtils.check("Binary Round Trip", Tensor.readFrom(in), tensor8);
+        TestUtils.check("Compressed Binary Round Trip", Tensor.readFrom(in), tensor8);
+        TestUtils.check("Binary Stream Consumed", in.available(), 0);
+        Tensor<Double> sparse = new Tensor<>(new Double[100][100]);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        sparse.writeTo(compressed, true);
+        TestUtils.check("Sparse Compression", compressed.size() < 1000, true);
+        Tensor<Double> dense = new Tensor<Double>(50, 50).map(x -> Math.random());
+        ByteArrayOutputStream denseBytes = new ByteArrayOutputStream();
+        dense.writeTo(denseBytes, true);
+        byte[] cut = Arrays.copyOf(denseBytes.toByteArray(), denseBytes.size() - 200);
+        String truncated;
+        try {
+            Tensor.readFrom(new ByteArrayInputStream(cut));
+            truncated = "read";
+        } catch(IOException e) {
+            truncated = e.getMessage();
+        }
+        TestUtils.check("Truncated Compressed Stream", truncated, "Compressed tensor data is truncated");
+        ByteArrayOutputStream plainBytes = new ByteArrayOutputStream();
+        tensor8.writeTo(plainBytes);
+        ByteArrayOutputStream packedBytes = new ByteArrayOutputStream();
+        tensor8.writeTo(packedBytes, true);
+        TestUtils.check("Negative Dimension", readError(withInts(plainBytes.toByteArray(), 12, -1)),
+                "Invalid tensor file dimension -1");
+        TestUtils.check("Overflowing Dimensions", readError(withInts(plainBytes.toByteArray(), 12, Integer.MAX_VALUE,
+                Integer.MAX_VALUE, Integer.MAX_VALUE)), "Tensor file dimensions [2147483647, 2147483647] are too large");
+        TestUtils.check("Dimensions Beyond The Stream", readError(withInts(plainBytes.toByteArray(), 12, 1000, 1000, 100)),
+                "EOFException");
+        TestUtils.check("Dimensions Beyond The Compressed Data", readError(withInts(packedBytes.toByteArray(), 12, 1000,
+                1000, 100)), "Compressed tensor data is too short for dimensions [1000, 1000, 100]");
+        TestUtils.check("Negative Compressed Size", readError(withInts(packedBytes.toByteArray(), 24, -1, -1)),
+                "Invalid compressed tensor data size -1");
+        TestUtils.check("Corrupt Compressed Stream", readError(withInts(packedBytes.toByteArray(), 32, -1)),
+                "Compressed tensor data is corrupt");
+        TestUtils.endTest();
+
+        TestUtils.check("Double Stream Sum", tensor8.doubleStream().sum(), 16.75);
+        TestUtils.check("Double Stream Nulls As Zero", sparse.doubleStream().count() + sparse.doubleStream().sum(), 10000.0);
+        Tensor<Double> large = new Tensor<Double>(new Double[300][300]).map(x -> 1.0);
+        TestUtils.check("Parallel Double Stream", large.doubleStream().parallel().sum(), 90000.0);
+        TestUtils.check("Sized Spliterator", large.spliterator().getExactSizeIfKnown(), 90000L);
+        TestUtils.endTest();
+
+        Tensor<Double> original = new Tensor<Double>(2, 2).map(x -> 1.0);
+        Tensor<Double> copy = original.clone();
+        TestUtils.check("Clone Equals Original", copy, original);
+        copy.set(5.0, 0, 1);
+        TestUtils.check("Clone Write Copies", original.get(0, 1), 1.0);
+        TestUtils.check("Clone Keeps Write", copy.get(0, 1), 5.0);
+        original.set(7.0, 1, 1);
+        TestUtils.check("Original Write Copies", copy.get(1, 1), 1.0);
+        Tensor<Double> second = copy.clone();
+        second.map(x -> -x);
+        TestUtils.check("Map Copies Shared Clone", copy.get(0, 0), 1.0);
+        TestUtils.endTest();
 
+
+    }
+
+    /*
+     * Reads a tensor from bytes, returning the message of the IOException or the exception name if it has none
+     */
+    private static String readError(byte[] bytes) {
+        try {
+            return "read " + Tensor.readFrom(new ByteArrayInputStream(bytes));
+        } catch(IOException e) {
+            return e.getMessage() == null? e.getClass().getSimpleName(): e.getMessage();
+        }
     }
+
+    /*
+     * Overwrites little endian integers in a copy of the bytes of a tensor file
+     */
+    private static byte[] withInts(byte[] bytes, int offset, int... values) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        for(int i = 0; i < values.length; i++)
+            buffer.putInt(offset + i * Integer.BYTES, values[i]);
+        return buffer.array();
+    }
+
 }
@@ -1,11 +1,20 @@
 package tests.math.linearalgebra;
 
+import io.bhagat.math.linearalgebra.Matrix;
+import io.bhagat.math.linearalgebra.Reductions;
 import io.bhagat.math.linearalgebra.Vector;
+import io.bhagat.math.linearalgebra.Vector3;
+import io.bhagat.math.linearalgebra.exceptions.InvalidShapeException;
 import tests.TestUtils;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
 public class TestVector {
 
     public static void main(String[] args) {
+        TestUtils.useTemporaryDispatchFile();
         Vector a = new Vector(2, 3, 4);
         Vector b = new Vector(-2, -3, -4);
         Vector c = new Vector(0, 0, 0);
@@ -16,9 +25,15 @@ public class TestVector {
         TestUtils.check("Test dot product", Vector.dot(a, b), -29.0);
         TestUtils.check("Test magnitude equality", a.magnitude(), b.magnitude());
         TestUtils.check("Test sum", a.sum(), 9.0);
+        TestUtils.check("Test primitive map", a.clone().mapDoubles(x -> -x), b);
         TestUtils.endTest();
 
         TestUtils.check("Test get vector entry", a.getVectorEntry(0), a.new VectorEntry(0));
+        TestUtils.check("Vector entry hash lookup", new HashSet<>(Collections.singleton(a.getVectorEntry(0)))
+                .contains(a.getVectorEntry(0)), true);
+        Matrix entries = new Matrix(2, 2);
+        TestUtils.check("Matrix entry hash lookup", new HashSet<>(Collections.singleton(entries.getMatrixEntry(0, 1)))
+                .contains(entries.getMatrixEntry(0, 1)), true);
         TestUtils.check("Test get vector entry from entry array", a.getVectorEntries()[0], a.new VectorEntry(0));
         TestUtils.endTest();
 
@@ -31,11 +46,40 @@ public class TestVector {
         TestUtils.check("u1 _|_ u2", Vector.orthogonal(output[0], output[1]), true);
         TestUtils.check("u2 _|_ u3", Vector.orthogonal(output[1], output[2]), true);
         TestUtils.check("u1 _|_ u3", Vector.orthogonal(output[0], output[2]), true);
+        String ragged;
+        try {
+            ragged = Arrays.toString(Vector.orthogonalize(new Vector[] {v1, new Vector(1, 2, 3)}));
+        } catch(InvalidShapeException e) {
+            ragged = e.getMessage();
+        }
+        TestUtils.check("Orthogonalize vectors of different lengths", ragged,
+                "The shape of vector of length 4 and vector of length 3 are not compatible for this operation");
         TestUtils.endTest();
 
         Vector e = new Vector(1, 2, 3);
         Vector f = new Vector(1, 5, 7);
         TestUtils.check("e x f", Vector.cross(e, f), new Vector(-1, -4, 3));
+        TestUtils.check("Unrolled e x f", new Vector3(1, 2, 3).cross(new Vector3(1, 5, 7)), new Vector3(-1, -4, 3));
+        TestUtils.check("4D cross product", Vector.cross(new Vector(1, 0, 0, 0), new Vector(0, 1, 0, 0),
+                new Vector(0, 0, 1, 0)), new Vector(0, 0, 0, -1));
+        TestUtils.endTest();
+
+        Vector large = new Vector(200000).randomize();
+        double[] values = large.getDataArray();
+        TestUtils.check("Parallel sum is reproducible", Reductions.sum(i -> values[i], values.length, true),
+                Reductions.sum(i -> values[i], values.length, false));
+        TestUtils.check("Vector sum matches pairwise sum", large.sum(), Reductions.sum(values));
+        TestUtils.check("Parallel inner product is reproducible", Vector.inner(large, large), large.squaredMagnitude());
+        TestUtils.check("Short sums are left to right", Reductions.sum(new double[] {0.1, 0.2, 0.3}), 0.1 + 0.2 + 0.3);
+        TestUtils.endTest();
+
+        Vector shared = a.clone();
+        Matrix column = shared.columnMatrix();
+        column.set(10.0, 0, 0);
+        TestUtils.check("Views write through a clone", shared.get(0), 10.0);
+        TestUtils.check("Clone is copied on write", a.get(0), 2.0);
+        TestUtils.check("Translated copy", Vector.add(a, 1), new Vector(3, 4, 5));
+        TestUtils.check("Copy leaves original", a, new Vector(2, 3, 4));
         TestUtils.endTest();
     }
 